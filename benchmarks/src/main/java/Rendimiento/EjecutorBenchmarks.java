@@ -0,0 +1,32 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Rendimiento;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// =============================================================================
+// EJECUTOR DE BENCHMARKS
+// =============================================================================
+/**
+ * Punto de entrada de benchmarks.jar. Acepta las mismas opciones que la
+ * línea de comandos de JMH (filtro por nombre, -f, -wi, -i, -rf json...) y
+ * añade siempre el perfilador de GC, así que cada benchmark informa de su
+ * tasa de asignación (gc.alloc.rate y gc.alloc.rate.norm, bytes por operación).
+ */
+public class EjecutorBenchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions lineaComandos = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(lineaComandos)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
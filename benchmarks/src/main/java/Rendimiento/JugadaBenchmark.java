@@ -0,0 +1,96 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Rendimiento;
+
+import Controller.SolitarioController;
+import Motor.GeneradorMovimientos;
+import Motor.Movimiento;
+import Motor.TableroCompacto;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// =============================================================================
+// BENCHMARK DE JUGADAS
+// =============================================================================
+/**
+ * Jugadas de la interfaz de selección sobre un reparto fijo.
+ *
+ * moverEntreColumnas: seleccionarCartasTableau + moverATableau y deshacer()
+ * para volver a la misma posición en cada operación.
+ * cicloMazo: una vuelta completa al mazo con pasarCartasDelMazo(), incluido
+ * el reciclaje del descarte al acabar.
+ *
+ * El diario de deshacer crece con cada jugada, así que la partida se
+ * reinicia en cada iteración.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JugadaBenchmark {
+
+    private SolitarioController controller;
+    private long numeroPartida;
+    private int columnaOrigen;
+    private int indiceOrigen;
+    private int columnaDestino;
+    private int pasadasPorVuelta;
+
+    @Setup(Level.Trial)
+    public void buscarReparto() {
+        controller = new SolitarioController();
+        int[] movimientos = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+        // Primer reparto con un movimiento entre columnas disponible
+        for (numeroPartida = 0; ; numeroPartida++) {
+            controller.reiniciarJuego(numeroPartida);
+            int n = controller.generarMovimientosLegales(movimientos);
+            for (int i = 0; i < n; i++) {
+                if (Movimiento.tipo(movimientos[i]) == Movimiento.TIPO_TABLEAU_A_TABLEAU) {
+                    int origen = Movimiento.origen(movimientos[i]);
+                    columnaOrigen = origen - TableroCompacto.TABLEAU_0;
+                    indiceOrigen = controller.getTablero().getTableau().get(columnaOrigen).size()
+                            - Movimiento.cantidad(movimientos[i]);
+                    columnaDestino = Movimiento.destino(movimientos[i]) - TableroCompacto.TABLEAU_0;
+                    return;
+                }
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciar() {
+        controller.reiniciarJuego(numeroPartida);
+        int cartasAPasar = controller.getEstrategiaActual().getCartasAPasar();
+        int enMazo = controller.getTablero().getMazo().size();
+        pasadasPorVuelta = (enMazo + cartasAPasar - 1) / cartasAPasar + 1; // Robos más el reciclaje
+    }
+
+    @Benchmark
+    public boolean moverEntreColumnas() {
+        controller.seleccionarCartasTableau(columnaOrigen, indiceOrigen);
+        controller.moverATableau(columnaDestino);
+        return controller.deshacer();
+    }
+
+    @Benchmark
+    public void cicloMazo(Blackhole bh) {
+        for (int i = 0; i < pasadasPorVuelta; i++) {
+            bh.consume(controller.pasarCartasDelMazo());
+        }
+    }
+}
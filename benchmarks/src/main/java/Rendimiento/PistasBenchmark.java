@@ -0,0 +1,71 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Rendimiento;
+
+import Controller.SolitarioController;
+import Motor.Pista;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// =============================================================================
+// BENCHMARK DE PISTAS
+// =============================================================================
+/**
+ * Sugerencias sobre una posición de mitad de partida: la lista de texto de
+ * buscarMovimientosAutomaticos(), la lista ordenada del motor de pistas y la
+ * mejor pista sin crear objetos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PistasBenchmark {
+
+    @Param({"0", "20"})
+    private int jugadasPrevias;
+
+    private SolitarioController controller;
+
+    @Setup
+    public void preparar() {
+        controller = new SolitarioController();
+        controller.reiniciarJuego(1);
+        // Avanza la partida siguiendo la mejor pista para tener más cartas boca arriba
+        for (int i = 0; i < jugadasPrevias; i++) {
+            int movimiento = controller.obtenerMejorPista();
+            if (movimiento < 0 || !controller.aplicarMovimiento(movimiento)) {
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> buscarMovimientosAutomaticos() {
+        return controller.buscarMovimientosAutomaticos();
+    }
+
+    @Benchmark
+    public List<Pista> obtenerPistas() {
+        return controller.obtenerPistas();
+    }
+
+    @Benchmark
+    public int obtenerMejorPista() {
+        return controller.obtenerMejorPista();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Rendimiento;
+
+import Bridge.PuntuacionClasica;
+import Bridge.PuntuacionConTiempo;
+import Bridge.PuntuacionEstandar;
+import Bridge.PuntuacionImpl;
+import Bridge.PuntuacionModerna;
+import Bridge.PuntuacionVegas;
+import Bridge.SistemaPuntuacion;
+import Controller.SolitarioController;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// =============================================================================
+// BENCHMARK DE PUNTUACIÓN
+// =============================================================================
+/**
+ * getPuntuacion() con cada implementación del Bridge (clásica, Vegas,
+ * moderna) bajo cada abstracción (estándar y con tiempo).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PuntuacionBenchmark {
+
+    @Param({"clasica", "vegas", "moderna"})
+    private String implementacion;
+
+    @Param({"estandar", "conTiempo"})
+    private String sistema;
+
+    private SolitarioController controller;
+
+    @Setup
+    public void preparar() {
+        PuntuacionImpl impl = switch (implementacion) {
+            case "vegas" -> new PuntuacionVegas();
+            case "moderna" -> new PuntuacionModerna();
+            default -> new PuntuacionClasica();
+        };
+        SistemaPuntuacion puntuacion = sistema.equals("conTiempo")
+                ? new PuntuacionConTiempo(impl)
+                : new PuntuacionEstandar(impl);
+        controller = new SolitarioController();
+        controller.reiniciarJuego(1);
+        controller.cambiarSistemaPuntuacion(puntuacion);
+        // Algunas jugadas para que la puntuación no sea la inicial
+        for (int i = 0; i < 20; i++) {
+            int movimiento = controller.obtenerMejorPista();
+            if (movimiento < 0 || !controller.aplicarMovimiento(movimiento)) {
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public int getPuntuacion() {
+        return controller.getPuntuacion();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Rendimiento;
+
+import AbstractFactory.CartaFrancesaFactory;
+import Builder.DirectorTablero;
+import Builder.TableroSolitario;
+import Builder.TableroSolitarioConcreto;
+import Controller.SolitarioController;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// =============================================================================
+// BENCHMARK DE REPARTO
+// =============================================================================
+/**
+ * Construcción de un tablero con el DirectorTablero y creación completa de
+ * un SolitarioController (reparto más validarEstadoJuego()). Los reinicios
+ * reparten sobre el tablero existente y no deberían asignar memoria
+ * (gc.alloc.rate.norm a 0 con -prof gc).
+ * Cada operación usa una semilla distinta para no repetir siempre el mismo
+ * reparto.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RepartoBenchmark {
+
+    private DirectorTablero director;
+    private TableroSolitario tablero;
+    private SolitarioController controller;
+    private long numeroPartida;
+
+    @Setup
+    public void preparar() {
+        director = new DirectorTablero(new TableroSolitarioConcreto(new CartaFrancesaFactory()));
+        tablero = director.construirTableroEstandar(0);
+        controller = new SolitarioController();
+    }
+
+    @Benchmark
+    public TableroSolitario construirTableroEstandar() {
+        return director.construirTableroEstandar(numeroPartida++);
+    }
+
+    @Benchmark
+    public TableroSolitario reconstruirTableroEstandar() {
+        return director.reconstruirTableroEstandar(tablero, numeroPartida++);
+    }
+
+    @Benchmark
+    public SolitarioController reiniciarJuego() {
+        controller.reiniciarJuego(numeroPartida++);
+        return controller;
+    }
+
+    @Benchmark
+    public SolitarioController crearController() {
+        return new SolitarioController();
+    }
+}
@@ -11,28 +11,29 @@ import java.awt.Color;
 // ============================================================================
 
 // Define la interfaz común para todos los productos (cartas)
+// Las cartas son inmutables (PATRÓN FLYWEIGHT): cada factory comparte las mismas
+// 52 instancias entre todas las partidas y el estado boca arriba/boca abajo
+// lo guarda cada TableroSolitario.
 
 public abstract class Carta {
-    protected int valor;
-    protected int palo;
-    protected boolean volteada;
+    // Valores por palo en las barajas soportadas (A-K)
+    public static final int VALORES_POR_PALO = 13;
+
+    protected final int valor;
+    protected final int palo;
     
     //Cada carta conoce su factory creadora
-    protected CartaAbstractFactory factory;
+    protected final CartaAbstractFactory factory;
     
     public Carta(int valor, int palo, CartaAbstractFactory factory) {
         this.valor = valor;
         this.palo = palo;
-        this.volteada = false;
         this.factory = factory;
     }
     
-    public void voltear() {
-        volteada = !volteada;
-    }
-    
-    public boolean estaVolteada() {
-        return volteada;
+    // Identificador único de la carta dentro de la baraja (0-51)
+    public int getOrdinal() {
+        return palo * VALORES_POR_PALO + valor;
     }
     
     public int getValor() {
@@ -43,6 +44,12 @@ public abstract class Carta {
         return palo;
     }
     
+    // Etiqueta legible de la carta, p. ej. "10♥"
+    @Override
+    public String toString() {
+        return getNombreValor() + getSimboloPalo();
+    }
+    
     // MÉTODOS ABSTRACTOS: Deben ser implementados por productos concretos
     public abstract String getSimboloPalo();
     public abstract String getNombreValor();
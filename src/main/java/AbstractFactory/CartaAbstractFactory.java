@@ -13,8 +13,12 @@ import java.awt.Color;
 public interface CartaAbstractFactory {
 
     // MÉTODO FACTORY: Crear el producto principal (Carta)
+    // Devuelve la instancia canónica compartida de esa carta (PATRÓN FLYWEIGHT)
     public abstract Carta crearCarta(int valor, int palo);
 
+    // Instancia canónica por ordinal (palo * 13 + valor)
+    public abstract Carta getCarta(int ordinal);
+
     // MÉTODOS AUXILIARES: Para obtener información específica de cada familia de cartas
     public abstract String[] getSimbolosPalos();
 
@@ -12,6 +12,8 @@ import java.awt.Color;
 // Implementación específica para cartas francesas
 public class CartaFrancesa extends Carta {
     
+    private static final String[] SIMBOLOS = {"♠", "♥", "♦", "♣"};// Picas, Corazones, Diamantes, Tréboles
+    private static final String[] NOMBRES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
     
     public CartaFrancesa(int valor, int palo) {
         super(valor, palo, null);// PRODUCTO CONCRETO: No necesita referencia al factory
@@ -20,15 +22,13 @@ public class CartaFrancesa extends Carta {
     //Símbolos de cartas francesas
     @Override
     public String getSimboloPalo() {
-        String[] simbolos = {"♠", "♥", "♦", "♣"};// Picas, Corazones, Diamantes, Tréboles
-        return simbolos[palo];
+        return SIMBOLOS[palo];
     }
     
     //Valores de cartas francesas
     @Override
     public String getNombreValor() {
-        String[] nombres = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
-        return nombres[valor];
+        return NOMBRES[valor];
     }
     
     //Colores para cartas francesas
@@ -40,12 +40,11 @@ public class CartaFrancesa extends Carta {
     //Reglas del solitario para cartas francesas
     @Override
     public boolean puedeColocarseEn(Carta otraCarta) {
-        if (otraCarta == null) return valor == 12; // Solo Rey puede ir en espacio vacío
-        return getColorPalo() != otraCarta.getColorPalo() && valor == otraCarta.getValor() - 1;
+        return ReglasCartas.puedeApilar(this, otraCarta); // Solo Rey puede ir en espacio vacío (null)
     }
     
     @Override
     public boolean esSiguienteEnSecuencia(Carta otraCarta) {
-        return palo == otraCarta.getPalo() && valor == otraCarta.getValor() + 1;
+        return ReglasCartas.esSiguienteEnFundacion(getOrdinal(), otraCarta.getOrdinal());
     }
 }
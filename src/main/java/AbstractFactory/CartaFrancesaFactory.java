@@ -17,10 +17,24 @@ public class CartaFrancesaFactory implements CartaAbstractFactory {
     private static final String[] SIMBOLOS_PALOS = {"♠", "♥", "♦", "♣"};
     private static final String[] NOMBRES_VALORES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
     
-    //Crea productos específicos (CartaFrancesa)
+    //Las 52 cartas inmutables compartidas por todas las partidas (PATRÓN FLYWEIGHT)
+    private static final Carta[] CARTAS = new Carta[4 * Carta.VALORES_POR_PALO];
+    
+    static {
+        for (int i = 0; i < CARTAS.length; i++) {
+            CARTAS[i] = new CartaFrancesa(i % Carta.VALORES_POR_PALO, i / Carta.VALORES_POR_PALO);
+        }
+    }
+    
+    //Devuelve el producto específico (CartaFrancesa) sin crear objetos nuevos
     @Override
     public Carta crearCarta(int valor, int palo) {
-        return new CartaFrancesa(valor, palo);// RETORNA PRODUCTO CONCRETO
+        return CARTAS[palo * Carta.VALORES_POR_PALO + valor];// RETORNA PRODUCTO CONCRETO
+    }
+    
+    @Override
+    public Carta getCarta(int ordinal) {
+        return CARTAS[ordinal];
     }
     
     @Override
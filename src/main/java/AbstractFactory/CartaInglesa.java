@@ -12,20 +12,21 @@ import java.awt.Color;
 
 // Implementación específica para cartas inglesas (similar pero podría tener diferencias)
 public class CartaInglesa extends Carta {
+    private static final String[] SIMBOLOS = {"♠", "♥", "♦", "♣"};
+    private static final String[] NOMBRES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+    
     public CartaInglesa(int valor, int palo) {
         super(valor, palo, null);
     }
     
     @Override
     public String getSimboloPalo() {
-        String[] simbolos = {"♠", "♥", "♦", "♣"};
-        return simbolos[palo];
+        return SIMBOLOS[palo];
     }
     
     @Override
     public String getNombreValor() {
-        String[] nombres = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
-        return nombres[valor];
+        return NOMBRES[valor];
     }
     
     @Override
@@ -35,12 +36,11 @@ public class CartaInglesa extends Carta {
     
     @Override
     public boolean puedeColocarseEn(Carta otraCarta) {
-        if (otraCarta == null) return valor == 12;
-        return getColorPalo() != otraCarta.getColorPalo() && valor == otraCarta.getValor() - 1;
+        return ReglasCartas.puedeApilar(this, otraCarta);
     }
     
     @Override
     public boolean esSiguienteEnSecuencia(Carta otraCarta) {
-        return palo == otraCarta.getPalo() && valor == otraCarta.getValor() + 1;
+        return ReglasCartas.esSiguienteEnFundacion(getOrdinal(), otraCarta.getOrdinal());
     }
 }
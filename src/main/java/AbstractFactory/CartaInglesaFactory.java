@@ -15,9 +15,23 @@ public class CartaInglesaFactory implements CartaAbstractFactory {
     private static final String[] SIMBOLOS_PALOS = {"♠", "♥", "♦", "♣"};
     private static final String[] NOMBRES_VALORES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
     
+    //Las 52 cartas inmutables compartidas por todas las partidas (PATRÓN FLYWEIGHT)
+    private static final Carta[] CARTAS = new Carta[4 * Carta.VALORES_POR_PALO];
+    
+    static {
+        for (int i = 0; i < CARTAS.length; i++) {
+            CARTAS[i] = new CartaInglesa(i % Carta.VALORES_POR_PALO, i / Carta.VALORES_POR_PALO);
+        }
+    }
+    
     @Override
     public Carta crearCarta(int valor, int palo) {
-        return new CartaInglesa(valor, palo);// RETORNA PRODUCTO CONCRETO INGLÉS
+        return CARTAS[palo * Carta.VALORES_POR_PALO + valor];// RETORNA PRODUCTO CONCRETO INGLÉS
+    }
+    
+    @Override
+    public Carta getCarta(int ordinal) {
+        return CARTAS[ordinal];
     }
     
     @Override
@@ -0,0 +1,98 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package AbstractFactory;
+
+// ============================================================================
+// NÚCLEO DE REGLAS
+// ============================================================================
+
+// Tablas precalculadas con las reglas de colocación de cartas, indexadas por
+// ordinal (palo * 13 + valor). Cada fila es un long de 52 bits: comprobar un
+// movimiento es leer una posición del arreglo y un bit, sin objetos Color ni
+// llamadas virtuales. Las usan las cartas, las estrategias y el controlador.
+
+public final class ReglasCartas {
+
+    public static final int NUM_CARTAS = 4 * Carta.VALORES_POR_PALO;
+
+    // PUEDE_APILAR[a] bit b: la carta a puede colocarse sobre b en el tableau
+    private static final long[] PUEDE_APILAR = new long[NUM_CARTAS];
+
+    // SIGUIENTE_FUNDACION[a] bit b: la carta a sigue a b en una fundación
+    private static final long[] SIGUIENTE_FUNDACION = new long[NUM_CARTAS];
+
+    // Cartas que pueden ocupar una columna vacía (Reyes) o iniciar una fundación (Ases)
+    private static final long REYES;
+    private static final long ASES;
+
+    static {
+        long reyes = 0;
+        long ases = 0;
+        for (int a = 0; a < NUM_CARTAS; a++) {
+            int valorA = a % Carta.VALORES_POR_PALO;
+            int paloA = a / Carta.VALORES_POR_PALO;
+            for (int b = 0; b < NUM_CARTAS; b++) {
+                int valorB = b % Carta.VALORES_POR_PALO;
+                int paloB = b / Carta.VALORES_POR_PALO;
+                // Colores alternos y valor descendente consecutivo
+                if (esRojo(paloA) != esRojo(paloB) && valorA == valorB - 1) {
+                    PUEDE_APILAR[a] |= 1L << b;
+                }
+                // Mismo palo y valor ascendente consecutivo
+                if (paloA == paloB && valorA == valorB + 1) {
+                    SIGUIENTE_FUNDACION[a] |= 1L << b;
+                }
+            }
+            if (valorA == Carta.VALORES_POR_PALO - 1) {
+                reyes |= 1L << a;
+            }
+            if (valorA == 0) {
+                ases |= 1L << a;
+            }
+        }
+        REYES = reyes;
+        ASES = ases;
+    }
+
+    private ReglasCartas() {
+    }
+
+    // Mismo criterio que las factories: corazones (1) y diamantes (2) son rojos
+    private static boolean esRojo(int palo) {
+        return palo == 1 || palo == 2;
+    }
+
+    // REGLAS POR ORDINAL
+
+    public static boolean puedeApilar(int ordinal, int ordinalDestino) {
+        return (PUEDE_APILAR[ordinal] & (1L << ordinalDestino)) != 0;
+    }
+
+    public static boolean puedeOcuparColumnaVacia(int ordinal) {
+        return (REYES & (1L << ordinal)) != 0;
+    }
+
+    public static boolean esSiguienteEnFundacion(int ordinal, int ordinalTope) {
+        return (SIGUIENTE_FUNDACION[ordinal] & (1L << ordinalTope)) != 0;
+    }
+
+    public static boolean puedeIniciarFundacion(int ordinal) {
+        return (ASES & (1L << ordinal)) != 0;
+    }
+
+    // REGLAS POR CARTA: destino null significa pila vacía
+
+    public static boolean puedeApilar(Carta carta, Carta destino) {
+        return destino == null
+                ? puedeOcuparColumnaVacia(carta.getOrdinal())
+                : puedeApilar(carta.getOrdinal(), destino.getOrdinal());
+    }
+
+    public static boolean puedeIrAFundacion(Carta carta, Carta tope) {
+        return tope == null
+                ? puedeIniciarFundacion(carta.getOrdinal())
+                : esSiguienteEnFundacion(carta.getOrdinal(), tope.getOrdinal());
+    }
+}
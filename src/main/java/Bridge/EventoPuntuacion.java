@@ -0,0 +1,40 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Bridge;
+
+// ============================================================================
+// EVENTOS DE PUNTUACIÓN
+// ============================================================================
+/**
+ * Jugadas que notifica el controlador al sistema de puntuación. Cada evento
+ * indica si cuenta como movimiento del jugador y cuántas cartas suma o resta
+ * a las fundaciones; con eso cada implementación decide sus puntos.
+ */
+public enum EventoPuntuacion {
+
+    ROBO(true, 0),                      // Pasar cartas del mazo al descarte
+    RECICLAJE(true, 0),                 // Devolver el descarte al mazo
+    VOLTEO(true, 0),                    // Voltear a mano la carta superior de una columna
+    VOLTEO_AUTOMATICO(false, 0),        // Carta descubierta al mover las que tenía encima
+    MOVIMIENTO_TABLEAU(true, 0),        // Descarte o tableau hacia una columna
+    CARTA_A_FUNDACION(true, 1),         // Descarte o tableau hacia una fundación
+    CARTA_DESDE_FUNDACION(true, -1);    // Fundación de vuelta a una columna
+
+    private final boolean cuentaComoMovimiento;
+    private final int cambioFundaciones;
+
+    EventoPuntuacion(boolean cuentaComoMovimiento, int cambioFundaciones) {
+        this.cuentaComoMovimiento = cuentaComoMovimiento;
+        this.cambioFundaciones = cambioFundaciones;
+    }
+
+    public boolean cuentaComoMovimiento() {
+        return cuentaComoMovimiento;
+    }
+
+    public int getCambioFundaciones() {
+        return cambioFundaciones;
+    }
+}
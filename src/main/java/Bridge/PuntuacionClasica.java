@@ -19,6 +19,17 @@ public class PuntuacionClasica implements PuntuacionImpl {
         return cartasEnFundacion * 100 - movimientos * 2;
     }
     
+    // Versión incremental de la misma fórmula
+    @Override
+    public int puntosIniciales() {
+        return 0;
+    }
+
+    @Override
+    public int puntosPorEvento(EventoPuntuacion evento) {
+        return (evento.cuentaComoMovimiento() ? -2 : 0) + evento.getCambioFundaciones() * 100;
+    }
+
     @Override
     public String getDescripcion() {
         return "Clásica: +100 por carta en fundación, -2 por movimiento";
@@ -26,7 +26,13 @@ public class PuntuacionConTiempo extends SistemaPuntuacion {
     // Extiende la funcionalidad base agregando lógica de bonificación por tiempo
     @Override
     public int calcularPuntuacionFinal(int movimientos, long tiempo, int cartasEnFundacion) {
-        int puntuacionBase = implementacion.calcularPuntos(movimientos, tiempo, cartasEnFundacion);
+        return ajustarPuntuacion(implementacion.calcularPuntos(movimientos, tiempo, cartasEnFundacion), tiempo);
+    }
+
+    // Bonificación por velocidad, común a la puntuación final y a la incremental
+    @Override
+    protected int ajustarPuntuacion(int puntos, long tiempo) {
+        int puntuacionBase = puntos;
 
         // Bonus por velocidad
         if (tiempo < 300000) { // Menos de 5 minutos
@@ -50,4 +56,9 @@ public class PuntuacionConTiempo extends SistemaPuntuacion {
     public void reiniciarTiempo() {
         this.tiempoInicio = System.currentTimeMillis();
     }
+
+    // Fija el inicio del cronómetro (p. ej. al restaurar una sesión guardada)
+    public void reiniciarTiempo(long tiempoInicio) {
+        this.tiempoInicio = tiempoInicio;
+    }
 }
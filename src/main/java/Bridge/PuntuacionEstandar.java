@@ -23,7 +23,7 @@ public class PuntuacionEstandar extends SistemaPuntuacion {
     // Implementa el método abstracto agregando comportamiento específico
     @Override
     public int calcularPuntuacionFinal(int movimientos, long tiempo, int cartasEnFundacion) {
-        return Math.max(0, implementacion.calcularPuntos(movimientos, tiempo, cartasEnFundacion));
+        return ajustarPuntuacion(implementacion.calcularPuntos(movimientos, tiempo, cartasEnFundacion), tiempo);
     }
     
     // Combina información de la abstracción con la implementación
@@ -19,4 +19,28 @@ public interface PuntuacionImpl {
     // Método adicional para obtener información descriptiva de la implementación
     public String getDescripcion();
 
+    // PUNTUACIÓN INCREMENTAL: el sistema acumula los puntos de cada evento y
+    // solo suma la parte que depende del tiempo al leer la puntuación.
+    // Las implementaciones por defecto derivan los valores de calcularPuntos,
+    // lo que es exacto si la fórmula es lineal en movimientos y cartas.
+
+    // Puntos con los que empieza una partida (sin contar el tiempo)
+    public default int puntosIniciales() {
+        return calcularPuntos(0, 0, 0) - puntosPorTiempo(0);
+    }
+
+    // Puntos que suma o resta un evento de juego
+    public default int puntosPorEvento(EventoPuntuacion evento) {
+        int base = calcularPuntos(0, 0, 0);
+        int porMovimiento = calcularPuntos(1, 0, 0) - base;
+        int porCarta = calcularPuntos(0, 0, 1) - base;
+        return (evento.cuentaComoMovimiento() ? porMovimiento : 0)
+                + evento.getCambioFundaciones() * porCarta;
+    }
+
+    // Parte de la puntuación que depende del tiempo transcurrido
+    public default int puntosPorTiempo(long tiempo) {
+        return 0;
+    }
+
 }
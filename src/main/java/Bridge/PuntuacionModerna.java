@@ -17,8 +17,23 @@ package Bridge;
 public class PuntuacionModerna implements PuntuacionImpl {
     @Override
     public int calcularPuntos(int movimientos, long tiempo, int cartasEnFundacion) {
-        int puntosTiempo = Math.max(0, 10000 - (int)(tiempo / 1000));
-        return cartasEnFundacion * 150 + puntosTiempo - movimientos;
+        return cartasEnFundacion * 150 + puntosPorTiempo(tiempo) - movimientos;
+    }
+
+    // Versión incremental: cartas y movimientos se acumulan, el tiempo se suma al leer
+    @Override
+    public int puntosIniciales() {
+        return 0;
+    }
+
+    @Override
+    public int puntosPorEvento(EventoPuntuacion evento) {
+        return (evento.cuentaComoMovimiento() ? -1 : 0) + evento.getCambioFundaciones() * 150;
+    }
+
+    @Override
+    public int puntosPorTiempo(long tiempo) {
+        return Math.max(0, 10000 - (int)(tiempo / 1000));
     }
     
     @Override
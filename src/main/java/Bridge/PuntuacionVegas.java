@@ -20,6 +20,17 @@ public class PuntuacionVegas implements PuntuacionImpl {
         return cartasEnFundacion * 5 - 52; // $5 por carta, $52 de costo inicial
     }
     
+    // Versión incremental: se empieza pagando $52 y cada carta vale $5
+    @Override
+    public int puntosIniciales() {
+        return -52;
+    }
+
+    @Override
+    public int puntosPorEvento(EventoPuntuacion evento) {
+        return evento.getCambioFundaciones() * 5;
+    }
+
     @Override
     public String getDescripcion() {
         return "Vegas: $5 por carta en fundación, -$52 inicial";
@@ -4,6 +4,9 @@
  */
 package Bridge;
 
+import Observer.ObservadorPuntuacion;
+import java.util.Arrays;
+
 // ============================================================================
 // ABSTRACION
 // ============================================================================
@@ -16,11 +19,19 @@ public abstract class SistemaPuntuacion {
     
     // Permite que la abstracción delegue trabajo a la implementación
     protected PuntuacionImpl implementacion;
+
+    // Acumulador incremental: eventos netos por tipo y puntos que suman
+    private final int[] conteoEventos = new int[EventoPuntuacion.values().length];
+    private int puntosAcumulados;
+
+    // Avisos para métricas; lo inyecta el controlador (null: sin avisos)
+    private ObservadorPuntuacion observador;
     
     //Constructor que establece la conexión entre abstracción e implementación
     //Permite inyección de dependencias y intercambio dinámico de implementaciones
     public SistemaPuntuacion(PuntuacionImpl implementacion) {
         this.implementacion = implementacion;
+        this.puntosAcumulados = implementacion.puntosIniciales();
     }
     
     //Métodos abstractos que definen la interfaz de la abstracción
@@ -28,8 +39,89 @@ public abstract class SistemaPuntuacion {
     public abstract int calcularPuntuacionFinal(int movimientos, long tiempo, int cartasEnFundacion);
     public abstract String mostrarEstadisticas();
     
+    public void setObservador(ObservadorPuntuacion observador) {
+        this.observador = observador;
+    }
+
+    public PuntuacionImpl getImplementacion() {
+        return implementacion;
+    }
+    
     //Permite cambiar la implementación en tiempo de ejecución
+    //Los puntos se recalculan con los eventos ya registrados
     public void setImplementacion(PuntuacionImpl implementacion) {
         this.implementacion = implementacion;
+        recalcularAcumulado();
+    }
+
+    // Ajuste final sobre los puntos de la implementación (mínimos, bonificaciones...)
+    // Lo comparten calcularPuntuacionFinal y la puntuación incremental
+    protected int ajustarPuntuacion(int puntos, long tiempo) {
+        return Math.max(0, puntos);
+    }
+
+    // PUNTUACIÓN INCREMENTAL
+
+    // Suma los puntos de una jugada; O(1)
+    public void registrarEvento(EventoPuntuacion evento) {
+        conteoEventos[evento.ordinal()]++;
+        puntosAcumulados += implementacion.puntosPorEvento(evento);
+    }
+
+    // Resta los puntos de una jugada deshecha; O(1)
+    public void revertirEvento(EventoPuntuacion evento) {
+        conteoEventos[evento.ordinal()]--;
+        puntosAcumulados -= implementacion.puntosPorEvento(evento);
+    }
+
+    // Puntuación actual sin recorrer el tablero; O(1)
+    public int getPuntuacionActual(long tiempo) {
+        if (observador != null) {
+            observador.puntuacionConsultada();
+        }
+        return ajustarPuntuacion(puntosAcumulados + implementacion.puntosPorTiempo(tiempo), tiempo);
+    }
+
+    // Vuelve a la puntuación de una partida nueva
+    public void reiniciarAcumulado() {
+        Arrays.fill(conteoEventos, 0);
+        puntosAcumulados = implementacion.puntosIniciales();
+    }
+
+    // Ajusta el acumulado a una partida con estos contadores cuando no se
+    // conocen sus eventos (p. ej. al cargar un estado guardado)
+    public void sincronizar(int movimientos, int cartasEnFundacion) {
+        Arrays.fill(conteoEventos, 0);
+        conteoEventos[EventoPuntuacion.CARTA_A_FUNDACION.ordinal()] = cartasEnFundacion;
+        conteoEventos[EventoPuntuacion.MOVIMIENTO_TABLEAU.ordinal()] = movimientos - cartasEnFundacion;
+        recalcularAcumulado();
+    }
+
+    // Copia los eventos registrados por otro sistema (al cambiar de sistema en mitad de la partida)
+    public void transferirAcumulado(SistemaPuntuacion anterior) {
+        System.arraycopy(anterior.conteoEventos, 0, conteoEventos, 0, conteoEventos.length);
+        recalcularAcumulado();
+    }
+
+    // Eventos netos registrados de un tipo (para guardar la sesión)
+    public int getConteoEvento(EventoPuntuacion evento) {
+        return conteoEventos[evento.ordinal()];
+    }
+
+    // Restaura los eventos de una sesión guardada, indexados por ordinal
+    public void restaurarAcumulado(int[] conteo) {
+        System.arraycopy(conteo, 0, conteoEventos, 0, conteoEventos.length);
+        recalcularAcumulado();
+    }
+
+    private void recalcularAcumulado() {
+        if (observador != null) {
+            observador.puntuacionRecalculada();
+        }
+        int puntos = implementacion.puntosIniciales();
+        for (EventoPuntuacion evento : EventoPuntuacion.values()) {
+            puntos += conteoEventos[evento.ordinal()] * implementacion.puntosPorEvento(evento);
+        }
+        puntosAcumulados = puntos;
     }
 }
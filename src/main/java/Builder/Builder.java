@@ -17,9 +17,15 @@ public interface Builder {
     // Reinicia el builder a su estado inicial, limpia todas las estructuras
     public Builder reset();
 
+    // Como reset(), pero vacía y reutiliza las listas de un tablero existente
+    public Builder reutilizar(TableroSolitario tablero);
+
     // Crea una baraja completa mezclada con todas las cartas
     public Builder crearBaraja();
 
+    // Crea la baraja mezclada de forma reproducible a partir de un número de partida
+    public Builder crearBaraja(long numeroPartida);
+
     // Inicializa las 4 pilas de fundaciones (una por palo)
     public Builder inicializarFundaciones();
 
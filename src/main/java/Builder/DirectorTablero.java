@@ -10,6 +10,8 @@ package Builder;
 /**
  * Director del patrón Builder. Conoce la secuencia correcta de pasos para
  * construir diferentes tipos de tableros de Solitario.
+ * El builder guarda estado durante la construcción: para repartir desde
+ * varios hilos, cada hilo debe usar su propio director y builder.
  */
 public class DirectorTablero {
 
@@ -48,4 +50,40 @@ public class DirectorTablero {
                 .build();
     }
 
+    /**
+     * Construye el tablero estándar correspondiente a un número de partida.
+     * El mismo número genera siempre el mismo mazo y el mismo tableau.
+     *
+     * @param numeroPartida semilla de 64 bits que identifica el reparto
+     * @return TableroSolitario reproducible
+     */
+    public TableroSolitario construirTableroEstandar(long numeroPartida) {
+        return builder
+                .reset()
+                .crearBaraja(numeroPartida)
+                .inicializarFundaciones()
+                .inicializarTableau()
+                .repartirCartasTableau()
+                .build();
+    }
+
+    /**
+     * Reparte un número de partida sobre un tablero existente, reutilizando
+     * sus listas y sus cartas en lugar de crear otras. El resultado es igual
+     * al de construirTableroEstandar(numeroPartida).
+     *
+     * @param tablero tablero que se reutiliza (su partida anterior se pierde)
+     * @param numeroPartida semilla de 64 bits que identifica el reparto
+     * @return el mismo tablero, ya repartido
+     */
+    public TableroSolitario reconstruirTableroEstandar(TableroSolitario tablero, long numeroPartida) {
+        return builder
+                .reutilizar(tablero)
+                .crearBaraja(numeroPartida)
+                .inicializarFundaciones()
+                .inicializarTableau()
+                .repartirCartasTableau()
+                .build();
+    }
+
 }
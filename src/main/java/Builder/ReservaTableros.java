@@ -0,0 +1,202 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Builder;
+
+import AbstractFactory.CartaAbstractFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// =============================================================================
+// RESERVA DE TABLEROS
+// =============================================================================
+/**
+ * Cola acotada de tableros ya repartidos y validados para un tipo de baraja.
+ * Unos hilos virtuales productores, cada uno con su director y su builder,
+ * la mantienen llena: cuando está completa se quedan bloqueados sin gastar
+ * CPU y cada tablero que se toma despierta a uno para reponerlo.
+ *
+ * Los tableros que las partidas dejan al reiniciarse se pueden devolver:
+ * los productores reparten sobre ellos antes de crear otros, así que en
+ * régimen estable la reserva no crea tableros nuevos.
+ *
+ * Tomar un tablero no bloquea nunca. Si la reserva está vacía (p. ej. en
+ * una avalancha de reinicios) se cuenta un fallo y quien llama reparte por
+ * su cuenta, como sin reserva. Solo sirve para repartos aleatorios: un
+ * número de partida concreto se sigue construyendo al momento.
+ */
+public class ReservaTableros implements AutoCloseable {
+
+    private static final int NUM_PILAS = TableroSolitario.PILA_TABLEAU_0 + 7; // 7 columnas del tableau
+
+    private final CartaAbstractFactory factory;
+    private final ArrayBlockingQueue<TableroRepartido> tableros;
+    private final ArrayBlockingQueue<TableroSolitario> usados;     // Tableros devueltos para reutilizar
+    private final List<Thread> productores = new ArrayList<>();
+    private volatile boolean cerrada;
+
+    // Métricas
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder producidos = new LongAdder();
+    private final LongAdder invalidos = new LongAdder();
+    private final LongAdder reutilizados = new LongAdder();
+
+    /**
+     * Crea la reserva y arranca sus productores
+     * @param factory baraja de los tableros; sirve a cualquier partida con una factory de la misma clase
+     * @param capacidad tableros que se mantienen listos
+     * @param numProductores hilos virtuales que reparten en segundo plano
+     */
+    public ReservaTableros(CartaAbstractFactory factory, int capacidad, int numProductores) {
+        if (capacidad < 1 || numProductores < 1) {
+            throw new IllegalArgumentException("La reserva necesita capacidad y al menos un productor");
+        }
+        this.factory = factory;
+        this.tableros = new ArrayBlockingQueue<>(capacidad);
+        this.usados = new ArrayBlockingQueue<>(capacidad);
+        String nombre = "reserva-" + factory.getClass().getSimpleName() + "-";
+        for (int i = 0; i < numProductores; i++) {
+            productores.add(Thread.ofVirtual().name(nombre + i).start(this::producir));
+        }
+    }
+
+    /**
+     * @return un tablero listo o null si la reserva está vacía o cerrada
+     */
+    public TableroRepartido tomar() {
+        TableroRepartido repartido = cerrada ? null : tableros.poll();
+        if (repartido == null) {
+            fallos.increment();
+        } else {
+            aciertos.increment();
+        }
+        return repartido;
+    }
+
+    /**
+     * Devuelve el tablero de una partida que ya no lo usa para repartir
+     * sobre él. Quien lo devuelve no debe volver a tocarlo. Si sobran
+     * tableros usados, se descarta.
+     */
+    public void devolver(TableroSolitario tablero) {
+        if (!cerrada && tablero.getFactory() != null && sirvePara(tablero.getFactory())) {
+            usados.offer(tablero);
+        }
+    }
+
+    /**
+     * Indica si los tableros de la reserva sirven para una partida con esta factory
+     */
+    public boolean sirvePara(CartaAbstractFactory otra) {
+        return otra.getClass() == factory.getClass();
+    }
+
+    private void producir() {
+        DirectorTablero director = new DirectorTablero(new TableroSolitarioConcreto(factory));
+        try {
+            while (!cerrada) {
+                long numeroPartida = ThreadLocalRandom.current().nextLong();
+                TableroSolitario usado = usados.poll();
+                TableroSolitario tablero;
+                if (usado == null) {
+                    tablero = director.construirTableroEstandar(numeroPartida);
+                } else {
+                    tablero = director.reconstruirTableroEstandar(usado, numeroPartida);
+                    reutilizados.increment();
+                }
+                if (!esValido(tablero)) {
+                    invalidos.increment();
+                    continue;
+                }
+                tableros.put(new TableroRepartido(numeroPartida, tablero)); // Espera a que haya hueco
+                producidos.increment();
+            }
+        } catch (InterruptedException e) {
+            // close(): el productor termina
+        }
+    }
+
+    // La misma comprobación que hace el controlador al repartir: están todas las cartas
+    private boolean esValido(TableroSolitario tablero) {
+        int cartas = 0;
+        for (int idPila = 0; idPila < NUM_PILAS; idPila++) {
+            cartas += tablero.getPila(idPila).size();
+        }
+        return cartas == factory.getNumeroValores() * factory.getNumeroPalos();
+    }
+
+    // =========================================================================
+    // MÉTRICAS
+    // =========================================================================
+
+    public CartaAbstractFactory getFactory() {
+        return factory;
+    }
+
+    public int getCapacidad() {
+        return tableros.size() + tableros.remainingCapacity();
+    }
+
+    /**
+     * Tableros listos en este momento
+     */
+    public int getDisponibles() {
+        return tableros.size();
+    }
+
+    /**
+     * Repartos servidos desde la reserva
+     */
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    /**
+     * Repartos que encontraron la reserva vacía
+     */
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /**
+     * Fracción de repartos servidos desde la reserva (0 si aún no hubo ninguno)
+     */
+    public double getTasaAciertos() {
+        long aciertosActuales = aciertos.sum();
+        long total = aciertosActuales + fallos.sum();
+        return total == 0 ? 0 : (double) aciertosActuales / total;
+    }
+
+    public long getProducidos() {
+        return producidos.sum();
+    }
+
+    public long getInvalidos() {
+        return invalidos.sum();
+    }
+
+    /**
+     * Tableros producidos sobre uno devuelto en lugar de uno nuevo
+     */
+    public long getReutilizados() {
+        return reutilizados.sum();
+    }
+
+    /**
+     * Detiene los productores y vacía la reserva
+     */
+    @Override
+    public void close() {
+        cerrada = true;
+        for (Thread productor : productores) {
+            productor.interrupt();
+        }
+        tableros.clear();
+        usados.clear();
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Builder;
+
+// =============================================================================
+// TABLERO REPARTIDO
+// =============================================================================
+/**
+ * Tablero recién repartido y ya validado, con el número de partida que lo
+ * genera. Lo produce una ReservaTableros y pasa a ser de quien lo toma.
+ */
+public final class TableroRepartido {
+
+    private final long numeroPartida;
+    private final TableroSolitario tablero;
+
+    TableroRepartido(long numeroPartida, TableroSolitario tablero) {
+        this.numeroPartida = numeroPartida;
+        this.tablero = tablero;
+    }
+
+    public long getNumeroPartida() {
+        return numeroPartida;
+    }
+
+    public TableroSolitario getTablero() {
+        return tablero;
+    }
+}
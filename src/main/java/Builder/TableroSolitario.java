@@ -7,6 +7,7 @@ package Builder;
 import Iterator.CartaCollection;
 import AbstractFactory.Carta;
 import AbstractFactory.CartaAbstractFactory;
+import AbstractFactory.ReglasCartas;
 import Iterator.CartaIterator;
 import Iterator.CartasVolteadasIterator;
 import Iterator.TableauIterator;
@@ -18,28 +19,67 @@ import java.util.List;
 /**
  * Producto final del patrón Builder. Representa el estado completo de un juego
  * de Solitario. Implementa CartaCollection para proporcionar capacidades de
- * iteración. Es inmutable una vez construido (solo getters, no setters).
+ * iteración. No es inmutable: el controlador mueve cartas directamente en sus
+ * listas y cambia su máscara de volteo, y un Builder puede repartir de nuevo
+ * sobre él (Builder.reutilizar), así que no debe compartirse entre partidas.
+ * Como las cartas son compartidas entre partidas, el tablero guarda qué
+ * cartas están boca arriba en una máscara de bits indexada por ordinal.
+ * También mantiene un índice carta → (pila, posición) para localizar
+ * cualquier carta en O(1); quien mueva cartas entre las listas debe
+ * registrar su nueva ubicación.
  */
 public class TableroSolitario implements CartaCollection {
 
+    // Identificadores de pila (los mismos que usa TableroCompacto)
+    public static final int PILA_MAZO = 0;
+    public static final int PILA_DESCARTE = 1;
+    public static final int PILA_FUNDACION_0 = 2;  // Fundaciones: 2..5
+    public static final int PILA_TABLEAU_0 = 6;    // Columnas del tableau: 6..12
+
     private List<Carta> mazo;
     private List<Carta> descarte;
     private List<List<Carta>> fundaciones;
     private List<List<Carta>> tableau;
     private CartaAbstractFactory factory;
+    private long volteadas;                         // Bit i = carta de ordinal i boca arriba
+    private final byte[] pilaPorCarta = new byte[ReglasCartas.NUM_CARTAS];     // Índice: pila de cada ordinal
+    private final int[] posicionPorCarta = new int[ReglasCartas.NUM_CARTAS];   // Índice: posición dentro de la pila
 
     /**
      * Constructor del producto. Solo el Builder puede crear instancias. Recibe
-     * todos los componentes ya inicializados.
+     * todos los componentes ya inicializados. Todas las cartas empiezan boca
+     * abajo.
      */
     public TableroSolitario(List<Carta> mazo, List<Carta> descarte,
             List<List<Carta>> fundaciones, List<List<Carta>> tableau,
             CartaAbstractFactory factory) {
+        this(mazo, descarte, fundaciones, tableau, factory, 0L);
+    }
+
+    /**
+     * Constructor del producto con el estado de volteo de cada carta
+     * @param volteadas máscara de bits por ordinal de las cartas boca arriba
+     */
+    public TableroSolitario(List<Carta> mazo, List<Carta> descarte,
+            List<List<Carta>> fundaciones, List<List<Carta>> tableau,
+            CartaAbstractFactory factory, long volteadas) {
         this.mazo = mazo;
         this.descarte = descarte;
         this.fundaciones = fundaciones;
         this.tableau = tableau;
         this.factory = factory;
+        this.volteadas = volteadas;
+        reindexar();
+    }
+
+    /**
+     * Deja el tablero con el reparto que un Builder acaba de construir sobre
+     * sus propias listas (Builder.reutilizar)
+     */
+    void reiniciar(CartaAbstractFactory factory, long volteadas) {
+        this.factory = factory;
+        this.volteadas = volteadas;
+        reindexar();
     }
 
     @Override
@@ -48,13 +88,14 @@ public class TableroSolitario implements CartaCollection {
     }
 
     public CartaIterator createCartasVolteadasIterator() {
-        return new CartasVolteadasIterator(createIterator());
+        return new CartasVolteadasIterator(createIterator(), this::estaVolteada);
     }
 
     @Override
     public void addCarta(Carta carta) {
         if (!tableau.isEmpty()) {
             tableau.get(0).add(carta);
+            registrarUbicacion(carta, PILA_TABLEAU_0, tableau.get(0).size() - 1);
         }
     }
 
@@ -89,7 +130,98 @@ public class TableroSolitario implements CartaCollection {
     }
 
     public CartaIterator getCartasVolteadasIterator() {
-        return new CartasVolteadasIterator(new TableauIterator(this.tableau));
+        return new CartasVolteadasIterator(new TableauIterator(this.tableau), this::estaVolteada);
+    }
+
+    // ESTADO DE VOLTEO: las cartas son inmutables, el tablero sabe cuáles están boca arriba
+
+    public boolean estaVolteada(Carta carta) {
+        return (volteadas & (1L << carta.getOrdinal())) != 0;
+    }
+
+    public void voltear(Carta carta) {
+        volteadas ^= 1L << carta.getOrdinal();
+    }
+
+    public void setVolteada(Carta carta, boolean volteada) {
+        if (volteada) {
+            volteadas |= 1L << carta.getOrdinal();
+        } else {
+            volteadas &= ~(1L << carta.getOrdinal());
+        }
+    }
+
+    public long getVolteadas() {
+        return volteadas;
+    }
+
+    // ÍNDICE DE UBICACIONES: carta → (pila, posición) en O(1)
+
+    /**
+     * Devuelve la pila con el identificador dado (PILA_*)
+     */
+    public List<Carta> getPila(int idPila) {
+        if (idPila == PILA_MAZO) {
+            return mazo;
+        }
+        if (idPila == PILA_DESCARTE) {
+            return descarte;
+        }
+        if (idPila < PILA_TABLEAU_0) {
+            return fundaciones.get(idPila - PILA_FUNDACION_0);
+        }
+        return tableau.get(idPila - PILA_TABLEAU_0);
+    }
+
+    /**
+     * Identificador de la pila donde está la carta
+     */
+    public int getPilaDe(Carta carta) {
+        return pilaPorCarta[carta.getOrdinal()];
+    }
+
+    /**
+     * Posición de la carta dentro de su pila (0 = fondo)
+     */
+    public int getPosicionDe(Carta carta) {
+        return posicionPorCarta[carta.getOrdinal()];
+    }
+
+    public void registrarUbicacion(Carta carta, int idPila, int posicion) {
+        pilaPorCarta[carta.getOrdinal()] = (byte) idPila;
+        posicionPorCarta[carta.getOrdinal()] = posicion;
+    }
+
+    /**
+     * Registra de nuevo las cartas de una pila desde una posición hasta el
+     * tope. Se usa tras insertar, quitar o anexar un bloque de cartas.
+     */
+    public void registrarPila(int idPila, int desde) {
+        List<Carta> pila = getPila(idPila);
+        for (int i = desde; i < pila.size(); i++) {
+            registrarUbicacion(pila.get(i), idPila, i);
+        }
+    }
+
+    // Reconstruye el índice recorriendo todas las pilas. Lo llama el constructor:
+    // escribe el índice directamente, sin métodos que una subclase pueda redefinir
+    private void reindexar() {
+        indexar(mazo, PILA_MAZO);
+        indexar(descarte, PILA_DESCARTE);
+        for (int i = 0; i < fundaciones.size(); i++) {
+            indexar(fundaciones.get(i), PILA_FUNDACION_0 + i);
+        }
+        for (int i = 0; i < tableau.size(); i++) {
+            indexar(tableau.get(i), PILA_TABLEAU_0 + i);
+        }
+    }
+
+    private void indexar(List<Carta> pila, int idPila) {
+        for (int i = 0; i < pila.size(); i++) {
+            int ordinal = pila.get(i).getOrdinal();
+            pilaPorCarta[ordinal] = (byte) idPila;
+            posicionPorCarta[ordinal] = i;
+        }
     }
 
     public List<Carta> getMazo() {
@@ -9,6 +9,7 @@ import AbstractFactory.CartaAbstractFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 // =============================================================================
 // BUILDER CONCRETO
@@ -19,11 +20,15 @@ import java.util.List;
  */
 public class TableroSolitarioConcreto implements Builder {
 
+    private static final long GAMMA = 0x9e3779b97f4a7c15L; // Incremento de SplitMix64 (el de SplittableRandom)
+
+    private TableroSolitario destino;               // Tablero reutilizado por build() (null: uno nuevo)
     private List<Carta> mazo;
     private List<Carta> descarte;
     private List<List<Carta>> fundaciones;
     private List<List<Carta>> tableau;
     private CartaAbstractFactory factory;
+    private long volteadas;                         // Cartas boca arriba por ordinal
 
     /**
      * Constructor del builder. Recibe la factory para crear cartas.
@@ -43,35 +48,101 @@ public class TableroSolitarioConcreto implements Builder {
      */
     @Override
     public Builder reset() {
+        destino = null;
         mazo = new ArrayList<>();
         descarte = new ArrayList<>();
         fundaciones = new ArrayList<>();
         tableau = new ArrayList<>();
+        volteadas = 0L;
+        return this;
+    }
+
+    /**
+     * Construye sobre las listas de un tablero existente en lugar de crear
+     * otras: las vacía conservando su capacidad y build() devuelve ese mismo
+     * tablero. Sustituye a reset().
+     *
+     * @param tablero tablero que se reutiliza; deja de valer su estado anterior
+     * @return
+     */
+    @Override
+    public Builder reutilizar(TableroSolitario tablero) {
+        destino = tablero;
+        mazo = tablero.getMazo();
+        descarte = tablero.getDescarte();
+        fundaciones = tablero.getFundaciones();
+        tableau = tablero.getTableau();
+        mazo.clear();
+        descarte.clear();
+        for (int i = 0; i < fundaciones.size(); i++) {
+            fundaciones.get(i).clear();
+        }
+        for (int i = 0; i < tableau.size(); i++) {
+            tableau.get(i).clear();
+        }
+        volteadas = 0L;
         return this;
     }
 
     /**
      * Crea una baraja completa usando la factory. Genera todas las
-     * combinaciones de valores y palos, luego las mezcla.
+     * combinaciones de valores y palos, luego las mezcla con un número de
+     * partida aleatorio del hilo actual (sin generador compartido).
      *
      * @return
      */
     @Override
     public Builder crearBaraja() {
-        List<Carta> todasLasCartas = new ArrayList<>();
+        return crearBaraja(ThreadLocalRandom.current().nextLong());
+    }
 
+    /**
+     * Crea una baraja completa y la mezcla con un generador SplitMix64
+     * propio de esta partida. El mismo número de partida produce siempre el
+     * mismo mazo y, por tanto, el mismo reparto.
+     *
+     * @param numeroPartida semilla de 64 bits que identifica el reparto
+     * @return
+     */
+    @Override
+    public Builder crearBaraja(long numeroPartida) {
+        int inicio = mazo.size();
         for (int palo = 0; palo < factory.getNumeroPalos(); palo++) {
             for (int valor = 0; valor < factory.getNumeroValores(); valor++) {
-                todasLasCartas.add(factory.crearCarta(valor, palo));
+                mazo.add(factory.crearCarta(valor, palo));
             }
         }
 
-        Collections.shuffle(todasLasCartas);
-        mazo.addAll(todasLasCartas);
+        // Fisher-Yates en el propio mazo con el estado del generador en un
+        // long: sin contención entre hilos y sin crear objetos. Produce la
+        // misma secuencia que SplittableRandom(numeroPartida).nextInt(i + 1).
+        long estado = numeroPartida;
+        for (int i = mazo.size() - inicio - 1; i > 0; i--) {
+            int limite = i + 1;
+            int m = limite - 1;
+            estado += GAMMA;
+            int r = mezclar32(estado);
+            if ((limite & m) == 0) {
+                r &= m;                             // Límite potencia de 2
+            } else {
+                int u = r >>> 1;
+                while (u + m - (r = u % limite) < 0) { // Descarta los valores sobrerrepresentados
+                    estado += GAMMA;
+                    u = mezclar32(estado) >>> 1;
+                }
+            }
+            Collections.swap(mazo, inicio + i, inicio + r);
+        }
 
         return this;
     }
 
+    // Función de mezcla de 32 bits de SplitMix64
+    private static int mezclar32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
     /**
      * Inicializa las 4 pilas de fundaciones (una por cada palo). Las
      * fundaciones empiezan vacías y se van llenando durante el juego.
@@ -80,7 +151,7 @@ public class TableroSolitarioConcreto implements Builder {
      */
     @Override
     public Builder inicializarFundaciones() {
-        for (int i = 0; i < factory.getNumeroPalos(); i++) {
+        for (int i = fundaciones.size(); i < factory.getNumeroPalos(); i++) { // Las reutilizadas ya están vacías
             fundaciones.add(new ArrayList<>());
         }
         return this;
@@ -94,7 +165,7 @@ public class TableroSolitarioConcreto implements Builder {
      */
     @Override
     public Builder inicializarTableau() {
-        for (int i = 0; i < 7; i++) {
+        for (int i = tableau.size(); i < 7; i++) {  // Las reutilizadas ya están vacías
             tableau.add(new ArrayList<>());
         }
         return this;
@@ -112,7 +183,7 @@ public class TableroSolitarioConcreto implements Builder {
                 if (!mazo.isEmpty()) {
                     Carta carta = mazo.remove(mazo.size() - 1);
                     if (fila == col) {
-                        carta.voltear();
+                        volteadas |= 1L << carta.getOrdinal(); // Última carta boca arriba
                     }
                     tableau.get(col).add(carta);
                 }
@@ -128,7 +199,11 @@ public class TableroSolitarioConcreto implements Builder {
      */
     @Override
     public TableroSolitario build() {
-        return new TableroSolitario(mazo, descarte, fundaciones, tableau, factory);
+        if (destino != null) {
+            destino.reiniciar(factory, volteadas);
+            return destino;
+        }
+        return new TableroSolitario(mazo, descarte, fundaciones, tableau, factory, volteadas);
     }
 
 }
@@ -0,0 +1,99 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Clasificacion;
+
+import java.util.Comparator;
+
+// =============================================================================
+// RESULTADO DE UNA PARTIDA
+// =============================================================================
+/**
+ * Puntuación final de una partida tal como se guarda en la clasificación.
+ * Es inmutable.
+ */
+public final class ResultadoPartida {
+
+    /**
+     * Orden de la clasificación: más puntos, luego menos tiempo, menos
+     * movimientos y, a igualdad, el resultado más antiguo
+     */
+    public static final Comparator<ResultadoPartida> MEJOR_PRIMERO = ResultadoPartida::comparar;
+
+    private final String categoria;
+    private final int puntuacion;
+    private final int movimientos;
+    private final long tiempoMs;
+    private final long numeroPartida;
+    private final boolean victoria;
+    private final long fecha;                   // Milisegundos desde epoch
+
+    public ResultadoPartida(String categoria, int puntuacion, int movimientos, long tiempoMs,
+            long numeroPartida, boolean victoria, long fecha) {
+        this.categoria = categoria;
+        this.puntuacion = puntuacion;
+        this.movimientos = movimientos;
+        this.tiempoMs = tiempoMs;
+        this.numeroPartida = numeroPartida;
+        this.victoria = victoria;
+        this.fecha = fecha;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public int getPuntuacion() {
+        return puntuacion;
+    }
+
+    public int getMovimientos() {
+        return movimientos;
+    }
+
+    public long getTiempoMs() {
+        return tiempoMs;
+    }
+
+    public long getNumeroPartida() {
+        return numeroPartida;
+    }
+
+    public boolean esVictoria() {
+        return victoria;
+    }
+
+    public long getFecha() {
+        return fecha;
+    }
+
+    private static int comparar(ResultadoPartida a, ResultadoPartida b) {
+        return comparar(a.puntuacion, a.tiempoMs, a.movimientos, a.fecha,
+                b.puntuacion, b.tiempoMs, b.movimientos, b.fecha);
+    }
+
+    /**
+     * Mismo orden que MEJOR_PRIMERO sobre los campos sueltos, para comparar
+     * sin crear el objeto (negativo si el primero es mejor)
+     */
+    static int comparar(int puntuacionA, long tiempoA, int movimientosA, long fechaA,
+            int puntuacionB, long tiempoB, int movimientosB, long fechaB) {
+        if (puntuacionA != puntuacionB) {
+            return Integer.compare(puntuacionB, puntuacionA);
+        }
+        if (tiempoA != tiempoB) {
+            return Long.compare(tiempoA, tiempoB);
+        }
+        if (movimientosA != movimientosB) {
+            return Integer.compare(movimientosA, movimientosB);
+        }
+        return Long.compare(fechaA, fechaB);
+    }
+
+    @Override
+    public String toString() {
+        return categoria + ": " + puntuacion + " puntos, " + movimientos + " movimientos, "
+                + tiempoMs + " ms (partida " + Long.toUnsignedString(numeroPartida) + ")";
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Clasificacion;
+
+import Bridge.SistemaPuntuacion;
+import Strategy.EstrategiaJuego;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+// =============================================================================
+// TABLA DE CLASIFICACIÓN
+// =============================================================================
+/**
+ * Clasificación persistente por categoría (sistema de puntuación,
+ * implementación y estrategia). Cada resultado se añade al final de un
+ * archivo proyectado en memoria, y en memoria solo se guardan los K mejores
+ * de cada categoría en un montículo; al abrir el archivo se reconstruyen
+ * recorriéndolo una vez. Las consultas no tocan el archivo.
+ *
+ * Formato del archivo:
+ * <pre>
+ *   cabecera (32 bytes): "SOLC", versión, 3 bytes libres, fin de los datos
+ *                        (long), número de resultados (long), 8 bytes libres
+ *   registros:           1 = categoría  (id short, longitud short, nombre UTF-8)
+ *                        2 = resultado  (id categoría short, puntuación int,
+ *                            movimientos int, tiempo long, partida long,
+ *                            fecha long, victoria byte)
+ * </pre>
+ * Un registro solo cuenta cuando la cabecera apunta más allá de él, así que
+ * un corte a mitad de escritura deja el archivo en el último estado válido.
+ * Cabe hasta 2 GB (unos 59 millones de resultados).
+ *
+ * Los métodos están sincronizados: la tabla se puede compartir entre sesiones.
+ */
+public class TablaClasificacion implements AutoCloseable {
+
+    public static final int CAPACIDAD_TOP_POR_DEFECTO = 100;
+
+    private static final byte[] MAGICO = {'S', 'O', 'L', 'C'};
+    private static final byte VERSION = 1;
+    private static final int TAMANO_CABECERA = 32;
+    private static final int POS_FIN = 8;
+    private static final int POS_RESULTADOS = 16;
+    private static final byte TIPO_CATEGORIA = 1;
+    private static final byte TIPO_RESULTADO = 2;
+    private static final int TAMANO_RESULTADO = 1 + 2 + 4 + 4 + 8 + 8 + 8 + 1;
+    private static final int CAPACIDAD_INICIAL = 1 << 20;
+    private static final int MAX_CATEGORIAS = Short.MAX_VALUE;
+
+    private final FileChannel canal;
+    private MappedByteBuffer mapa;
+    private int fin;                                // Primer byte libre
+    private long resultados;
+
+    private final int capacidadTop;
+    private final List<String> categorias = new ArrayList<>();      // Por id
+    private final Map<String, Integer> idsCategoria = new HashMap<>();
+    // Por id de categoría; la cabeza es el peor de los K guardados
+    private final List<PriorityQueue<ResultadoPartida>> mejores = new ArrayList<>();
+
+    public TablaClasificacion(Path archivo) throws IOException {
+        this(archivo, CAPACIDAD_TOP_POR_DEFECTO);
+    }
+
+    /**
+     * Abre o crea el archivo y reconstruye los índices
+     * @param capacidadTop resultados que se guardan en memoria por categoría
+     */
+    public TablaClasificacion(Path archivo, int capacidadTop) throws IOException {
+        if (capacidadTop <= 0) {
+            throw new IllegalArgumentException("La capacidad del top debe ser positiva");
+        }
+        this.capacidadTop = capacidadTop;
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long tamano = canal.size();
+            mapear((int) Math.min(Integer.MAX_VALUE, Math.max(tamano, CAPACIDAD_INICIAL)));
+            if (tamano == 0) {
+                mapa.put(0, MAGICO);
+                mapa.put(4, VERSION);
+                fin = TAMANO_CABECERA;
+                confirmar();
+            } else {
+                reconstruir(archivo);
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Categoría de una partida: abstracción y la implementación de la
+     * puntuación más el nombre de la estrategia
+     */
+    public static String categoria(SistemaPuntuacion sistema, EstrategiaJuego estrategia) {
+        return sistema.getClass().getSimpleName() + "/"
+                + sistema.getImplementacion().getClass().getSimpleName() + "/"
+                + estrategia.getNombre();
+    }
+
+    // =========================================================================
+    // ESCRITURA
+    // =========================================================================
+
+    /**
+     * Añade un resultado al archivo y al índice de su categoría
+     * @return posición en el top de su categoría (0 = primero) o -1 si no entra
+     */
+    public synchronized int registrar(ResultadoPartida resultado) throws IOException {
+        Integer id = idsCategoria.get(resultado.getCategoria());
+        if (id == null) {
+            id = escribirCategoria(resultado.getCategoria());
+        }
+        asegurarEspacio(TAMANO_RESULTADO);
+        mapa.put(fin, TIPO_RESULTADO)
+                .putShort(fin + 1, id.shortValue())
+                .putInt(fin + 3, resultado.getPuntuacion())
+                .putInt(fin + 7, resultado.getMovimientos())
+                .putLong(fin + 11, resultado.getTiempoMs())
+                .putLong(fin + 19, resultado.getNumeroPartida())
+                .putLong(fin + 27, resultado.getFecha())
+                .put(fin + 35, (byte) (resultado.esVictoria() ? 1 : 0));
+        fin += TAMANO_RESULTADO;
+        resultados++;
+        confirmar();
+
+        PriorityQueue<ResultadoPartida> top = mejores.get(id);
+        if (!ofrecer(top, resultado)) {
+            return -1;
+        }
+        int posicion = 0;
+        for (ResultadoPartida otro : top) {
+            if (ResultadoPartida.MEJOR_PRIMERO.compare(otro, resultado) < 0) {
+                posicion++;
+            }
+        }
+        return posicion;
+    }
+
+    /**
+     * Fuerza la escritura a disco de lo registrado hasta ahora
+     */
+    public synchronized void sincronizar() {
+        mapa.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapa.force();
+        canal.close();
+    }
+
+    private int escribirCategoria(String categoria) throws IOException {
+        if (categorias.size() >= MAX_CATEGORIAS) {
+            throw new IOException("Demasiadas categorías en la clasificación");
+        }
+        byte[] nombre = categoria.getBytes(StandardCharsets.UTF_8);
+        if (nombre.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Nombre de categoría demasiado largo");
+        }
+        asegurarEspacio(5 + nombre.length);
+        int id = categorias.size();
+        mapa.put(fin, TIPO_CATEGORIA)
+                .putShort(fin + 1, (short) id)
+                .putShort(fin + 3, (short) nombre.length)
+                .put(fin + 5, nombre);
+        fin += 5 + nombre.length;
+        confirmar();
+        agregarCategoria(categoria);
+        return id;
+    }
+
+    // La cabecera se escribe después del registro: es el punto de confirmación
+    private void confirmar() {
+        mapa.putLong(POS_FIN, fin).putLong(POS_RESULTADOS, resultados);
+    }
+
+    private void asegurarEspacio(int bytes) throws IOException {
+        if ((long) fin + bytes <= mapa.capacity()) {
+            return;
+        }
+        long nueva = Math.max((long) mapa.capacity() * 2, (long) fin + bytes);
+        if (nueva > Integer.MAX_VALUE) {
+            if ((long) fin + bytes > Integer.MAX_VALUE) {
+                throw new IOException("El archivo de clasificación está lleno");
+            }
+            nueva = Integer.MAX_VALUE;
+        }
+        mapa.force();
+        mapear((int) nueva);
+    }
+
+    // Proyecta los primeros `tamano` bytes; el archivo crece si es más corto
+    private void mapear(int tamano) throws IOException {
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+    }
+
+    // =========================================================================
+    // RECONSTRUCCIÓN
+    // =========================================================================
+
+    private void reconstruir(Path archivo) throws IOException {
+        byte[] magico = new byte[MAGICO.length];
+        mapa.get(0, magico);
+        if (!Arrays.equals(magico, MAGICO) || mapa.get(4) != VERSION) {
+            throw new IOException(archivo + " no es un archivo de clasificación válido");
+        }
+        long finGuardado = mapa.getLong(POS_FIN);
+        if (finGuardado < TAMANO_CABECERA || finGuardado > mapa.capacity()) {
+            throw new IOException(archivo + ": cabecera dañada");
+        }
+        fin = (int) finGuardado;
+
+        int pos = TAMANO_CABECERA;
+        while (pos < fin) {
+            byte tipo = mapa.get(pos);
+            if (tipo == TIPO_CATEGORIA) {
+                int longitud = mapa.getShort(pos + 3);
+                byte[] nombre = new byte[longitud];
+                mapa.get(pos + 5, nombre);
+                agregarCategoria(new String(nombre, StandardCharsets.UTF_8));
+                pos += 5 + longitud;
+            } else if (tipo == TIPO_RESULTADO) {
+                leerResultado(pos);
+                resultados++;
+                pos += TAMANO_RESULTADO;
+            } else {
+                throw new IOException(archivo + ": registro desconocido en la posición " + pos);
+            }
+        }
+    }
+
+    // Solo crea el objeto si el resultado entra en el top de su categoría
+    private void leerResultado(int pos) {
+        int id = mapa.getShort(pos + 1);
+        int puntuacion = mapa.getInt(pos + 3);
+        int movimientos = mapa.getInt(pos + 7);
+        long tiempo = mapa.getLong(pos + 11);
+        long fecha = mapa.getLong(pos + 27);
+
+        PriorityQueue<ResultadoPartida> top = mejores.get(id);
+        if (top.size() >= capacidadTop) {
+            ResultadoPartida peor = top.peek();
+            if (ResultadoPartida.comparar(puntuacion, tiempo, movimientos, fecha, peor.getPuntuacion(),
+                    peor.getTiempoMs(), peor.getMovimientos(), peor.getFecha()) >= 0) {
+                return;
+            }
+        }
+        ofrecer(top, new ResultadoPartida(categorias.get(id), puntuacion, movimientos, tiempo,
+                mapa.getLong(pos + 19), mapa.get(pos + 35) != 0, fecha));
+    }
+
+    private void agregarCategoria(String categoria) {
+        idsCategoria.put(categoria, categorias.size());
+        categorias.add(categoria);
+        // Montículo de mínimos según la clasificación: la cabeza es el peor
+        mejores.add(new PriorityQueue<>(capacidadTop + 1, ResultadoPartida.MEJOR_PRIMERO.reversed()));
+    }
+
+    // Mete el resultado en el top si cabe o mejora al peor; O(log K)
+    private boolean ofrecer(PriorityQueue<ResultadoPartida> top, ResultadoPartida resultado) {
+        if (top.size() < capacidadTop) {
+            top.add(resultado);
+            return true;
+        }
+        if (ResultadoPartida.MEJOR_PRIMERO.compare(resultado, top.peek()) >= 0) {
+            return false;
+        }
+        top.poll();
+        top.add(resultado);
+        return true;
+    }
+
+    // =========================================================================
+    // CONSULTAS
+    // =========================================================================
+
+    /**
+     * Mejores resultados de una categoría, del primero al último
+     * @param n máximo de resultados (como mucho la capacidad del top)
+     */
+    public synchronized List<ResultadoPartida> getMejores(String categoria, int n) {
+        Integer id = idsCategoria.get(categoria);
+        if (id == null || n <= 0) {
+            return List.of();
+        }
+        ResultadoPartida[] orden = mejores.get(id).toArray(new ResultadoPartida[0]);
+        Arrays.sort(orden, ResultadoPartida.MEJOR_PRIMERO);
+        return List.of(Arrays.copyOf(orden, Math.min(n, orden.length)));
+    }
+
+    /**
+     * Categorías registradas, en orden alfabético
+     */
+    public synchronized List<String> getCategorias() {
+        return new ArrayList<>(new TreeSet<>(categorias));
+    }
+
+    /**
+     * Resultados guardados en el archivo (no solo los del top)
+     */
+    public synchronized long getTotalResultados() {
+        return resultados;
+    }
+
+    public int getCapacidadTop() {
+        return capacidadTop;
+    }
+}
@@ -4,13 +4,49 @@
  */
 package Controller;
 
+import AbstractFactory.CartaFrancesaFactory;
+import AbstractFactory.CartaInglesaFactory;
+import Builder.ReservaTableros;
+import Clasificacion.TablaClasificacion;
+import Metricas.MetricasJuego;
+import Persistencia.AlmacenSesiones;
+import Persistencia.DiarioJugadas;
+import Servidor.ServidorJuego;
+import Sesion.CacheSesiones;
+import Sesion.GestorSesiones;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
  * @author Andres Felipe Tovar
  */
 public class AplMain {
+
+    private static final long INTERVALO_CHECKPOINT_SEGUNDOS = 30;
+
+    // Cache de sesiones: presupuestos e inactividades
+    private static final int MAX_SESIONES_VIVAS = 20_000;
+    private static final long MAX_BYTES_COMPACTAS = 64L << 20;
+    private static final long INACTIVIDAD_COMPACTA_SEGUNDOS = 120;
+    private static final long INACTIVIDAD_DISCO_SEGUNDOS = 900;
+    private static final long INTERVALO_AJUSTE_CACHE_SEGUNDOS = 5;
+
+    // Reservas de tableros repartidos: capacidad y productores por baraja
+    private static final int RESERVA_FRANCESA = 1024;
+    private static final int RESERVA_INGLESA = 256;
+    private static final int PRODUCTORES_FRANCESA = 2;
+    private static final int PRODUCTORES_INGLESA = 1;
+
     public static void main(String[] args) {
+        // Modo servidor: AplMain servidor [puerto]
+        if (args.length > 0 && args[0].equals("servidor")) {
+            iniciarServidor(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
+
         // Configurar Look and Feel
         try {
             SolitarioController juego = new SolitarioController();
@@ -21,5 +57,90 @@ public class AplMain {
         }
 
     }
-    
+
+    /**
+     * Levanta la API HTTP/JSON y la mantiene activa hasta que se detenga el proceso
+     */
+    private static void iniciarServidor(int puerto) {
+        try {
+            // Repartos listos de antemano: un reinicio masivo no espera al builder
+            ReservaTableros francesa = new ReservaTableros(new CartaFrancesaFactory(), RESERVA_FRANCESA,
+                    PRODUCTORES_FRANCESA);
+            ReservaTableros inglesa = new ReservaTableros(new CartaInglesaFactory(), RESERVA_INGLESA,
+                    PRODUCTORES_INGLESA);
+            SolitarioController.registrarReserva(francesa);
+            SolitarioController.registrarReserva(inglesa);
+
+            DiarioJugadas diario = new DiarioJugadas(Path.of("jugadas.log"));  // Jugadas entre checkpoints
+            CacheSesiones cache = new CacheSesiones(MAX_SESIONES_VIVAS, MAX_BYTES_COMPACTAS,
+                    INACTIVIDAD_COMPACTA_SEGUNDOS, INACTIVIDAD_DISCO_SEGUNDOS, TimeUnit.SECONDS,
+                    Path.of("sesiones.desborde"));                 // Partidas inactivas fuera del heap
+            GestorSesiones gestor = new GestorSesiones(SolitarioController::new, diario, cache);
+            AlmacenSesiones almacen = new AlmacenSesiones(Path.of("sesiones.dat"));
+            int restauradas = gestor.restaurarSesiones(almacen);   // Último checkpoint más el diario
+            TablaClasificacion clasificacion = new TablaClasificacion(Path.of("clasificacion.dat"));
+            ServidorJuego servidor = new ServidorJuego(puerto, 0, gestor, clasificacion);
+
+            // Checkpoint periódico: acota el diario que hay que reproducir tras una caída
+            ScheduledExecutorService checkpoints = Executors.newSingleThreadScheduledExecutor();
+            checkpoints.scheduleWithFixedDelay(() -> guardarSesiones(gestor, almacen),
+                    INTERVALO_CHECKPOINT_SEGUNDOS, INTERVALO_CHECKPOINT_SEGUNDOS, TimeUnit.SECONDS);
+            checkpoints.scheduleWithFixedDelay(gestor::ajustarCache,
+                    INTERVALO_AJUSTE_CACHE_SEGUNDOS, INTERVALO_AJUSTE_CACHE_SEGUNDOS, TimeUnit.SECONDS);
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                servidor.close();
+                checkpoints.shutdownNow();
+                guardarSesiones(gestor, almacen);
+                gestor.close();
+                francesa.close();
+                inglesa.close();
+                try {
+                    diario.close();
+                    cache.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                try {
+                    clasificacion.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }));
+            servidor.iniciar();
+            if (gestor.getRegistrosNoReproducidos() > 0) {
+                System.err.println("Recuperación: " + gestor.getRegistrosNoReproducidos()
+                        + " registros del diario sin reproducir");
+            }
+            if (almacen.getRegistrosDanados() > 0) {
+                System.err.println("Checkpoint: " + almacen.getRegistrosDanados()
+                        + " sesiones dañadas sin restaurar");
+            }
+            if (!MetricasJuego.get().estanPublicadas()) {
+                System.err.println("Métricas JMX no publicadas: " + MetricasJuego.get().getErrorPublicacion());
+            }
+            System.out.println("Servidor de Solitario escuchando en http://localhost:" + servidor.getPuerto()
+                    + " (" + restauradas + " sesiones restauradas)");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void guardarSesiones(GestorSesiones gestor, AlmacenSesiones almacen) {
+        if (gestor.getDiario() != null && !gestor.getDiario().estaSano()) {
+            System.err.println("El diario de jugadas dejó de escribirse: "
+                    + "las partidas solo se guardan en los checkpoints");
+        }
+        long sinGuardar = gestor.getSesionesSinGuardar();
+        try {
+            gestor.guardarSesiones(almacen);
+            if (gestor.getSesionesSinGuardar() > sinGuardar) {
+                System.err.println("Checkpoint: " + (gestor.getSesionesSinGuardar() - sinGuardar)
+                        + " sesiones no se pudieron guardar");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
 }
@@ -0,0 +1,435 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Controller;
+
+import AbstractFactory.Carta;
+import AbstractFactory.CartaAbstractFactory;
+import Builder.TableroSolitario;
+import Motor.TableroCompacto;
+import Motor.ZobristHash;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// =============================================================================
+// RENDERIZADOR DEL TABLERO
+// =============================================================================
+/**
+ * Escribe el estado de una partida como texto en un Appendable, o como UTF-8
+ * en un ByteBuffer, sin crear objetos: las etiquetas de las cartas ("10♥")
+ * se precalculan una vez por clase de baraja y las comparten todos los
+ * renderizadores, los números se escriben dígito a dígito y el UTF-8 se
+ * codifica a mano.
+ *
+ * renderizar() escribe el estado completo (el mismo texto que
+ * SolitarioController.toString()). renderizarCambios() escribe una línea de
+ * resumen y solo las pilas que cambiaron desde el render anterior; para
+ * detectarlas guarda una firma Zobrist de cada pila.
+ *
+ * Guarda estado entre llamadas, así que no es seguro entre hilos: cada
+ * cliente o partida debe usar su propio renderizador.
+ */
+public class RenderizadorTablero {
+
+    private static final String DORSO = "🂠";          // Carta boca abajo
+    private static final int ETIQUETA_DORSO = TableroCompacto.NUM_CARTAS;
+
+    // Etiquetas por clase de baraja, compartidas (solo se leen una vez creadas)
+    private static final Map<Class<?>, Etiquetas> ETIQUETAS = new ConcurrentHashMap<>();
+
+    private CartaAbstractFactory barajaEtiquetas;      // Baraja de la que salen las etiquetas
+    private Etiquetas etiquetas;
+
+    private final long[] firmas = new long[TableroCompacto.NUM_PILAS];
+    private boolean hayFirmas;                         // Ya hubo un render con el que comparar
+    private final SalidaUtf8 salidaUtf8 = new SalidaUtf8();
+
+    // RENDER COMPLETO
+
+    /**
+     * Escribe el estado completo de la partida
+     */
+    public void renderizar(SolitarioController juego, Appendable salida) throws IOException {
+        prepararEtiquetas(juego.getFactory());
+        TableroSolitario tablero = juego.getTableroSinEntregar();
+        int enFundaciones = cartasEnFundaciones(tablero);
+        int total = totalCartas(juego);
+
+        salida.append("=== ESTADO DEL JUEGO SOLITARIO ===\n");
+        salida.append("Estrategia: ").append(juego.getEstrategiaActual().getNombre()).append('\n');
+        salida.append("Sistema de Puntuación: ").append(juego.getSistemaPuntuacion().getClass().getSimpleName()).append('\n');
+        salida.append("Movimientos: ");
+        numero(salida, juego.getMovimientos());
+        salida.append("\nTiempo: ");
+        tiempo(salida, juego.getTiempoTranscurrido());
+        salida.append("\nPuntuación: ");
+        numero(salida, juego.getPuntuacion());
+        salida.append("\nEstado: ").append(enFundaciones == total ? "¡VICTORIA!" : "En juego").append("\n\n");
+
+        salida.append("MAZO Y DESCARTE:\n");
+        lineasMazoYDescarte(salida, tablero);
+        salida.append('\n');
+
+        salida.append("FUNDACIONES:\n");
+        for (int i = 0; i < TableroCompacto.NUM_FUNDACIONES; i++) {
+            lineaFundacion(salida, tablero, i);
+        }
+        salida.append('\n');
+
+        salida.append("TABLEAU:\n");
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            lineaColumna(salida, tablero, c);
+        }
+
+        List<Carta> seleccion = juego.getSeleccionSinCopia();
+        if (!seleccion.isEmpty()) {
+            salida.append('\n');
+            lineaSeleccion(salida, seleccion);
+        }
+
+        salida.append("\nESTADÍSTICAS:\n");
+        salida.append("Total cartas en fundaciones: ");
+        numero(salida, enFundaciones);
+        salida.append('/');
+        numero(salida, total);
+        salida.append("\nProgreso: ");
+        // Un decimal redondeado, como "%.1f"
+        long decimas = Math.round(enFundaciones * 1000.0 / total);
+        numero(salida, decimas / 10);
+        salida.append('.');
+        numero(salida, decimas % 10);
+        salida.append("%\n");
+        salida.append("Estado válido: ").append(totalEnPilas(tablero) == total ? "✓" : "✗").append('\n');
+
+        actualizarFirmas(tablero);
+    }
+
+    /**
+     * Escribe el estado completo como UTF-8 a partir de la posición actual del buffer
+     * @throws java.nio.BufferOverflowException si no cabe en el buffer
+     */
+    public void renderizar(SolitarioController juego, ByteBuffer destino) {
+        salidaUtf8.destino = destino;
+        try {
+            renderizar(juego, salidaUtf8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);    // SalidaUtf8 no lanza IOException
+        } finally {
+            salidaUtf8.destino = null;
+        }
+    }
+
+    // RENDER INCREMENTAL
+
+    /**
+     * Escribe una línea de resumen y las pilas que cambiaron desde el render
+     * anterior. Sin render anterior escribe el estado completo.
+     * @return pilas escritas
+     */
+    public int renderizarCambios(SolitarioController juego, Appendable salida) throws IOException {
+        TableroSolitario tablero = juego.getTableroSinEntregar();
+        if (!hayFirmas) {
+            renderizar(juego, salida);
+            return TableroCompacto.NUM_PILAS;
+        }
+        prepararEtiquetas(juego.getFactory());
+
+        salida.append("Movimientos: ");
+        numero(salida, juego.getMovimientos());
+        salida.append(" | Puntuación: ");
+        numero(salida, juego.getPuntuacion());
+        salida.append(" | Tiempo: ");
+        tiempo(salida, juego.getTiempoTranscurrido());
+        salida.append(" | ").append(cartasEnFundaciones(tablero) == totalCartas(juego) ? "¡VICTORIA!" : "En juego")
+                .append('\n');
+
+        int cambiadas = 0;
+        boolean mazo = cambio(tablero, TableroCompacto.MAZO);
+        boolean descarte = cambio(tablero, TableroCompacto.DESCARTE);
+        if (mazo || descarte) {
+            lineasMazoYDescarte(salida, tablero);
+            cambiadas += (mazo ? 1 : 0) + (descarte ? 1 : 0);
+        }
+        for (int i = 0; i < TableroCompacto.NUM_FUNDACIONES; i++) {
+            if (cambio(tablero, TableroCompacto.FUNDACION_0 + i)) {
+                lineaFundacion(salida, tablero, i);
+                cambiadas++;
+            }
+        }
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            if (cambio(tablero, TableroCompacto.TABLEAU_0 + c)) {
+                lineaColumna(salida, tablero, c);
+                cambiadas++;
+            }
+        }
+        List<Carta> seleccion = juego.getSeleccionSinCopia();
+        if (!seleccion.isEmpty()) {
+            lineaSeleccion(salida, seleccion);
+        }
+        return cambiadas;
+    }
+
+    /**
+     * renderizarCambios() en UTF-8 a partir de la posición actual del buffer
+     * @throws java.nio.BufferOverflowException si no cabe en el buffer
+     */
+    public int renderizarCambios(SolitarioController juego, ByteBuffer destino) {
+        salidaUtf8.destino = destino;
+        try {
+            return renderizarCambios(juego, salidaUtf8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            salidaUtf8.destino = null;
+        }
+    }
+
+    /**
+     * Olvida el último render: el siguiente renderizarCambios() será completo
+     */
+    public void reiniciar() {
+        hayFirmas = false;
+    }
+
+    // LÍNEAS
+
+    private void lineasMazoYDescarte(Appendable salida, TableroSolitario tablero) throws IOException {
+        salida.append("Cartas en mazo: ");
+        numero(salida, tablero.getMazo().size());
+        List<Carta> descarte = tablero.getDescarte();
+        salida.append("\nCartas en descarte: ");
+        numero(salida, descarte.size());
+        if (!descarte.isEmpty()) {
+            salida.append(" (Tope: ");
+            etiqueta(salida, descarte.get(descarte.size() - 1).getOrdinal());
+            salida.append(')');
+        }
+        salida.append('\n');
+    }
+
+    private void lineaFundacion(Appendable salida, TableroSolitario tablero, int indice) throws IOException {
+        List<Carta> fundacion = tablero.getFundaciones().get(indice);
+        salida.append("Fundación ");
+        numero(salida, indice + 1);
+        salida.append(": ");
+        if (fundacion.isEmpty()) {
+            salida.append("Vacía");
+        } else {
+            numero(salida, fundacion.size());
+            salida.append(" cartas (Tope: ");
+            etiqueta(salida, fundacion.get(fundacion.size() - 1).getOrdinal());
+            salida.append(')');
+        }
+        salida.append('\n');
+    }
+
+    private void lineaColumna(Appendable salida, TableroSolitario tablero, int indice) throws IOException {
+        List<Carta> columna = tablero.getTableau().get(indice);
+        salida.append("Columna ");
+        numero(salida, indice + 1);
+        salida.append(": ");
+        if (columna.isEmpty()) {
+            salida.append("Vacía");
+        } else {
+            numero(salida, columna.size());
+            salida.append(" cartas [");
+            for (int i = 0; i < columna.size(); i++) {
+                if (i > 0) {
+                    salida.append(", ");
+                }
+                Carta carta = columna.get(i);
+                etiqueta(salida, tablero.estaVolteada(carta) ? carta.getOrdinal() : ETIQUETA_DORSO);
+            }
+            salida.append(']');
+        }
+        salida.append('\n');
+    }
+
+    private void lineaSeleccion(Appendable salida, List<Carta> seleccion) throws IOException {
+        salida.append("CARTAS SELECCIONADAS: ");
+        for (int i = 0; i < seleccion.size(); i++) {
+            if (i > 0) {
+                salida.append(", ");
+            }
+            etiqueta(salida, seleccion.get(i).getOrdinal());
+        }
+        salida.append('\n');
+    }
+
+    // AUXILIARES
+
+    // Busca las etiquetas la primera vez y cuando la partida cambia de baraja
+    private void prepararEtiquetas(CartaAbstractFactory baraja) {
+        if (baraja == barajaEtiquetas) {
+            return;
+        }
+        etiquetas = ETIQUETAS.computeIfAbsent(baraja.getClass(), clase -> new Etiquetas(baraja));
+        barajaEtiquetas = baraja;
+    }
+
+    private void etiqueta(Appendable salida, int indice) throws IOException {
+        if (salida == salidaUtf8) {
+            salidaUtf8.destino.put(etiquetas.utf8[indice]); // Ya codificada
+        } else {
+            salida.append(etiquetas.texto[indice]);
+        }
+    }
+
+    // Entero en decimal sin pasar por String
+    private static void numero(Appendable salida, long valor) throws IOException {
+        if (valor < 0) {
+            salida.append('-');
+            if (valor == Long.MIN_VALUE) {
+                salida.append("9223372036854775808");
+                return;
+            }
+            valor = -valor;
+        }
+        long divisor = 1;
+        while (valor / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            salida.append((char) ('0' + (valor / divisor) % 10));
+        }
+    }
+
+    // Mismo formato que SolitarioController.formatearTiempo(): mm:ss
+    private static void tiempo(Appendable salida, long milisegundos) throws IOException {
+        long segundos = milisegundos / 1000;
+        long minutos = segundos / 60;
+        segundos %= 60;
+        if (minutos < 10) {
+            salida.append('0');
+        }
+        numero(salida, minutos);
+        salida.append(':');
+        if (segundos < 10) {
+            salida.append('0');
+        }
+        numero(salida, segundos);
+    }
+
+    private static int totalCartas(SolitarioController juego) {
+        return juego.getFactory().getNumeroValores() * juego.getFactory().getNumeroPalos();
+    }
+
+    private static int cartasEnFundaciones(TableroSolitario tablero) {
+        int total = 0;
+        for (int i = 0; i < TableroCompacto.NUM_FUNDACIONES; i++) {
+            total += tablero.getPila(TableroCompacto.FUNDACION_0 + i).size();
+        }
+        return total;
+    }
+
+    private static int totalEnPilas(TableroSolitario tablero) {
+        int total = 0;
+        for (int i = 0; i < TableroCompacto.NUM_PILAS; i++) {
+            total += tablero.getPila(i).size();
+        }
+        return total;
+    }
+
+    private static long firma(TableroSolitario tablero, int idPila) {
+        List<Carta> pila = tablero.getPila(idPila);
+        long firma = pila.size();
+        for (int i = 0; i < pila.size(); i++) {
+            Carta carta = pila.get(i);
+            firma ^= ZobristHash.clave(TableroCompacto.codificar(carta, tablero.estaVolteada(carta)), idPila, i);
+        }
+        return firma;
+    }
+
+    // Compara la pila con el último render y guarda su firma nueva
+    private boolean cambio(TableroSolitario tablero, int idPila) {
+        long firma = firma(tablero, idPila);
+        boolean distinta = firma != firmas[idPila];
+        firmas[idPila] = firma;
+        return distinta;
+    }
+
+    private void actualizarFirmas(TableroSolitario tablero) {
+        for (int i = 0; i < TableroCompacto.NUM_PILAS; i++) {
+            firmas[i] = firma(tablero, i);
+        }
+        hayFirmas = true;
+    }
+
+    // =========================================================================
+    // ETIQUETAS DE UNA BARAJA
+    // =========================================================================
+    /**
+     * Texto y UTF-8 de cada carta de una baraja, más el dorso
+     */
+    private static final class Etiquetas {
+
+        private final String[] texto = new String[TableroCompacto.NUM_CARTAS + 1];
+        private final byte[][] utf8 = new byte[TableroCompacto.NUM_CARTAS + 1][];
+
+        Etiquetas(CartaAbstractFactory baraja) {
+            for (int i = 0; i < TableroCompacto.NUM_CARTAS; i++) {
+                Carta carta = baraja.getCarta(i);
+                texto[i] = carta.getNombreValor() + carta.getSimboloPalo();
+                utf8[i] = texto[i].getBytes(StandardCharsets.UTF_8);
+            }
+            texto[ETIQUETA_DORSO] = DORSO;
+            utf8[ETIQUETA_DORSO] = DORSO.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    // =========================================================================
+    // SALIDA UTF-8 SOBRE UN BYTEBUFFER
+    // =========================================================================
+    /**
+     * Appendable que codifica a UTF-8 directamente en un ByteBuffer
+     */
+    private static final class SalidaUtf8 implements Appendable {
+
+        private ByteBuffer destino;
+        private char altoPendiente;                     // Primera mitad de un par sustituto
+
+        @Override
+        public Appendable append(CharSequence texto) {
+            return append(texto, 0, texto.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence texto, int inicio, int fin) {
+            for (int i = inicio; i < fin; i++) {
+                append(texto.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (Character.isHighSurrogate(c)) {
+                altoPendiente = c;
+                return this;
+            }
+            if (Character.isLowSurrogate(c) && altoPendiente != 0) {
+                int codigo = Character.toCodePoint(altoPendiente, c);
+                altoPendiente = 0;
+                destino.put((byte) (0xF0 | (codigo >>> 18)));
+                destino.put((byte) (0x80 | ((codigo >>> 12) & 0x3F)));
+                destino.put((byte) (0x80 | ((codigo >>> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (codigo & 0x3F)));
+            } else if (c < 0x80) {
+                destino.put((byte) c);
+            } else if (c < 0x800) {
+                destino.put((byte) (0xC0 | (c >>> 6)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                destino.put((byte) (0xE0 | (c >>> 12)));
+                destino.put((byte) (0x80 | ((c >>> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            }
+            return this;
+        }
+    }
+}
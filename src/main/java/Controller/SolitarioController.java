@@ -8,9 +8,19 @@ import AbstractFactory.*;
 import Builder.*;
 import Strategy.*;
 import Iterator.*;
+import Motor.*;
+import Metricas.MetricasJuego;
+import Observer.ObservadorJugadas;
+import Clasificacion.ResultadoPartida;
+import Clasificacion.TablaClasificacion;
+import Persistencia.CatalogoConfiguracion;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 /**
  * Controlador principal del juego de Solitario
@@ -23,6 +33,9 @@ import java.util.List;
  */
 public class SolitarioController {
 
+    private static final MetricasJuego METRICAS = MetricasJuego.get(); // Contadores JMX compartidos
+    private static volatile List<ReservaTableros> reservas = List.of(); // Tableros ya repartidos por baraja
+
     // ATRIBUTOS PRINCIPALES - Aplicación de patrones de diseño
     private TableroSolitario tablero;              // Modelo del tablero de juego
     private CartaAbstractFactory factory;          // PATRÓN ABSTRACT FACTORY: Crea diferentes tipos de cartas
@@ -31,6 +44,15 @@ public class SolitarioController {
     private DirectorTablero director;              // PATRÓN BUILDER: Construye el tablero paso a paso
     private int movimientos = 0;                   // Contador de movimientos del jugador
     private long tiempoInicio;                     // Tiempo de inicio para calcular duración
+    private long hashEstado;                       // Hash Zobrist de la posición, se actualiza en cada movimiento
+    private long numeroPartida;                    // Semilla del reparto actual (reproducible)
+    private VistaTableroSolitario vista;           // Vista del tablero para el generador de movimientos
+    private final DiarioMovimientos diario = new DiarioMovimientos(); // Historial para deshacer/rehacer
+    private boolean historialDesdeReparto;         // El diario parte del reparto de numeroPartida
+    private boolean resultadoEntregado;            // El resultado de este reparto ya salió para la clasificación
+    private boolean tableroEntregado;              // getTablero() lo dio: puede seguir en uso fuera, no se recicla
+    private final MotorPistas motorPistas = new MotorPistas(); // Sugerencias ordenadas de jugadas
+    private ObservadorJugadas observador;          // PATRÓN OBSERVER: diario externo de la partida (opcional)
 
     // VARIABLES PARA MANEJO DE SELECCIÓN MÚLTIPLE
     private List<Carta> cartasSeleccionadas;       // Lista de cartas actualmente seleccionadas
@@ -45,9 +67,19 @@ public class SolitarioController {
      * @param sistema
      */
     public SolitarioController(CartaAbstractFactory factory, EstrategiaJuego estrategia, SistemaPuntuacion sistema) {
+        this(factory, estrategia, sistema, null);
+    }
+
+    /**
+     * Constructor común: reparte una partida nueva o, si se indica un
+     * estado, lo carga sin repartir (sesiones restauradas)
+     */
+    private SolitarioController(CartaAbstractFactory factory, EstrategiaJuego estrategia, SistemaPuntuacion sistema,
+            TableroCompacto estado) {
         this.factory = factory;                     // Inyecta la fábrica de cartas
         this.estrategiaActual = estrategia;         // Inyecta la estrategia de juego
         this.sistemaPuntuacion = sistema;           // Inyecta el sistema de puntuación
+        sistema.setObservador(METRICAS);            // La puntuación no conoce las métricas: se le inyectan
         this.director = new DirectorTablero(new TableroSolitarioConcreto(factory)); // PATRÓN BUILDER
 
         // Inicialización de variables de selección
@@ -56,10 +88,12 @@ public class SolitarioController {
         indiceInicioSeleccion = -1;
 
         tiempoInicio = System.currentTimeMillis();  // Registra el tiempo de inicio
-        inicializarJuego();                         // Configura el juego inicial
-
-        // Validación de integridad del juego
-        if (!validarEstadoJuego()) {
+        if (estado != null) {
+            cargarEstado(estado);                   // Sesión guardada: valida el tablero al cargarlo
+            return;
+        }
+        // Configura el juego inicial y valida su integridad
+        if (!inicializarJuego()) {
             throw new IllegalStateException("Error: El juego no se inicializó correctamente");
         }
     }
@@ -75,18 +109,63 @@ public class SolitarioController {
     }
 
     /**
-     * Inicializa o reinicia el estado del juego
+     * Inicializa o reinicia el estado del juego con un reparto aleatorio,
+     * tomado de la reserva de su baraja si hay uno listo
      * Aplica el patrón Template Method implícitamente
+     * @return true si el tablero es válido
      */
-    private void inicializarJuego() {
-        tablero = director.construirTableroEstandar(); // PATRÓN BUILDER: construye el tablero
+    private boolean inicializarJuego() {
+        ReservaTableros reserva = buscarReserva(factory);
+        TableroRepartido repartido = reserva == null ? null : reserva.tomar();
+        if (repartido == null) {
+            inicializarJuego(ThreadLocalRandom.current().nextLong()); // Reparto aleatorio al momento
+            return validarEstadoJuego();
+        }
+        METRICAS.registrarRepartoDeReserva();
+        TableroSolitario anterior = tableroEntregado ? null : tablero;
+        empezarPartida(repartido.getNumeroPartida(), repartido.getTablero());
+        if (anterior != null) {
+            reserva.devolver(anterior);             // Nadie más lo ve: sus listas servirán para otro reparto
+        }
+        return true;                                // La reserva ya lo validó al producirlo
+    }
+
+    /**
+     * Inicializa el juego con el reparto de un número de partida concreto.
+     * Un reinicio reparte sobre el tablero actual, sin crear listas ni cartas.
+     */
+    private void inicializarJuego(long numeroPartida) {
+        long inicio = System.nanoTime();
+        TableroSolitario nuevo = tablero == null
+                ? director.construirTableroEstandar(numeroPartida)  // PATRÓN BUILDER: construye el tablero
+                : director.reconstruirTableroEstandar(tablero, numeroPartida);
+        METRICAS.getReparto().registrarDesde(inicio);
+        empezarPartida(numeroPartida, nuevo);
+    }
+
+    // Deja la partida en el reparto dado, sin historial ni puntuación
+    private void empezarPartida(long numeroPartida, TableroSolitario nuevo) {
+        this.numeroPartida = numeroPartida;
+        if (nuevo != tablero) {
+            tableroEntregado = false;               // Un reparto en el mismo tablero sigue entregado
+            tablero = nuevo;
+        }
+        actualizarVista();
+        hashEstado = ZobristHash.calcular(tablero);  // Hash inicial de la posición
+        diario.limpiar();                           // La partida nueva empieza sin historial
+        historialDesdeReparto = true;
+        resultadoEntregado = false;
         movimientos = 0;                            // Resetea contador de movimientos
         tiempoInicio = System.currentTimeMillis();  // Reinicia el cronómetro
         
         // Manejo polimórfico del sistema de puntuación
+        sistemaPuntuacion.reiniciarAcumulado();      // Puntuación incremental desde cero
         if (sistemaPuntuacion instanceof PuntuacionConTiempo) {
             ((PuntuacionConTiempo) sistemaPuntuacion).reiniciarTiempo();
         }
+        if (observador != null) {
+            observador.partidaRepartida(numeroPartida);
+        }
     }
 
     /**
@@ -105,13 +184,12 @@ public class SolitarioController {
             Carta siguiente = columna.get(i + 1);   // Siguiente carta en la secuencia
 
             // Ambas cartas deben estar volteadas (visibles)
-            if (!actual.estaVolteada() || !siguiente.estaVolteada()) {
+            if (!tablero.estaVolteada(actual) || !tablero.estaVolteada(siguiente)) {
                 return false;
             }
 
             // Verifica secuencia descendente (K, Q, J, 10...) y colores alternados
-            if (actual.getValor() != siguiente.getValor() + 1
-                    || actual.getColorPalo() == siguiente.getColorPalo()) {
+            if (!ReglasCartas.puedeApilar(siguiente.getOrdinal(), actual.getOrdinal())) {
                 return false;
             }
         }
@@ -172,14 +250,12 @@ public class SolitarioController {
         int cartasAPasar = estrategiaActual.getCartasAPasar();
         
         // Pasa las cartas del mazo al descarte
-        for (int i = 0; i < cartasAPasar && !tablero.getMazo().isEmpty(); i++) {
-            Carta carta = tablero.getMazo().remove(tablero.getMazo().size() - 1); // Toma la última carta
-            if (!carta.estaVolteada()) {
-                carta.voltear();                    // Voltea la carta para que sea visible
-            }
-            tablero.getDescarte().add(carta);       // La agrega al descarte
+        int pasadas = Math.min(cartasAPasar, tablero.getMazo().size());
+        for (int i = 0; i < pasadas; i++) {
+            pasarTope(TableroCompacto.MAZO, TableroCompacto.DESCARTE, true); // Visible en el descarte
         }
 
+        registrarJugada(Movimiento.codificar(TableroCompacto.MAZO, TableroCompacto.DESCARTE, pasadas));
         incrementarMovimientos();                   // Cuenta como un movimiento
         return true;
     }
@@ -190,16 +266,30 @@ public class SolitarioController {
      */
     private void reciclarDescarte() {
         // Mueve todas las cartas del descarte al mazo
-        while (!tablero.getDescarte().isEmpty()) {
-            Carta carta = tablero.getDescarte().remove(tablero.getDescarte().size() - 1); // Última carta del descarte
-            if (carta.estaVolteada()) {
-                carta.voltear();                    // La voltea boca abajo
-            }
-            tablero.getMazo().add(carta);           // La agrega al mazo
+        int recicladas = tablero.getDescarte().size();
+        for (int i = 0; i < recicladas; i++) {
+            pasarTope(TableroCompacto.DESCARTE, TableroCompacto.MAZO, false); // Boca abajo en el mazo
         }
+        registrarJugada(Movimiento.codificar(TableroCompacto.DESCARTE, TableroCompacto.MAZO, recicladas));
         incrementarMovimientos();                   // Cuenta como un movimiento
     }
 
+    /**
+     * Pasa la carta superior de una pila a otra dejándola boca arriba o boca
+     * abajo. Al hacerlo una a una, el orden de las cartas se invierte, como
+     * al robar del mazo o reciclar el descarte.
+     */
+    private void pasarTope(int idOrigen, int idDestino, boolean volteada) {
+        List<Carta> origen = tablero.getPila(idOrigen);
+        List<Carta> destino = tablero.getPila(idDestino);
+        Carta carta = origen.remove(origen.size() - 1); // Toma la última carta
+        actualizarHash(carta, idOrigen, origen.size());
+        tablero.setVolteada(carta, volteada);
+        actualizarHash(carta, idDestino, destino.size());
+        tablero.registrarUbicacion(carta, idDestino, destino.size());
+        destino.add(carta);
+    }
+
     /**
      * Maneja la selección de cartas en el tableau
      * Permite seleccionar múltiples cartas o voltear cartas boca abajo
@@ -222,7 +312,7 @@ public class SolitarioController {
 
         Carta carta = columnaCartas.get(indiceClick);
         
-        if (carta.estaVolteada()) {
+        if (tablero.estaVolteada(carta)) {
             // Si la carta está volteada, la selecciona (y posiblemente más cartas)
             cartasSeleccionadas = obtenerCartasMovibles(columnaCartas, indiceClick);
             columnaOrigen = columna;                // Recuerda de qué columna viene
@@ -230,7 +320,9 @@ public class SolitarioController {
             return true;
         } else if (indiceClick == columnaCartas.size() - 1) {
             // Si es la última carta y está boca abajo, la voltea
-            carta.voltear();
+            voltearSiOculta(carta);
+            int idColumna = TableroCompacto.TABLEAU_0 + columna;
+            registrarJugada(Movimiento.codificar(idColumna, idColumna, 0));
             incrementarMovimientos();               // Voltear cuenta como movimiento
             return true;
         }
@@ -277,7 +369,7 @@ public class SolitarioController {
         List<Carta> fundacion = tablero.getFundaciones().get(indiceFundacion);
 
         // Verifica si la carta puede colocarse en esta fundación
-        if (puedeColocarEnFundacion(carta, fundacion)) {
+        if (seleccionVigente() && puedeColocarEnFundacion(carta, fundacion)) {
             moverCartaAFundacion(carta, indiceFundacion);
             cartasSeleccionadas.clear();            // Limpia la selección
             incrementarMovimientos();               // Cuenta el movimiento
@@ -313,7 +405,7 @@ public class SolitarioController {
         }
 
         // PATRÓN STRATEGY: usa la estrategia para validar el movimiento
-        if (estrategiaActual.puedeColocarCarta(primeraCarta, columna)) {
+        if (seleccionVigente() && estrategiaActual.puedeColocarCarta(primeraCarta, columna)) {
             moverCartasATableau(cartasSeleccionadas, columnaDestino);
             cartasSeleccionadas.clear();            // Limpia la selección
             incrementarMovimientos();               // Cuenta el movimiento
@@ -323,6 +415,31 @@ public class SolitarioController {
         return false;
     }
 
+    /**
+     * Comprueba con el índice de ubicaciones que la selección sigue siendo
+     * el tramo superior del descarte o de una columna. Una selección que
+     * sobrevivió a otro movimiento (p. ej. un reciclaje del descarte) deja
+     * de ser válida.
+     */
+    private boolean seleccionVigente() {
+        Carta primera = cartasSeleccionadas.get(0);
+        int idPila = tablero.getPilaDe(primera);
+        if (idPila != TableroCompacto.DESCARTE && idPila < TableroCompacto.TABLEAU_0) {
+            return false;
+        }
+        List<Carta> pila = tablero.getPila(idPila);
+        int posicion = tablero.getPosicionDe(primera);
+        if (posicion + cartasSeleccionadas.size() != pila.size()) {
+            return false;
+        }
+        for (int i = 1; i < cartasSeleccionadas.size(); i++) {
+            if (pila.get(posicion + i) != cartasSeleccionadas.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Limpia la selección actual de cartas
      * Resetea todas las variables de selección
@@ -339,11 +456,12 @@ public class SolitarioController {
      */
     private boolean puedeColocarEnFundacion(Carta carta, List<Carta> fundacion) {
         if (fundacion.isEmpty()) {
-            return carta.getValor() == 0;           // Solo el As (valor 0) puede iniciar una fundación
+            return ReglasCartas.puedeIniciarFundacion(carta.getOrdinal()); // Solo el As puede iniciar una fundación
         }
 
         Carta cartaSuperior = fundacion.get(fundacion.size() - 1);
-        return carta.esSiguienteEnSecuencia(cartaSuperior); // Debe ser la siguiente en secuencia
+        // Debe ser la siguiente en secuencia (tabla precalculada)
+        return ReglasCartas.esSiguienteEnFundacion(carta.getOrdinal(), cartaSuperior.getOrdinal());
     }
 
     /**
@@ -352,106 +470,449 @@ public class SolitarioController {
      */
     private void moverCartaAFundacion(Carta carta, int indice) {
         // Asegura que la carta esté volteada
-        if (!carta.estaVolteada()) {
-            carta.voltear();
-        }
-
-        removerCartaDeUbicacionActual(carta);       // La remueve de donde estaba
-        tablero.getFundaciones().get(indice).add(carta); // La agrega a la fundación
+        voltearSiOculta(carta);
+
+        // La carta es el tope de su pila (lo garantiza seleccionVigente)
+        int idOrigen = tablero.getPilaDe(carta);
+        int idDestino = TableroCompacto.FUNDACION_0 + indice;
+        trasladarTramo(idOrigen, idDestino, 1);
+        boolean volteo = idOrigen >= TableroCompacto.TABLEAU_0 && voltearNuevoTope(tablero.getPila(idOrigen));
+        registrarJugada(DiarioMovimientos.delta(Movimiento.codificar(idOrigen, idDestino, 1), volteo));
         verificarVictoria();                        // Verifica si el juego ha terminado
     }
 
     /**
      * Mueve múltiples cartas a una columna del tableau
-     * Procesa cada carta individualmente para mantener el orden
+     * Las cartas forman el tramo superior de su pila de origen (lo garantiza
+     * seleccionVigente), así que se trasladan en bloque
      */
     private void moverCartasATableau(List<Carta> cartas, int columnaDestino) {
         // Voltea todas las cartas si es necesario
         for (Carta carta : cartas) {
-            if (!carta.estaVolteada()) {
-                carta.voltear();
+            voltearSiOculta(carta);
+        }
+
+        int idOrigen = tablero.getPilaDe(cartas.get(0));
+        int idDestino = TableroCompacto.TABLEAU_0 + columnaDestino;
+        trasladarTramo(idOrigen, idDestino, cartas.size());
+        boolean volteo = idOrigen >= TableroCompacto.TABLEAU_0 && voltearNuevoTope(tablero.getPila(idOrigen));
+        registrarJugada(DiarioMovimientos.delta(Movimiento.codificar(idOrigen, idDestino, cartas.size()), volteo));
+    }
+
+    /**
+     * Traslada en bloque las `cantidad` cartas superiores de una pila a otra
+     * conservando su orden y su estado de volteo. Mantiene al día el hash y el
+     * índice de ubicaciones; es O(cartas movidas) y no crea arreglos.
+     */
+    private void trasladarTramo(int idOrigen, int idDestino, int cantidad) {
+        List<Carta> origen = tablero.getPila(idOrigen);
+        List<Carta> destino = tablero.getPila(idDestino);
+        int inicio = origen.size() - cantidad;
+        int base = destino.size();
+        for (int i = 0; i < cantidad; i++) {
+            Carta carta = origen.get(inicio + i);
+            actualizarHash(carta, idOrigen, inicio + i);
+            actualizarHash(carta, idDestino, base + i);
+            destino.add(carta);
+        }
+        origen.subList(inicio, origen.size()).clear();
+        tablero.registrarPila(idDestino, base);
+    }
+
+    /**
+     * Voltea automáticamente la carta que queda descubierta en una columna
+     * @return true si había una carta boca abajo y se volteó
+     */
+    private boolean voltearNuevoTope(List<Carta> columna) {
+        // Si quedan cartas en la columna, verifica la carta superior
+        if (!columna.isEmpty()) {
+            Carta cartaSuperior = columna.get(columna.size() - 1);
+            if (!tablero.estaVolteada(cartaSuperior)) {
+                voltearSiOculta(cartaSuperior);     // Voltea automáticamente la nueva carta superior
+                // PATRÓN BRIDGE: la implementación decide cuánto vale descubrir una carta
+                sistemaPuntuacion.registrarEvento(EventoPuntuacion.VOLTEO_AUTOMATICO);
+                return true;
             }
         }
+        return false;
+    }
 
-        // Remueve todas las cartas de sus ubicaciones actuales
-        for (Carta carta : cartas) {
-            removerCartaDeUbicacionActual(carta);
+    /**
+     * Voltea una carta boca abajo y refleja el volteo en el hash
+     */
+    private void voltearSiOculta(Carta carta) {
+        if (!tablero.estaVolteada(carta)) {
+            tablero.voltear(carta);
+            hashEstado ^= ZobristHash.claveVolteo(carta.getOrdinal());
         }
+    }
 
-        // Agrega todas las cartas a la columna de destino
-        List<Carta> columna = tablero.getTableau().get(columnaDestino);
-        columna.addAll(cartas);
+    /**
+     * Anota una jugada en el diario y suma sus puntos al sistema de puntuación
+     */
+    private void registrarJugada(int delta) {
+        diario.registrar(delta);
+        sistemaPuntuacion.registrarEvento(eventoDe(delta));
+        METRICAS.registrarMovimiento(delta);
+        if (observador != null) {
+            observador.jugadaRegistrada(DiarioMovimientos.movimiento(delta));
+        }
     }
 
     /**
-     * Remueve una carta de su ubicación actual en el tablero
-     * Busca la carta en descarte o tableau y la remueve
+     * Evento de puntuación que corresponde a un movimiento codificado
      */
-    private void removerCartaDeUbicacionActual(Carta carta) {
-        // Primero verifica si está en el descarte
-        if (tablero.getDescarte().contains(carta)) {
-            tablero.getDescarte().remove(carta);
-            return;
+    private static EventoPuntuacion eventoDe(int movimiento) {
+        switch (Movimiento.tipo(movimiento)) {
+            case Movimiento.TIPO_ROBO:
+                return EventoPuntuacion.ROBO;
+            case Movimiento.TIPO_RECICLAJE:
+                return EventoPuntuacion.RECICLAJE;
+            case Movimiento.TIPO_VOLTEO:
+                return EventoPuntuacion.VOLTEO;
+            case Movimiento.TIPO_DESCARTE_A_FUNDACION, Movimiento.TIPO_TABLEAU_A_FUNDACION:
+                return EventoPuntuacion.CARTA_A_FUNDACION;
+            case Movimiento.TIPO_FUNDACION_A_TABLEAU:
+                return EventoPuntuacion.CARTA_DESDE_FUNDACION;
+            default:
+                return EventoPuntuacion.MOVIMIENTO_TABLEAU;
         }
+    }
 
-        // Si no está en descarte, busca en el tableau
-        removerCartaDeTableau(carta);
+    /**
+     * Pone boca abajo la carta superior de una pila (inverso de un volteo)
+     */
+    private void ocultarTope(int idPila) {
+        List<Carta> pila = tablero.getPila(idPila);
+        Carta carta = pila.get(pila.size() - 1);
+        if (tablero.estaVolteada(carta)) {
+            tablero.voltear(carta);
+            hashEstado ^= ZobristHash.claveVolteo(carta.getOrdinal());
+        }
     }
 
     /**
-     * Remueve una carta específica del tableau
-     * También maneja el volteo automático de cartas descubiertas
+     * Combina con XOR la clave Zobrist de una carta en una posición
+     * Se llama una vez al quitarla y otra al colocarla en su nueva posición
      */
-    private boolean removerCartaDeTableau(Carta carta) {
-        // Busca la carta en todas las columnas del tableau
-        for (int col = 0; col < tablero.getTableau().size(); col++) {
-            List<Carta> columna = tablero.getTableau().get(col);
-            if (columna.contains(carta)) {
-                columna.remove(carta);              // Remueve la carta
+    private void actualizarHash(Carta carta, int idPila, int indice) {
+        hashEstado ^= ZobristHash.clave(TableroCompacto.codificar(carta, tablero.estaVolteada(carta)), idPila, indice);
+    }
 
-                // Si quedan cartas en la columna, verifica la carta superior
-                if (!columna.isEmpty()) {
-                    Carta cartaSuperior = columna.get(columna.size() - 1);
-                    if (!cartaSuperior.estaVolteada()) {
-                        cartaSuperior.voltear();    // Voltea automáticamente la nueva carta superior
-                        // PATRÓN DECORATOR: calcula puntuación por voltear carta
-                        sistemaPuntuacion.calcularPuntuacionFinal(movimientos,
-                                System.currentTimeMillis() - tiempoInicio,
-                                contarCartasEnFundaciones());
-                    }
+    /**
+     * Mantiene la vista del generador apuntando al tablero actual
+     */
+    private void actualizarVista() {
+        if (vista == null) {
+            vista = new VistaTableroSolitario(tablero);
+        } else {
+            vista.setTablero(tablero);
+        }
+    }
+
+    /**
+     * Escribe todos los movimientos legales de la posición actual
+     * Cada movimiento es un int codificado con Movimiento; no crea objetos
+     * @param salida arreglo de al menos GeneradorMovimientos.MAX_MOVIMIENTOS posiciones
+     * @return cantidad de movimientos escritos
+     */
+    public int generarMovimientosLegales(int[] salida) {
+        return GeneradorMovimientos.generar(vista, estrategiaActual, salida);
+    }
+
+    /**
+     * Ejecuta un movimiento codificado con Movimiento si es legal
+     * Usa las mismas operaciones que la interfaz de selección, así que cuenta
+     * movimientos y actualiza el hash igual que una jugada manual
+     * @param movimiento movimiento codificado
+     * @return true si el movimiento era legal y se ejecutó
+     */
+    public boolean aplicarMovimiento(int movimiento) {
+        long inicio = System.nanoTime();
+        boolean legal = GeneradorMovimientos.esLegal(vista, estrategiaActual, movimiento);
+        METRICAS.getLegalidad().registrarDesde(inicio);
+        if (!legal) {
+            return false;
+        }
+
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+        limpiarSeleccion();
+
+        switch (Movimiento.tipo(movimiento)) {
+            case Movimiento.TIPO_ROBO, Movimiento.TIPO_RECICLAJE:
+                return pasarCartasDelMazo();
+            case Movimiento.TIPO_VOLTEO:
+                return seleccionarCartasTableau(origen - TableroCompacto.TABLEAU_0,
+                        vista.tamano(origen) - 1);
+            case Movimiento.TIPO_DESCARTE_A_FUNDACION:
+                seleccionarCartaDescarte();
+                return moverAFundacion(destino - TableroCompacto.FUNDACION_0);
+            case Movimiento.TIPO_DESCARTE_A_TABLEAU:
+                seleccionarCartaDescarte();
+                return moverATableau(destino - TableroCompacto.TABLEAU_0);
+            case Movimiento.TIPO_TABLEAU_A_FUNDACION:
+                seleccionarCartasTableau(origen - TableroCompacto.TABLEAU_0, vista.tamano(origen) - 1);
+                return moverAFundacion(destino - TableroCompacto.FUNDACION_0);
+            case Movimiento.TIPO_TABLEAU_A_TABLEAU:
+                seleccionarCartasTableau(origen - TableroCompacto.TABLEAU_0,
+                        vista.tamano(origen) - Movimiento.cantidad(movimiento));
+                return moverATableau(destino - TableroCompacto.TABLEAU_0);
+            default:
+                return moverDeFundacionATableau(origen - TableroCompacto.FUNDACION_0,
+                        destino - TableroCompacto.TABLEAU_0);
+        }
+    }
+
+    /**
+     * Devuelve la carta superior de una fundación al tableau
+     * PATRÓN STRATEGY: la estrategia valida la columna destino
+     */
+    private boolean moverDeFundacionATableau(int indiceFundacion, int columnaDestino) {
+        List<Carta> fundacion = tablero.getFundaciones().get(indiceFundacion);
+        List<Carta> columna = tablero.getTableau().get(columnaDestino);
+        if (fundacion.isEmpty() || !estrategiaActual.puedeColocarCarta(fundacion.get(fundacion.size() - 1), columna)) {
+            return false;
+        }
+
+        int idOrigen = TableroCompacto.FUNDACION_0 + indiceFundacion;
+        int idDestino = TableroCompacto.TABLEAU_0 + columnaDestino;
+        trasladarTramo(idOrigen, idDestino, 1);
+        registrarJugada(Movimiento.codificar(idOrigen, idDestino, 1));
+        incrementarMovimientos();
+        return true;
+    }
+
+    // DESHACER / REHACER - Recorren el diario de deltas sin copiar el tablero
+
+    /**
+     * Deshace la última jugada registrada en el diario
+     * Revierte solo las cartas afectadas: O(cartas movidas), sin crear objetos
+     * @return true si había una jugada para deshacer
+     */
+    public boolean deshacer() {
+        if (!diario.puedeDeshacer()) {
+            return false;
+        }
+        revertir(diario.deshacer());
+        return true;
+    }
+
+    /**
+     * Deshace una jugada concreta aunque no esté en el historial, p. ej. al
+     * reproducir el diario de jugadas sobre una sesión restaurada (cuyo
+     * historial empieza vacío). Solo comprueba que la jugada encaje con las
+     * pilas actuales: quien llama garantiza que fue la última aplicada.
+     * Queda pendiente de rehacer delante de las que ya lo estaban, igual
+     * que si se hubiera deshecho desde el historial.
+     * @param delta delta de la jugada, en el formato de DiarioMovimientos
+     * @return true si encajaba con el tablero y se deshizo
+     */
+    public boolean deshacerJugada(int delta) {
+        if (!puedeRevertirse(delta)) {
+            return false;
+        }
+        revertir(delta);
+        diario.anotarDeshecha(delta);
+        return true;
+    }
+
+    // Las pilas tienen las cartas que la jugada tendría que devolver
+    private boolean puedeRevertirse(int delta) {
+        int origen = Movimiento.origen(delta);
+        int destino = Movimiento.destino(delta);
+        int cantidad = Movimiento.cantidad(delta);
+        if (origen >= TableroCompacto.NUM_PILAS || destino >= TableroCompacto.NUM_PILAS) {
+            return false;
+        }
+        switch (Movimiento.tipo(delta)) {
+            case Movimiento.TIPO_ROBO:
+                return cantidad > 0 && tablero.getDescarte().size() >= cantidad;
+            case Movimiento.TIPO_RECICLAJE:
+                return tablero.getDescarte().isEmpty() && tablero.getMazo().size() == cantidad;
+            case Movimiento.TIPO_VOLTEO:
+                return topeVolteado(origen);
+            default:
+                return cantidad > 0 && tablero.getPila(destino).size() >= cantidad
+                        && (!DiarioMovimientos.huboVolteoAutomatico(delta) || topeVolteado(origen));
+        }
+    }
+
+    private boolean topeVolteado(int idPila) {
+        List<Carta> pila = tablero.getPila(idPila);
+        return !pila.isEmpty() && tablero.estaVolteada(pila.get(pila.size() - 1));
+    }
+
+    // Revierte las cartas afectadas por un delta y su puntuación
+    private void revertir(int delta) {
+        int origen = Movimiento.origen(delta);
+        int destino = Movimiento.destino(delta);
+        int cantidad = Movimiento.cantidad(delta);
+
+        switch (Movimiento.tipo(delta)) {
+            case Movimiento.TIPO_ROBO:
+                for (int i = 0; i < cantidad; i++) {
+                    pasarTope(TableroCompacto.DESCARTE, TableroCompacto.MAZO, false);
                 }
-                return true;
+                break;
+            case Movimiento.TIPO_RECICLAJE:
+                for (int i = 0; i < cantidad; i++) {
+                    pasarTope(TableroCompacto.MAZO, TableroCompacto.DESCARTE, true);
+                }
+                break;
+            case Movimiento.TIPO_VOLTEO:
+                ocultarTope(origen);
+                break;
+            default:
+                // Primero se oculta la carta que la jugada dejó al descubierto
+                if (DiarioMovimientos.huboVolteoAutomatico(delta)) {
+                    ocultarTope(origen);
+                    sistemaPuntuacion.revertirEvento(EventoPuntuacion.VOLTEO_AUTOMATICO);
+                }
+                trasladarTramo(destino, origen, cantidad);
+        }
+
+        sistemaPuntuacion.revertirEvento(eventoDe(delta));
+        limpiarSeleccion();
+        movimientos--;                              // La jugada deshecha deja de contar
+        METRICAS.registrarDeshacer();
+        if (observador != null) {
+            observador.jugadaDeshecha(delta);
+        }
+    }
+
+    /**
+     * Vuelve a aplicar la última jugada deshecha
+     * @return true si había una jugada para rehacer
+     */
+    public boolean rehacer() {
+        if (!diario.puedeRehacer()) {
+            return false;
+        }
+        int delta = diario.rehacer();
+        int origen = Movimiento.origen(delta);
+        int destino = Movimiento.destino(delta);
+        int cantidad = Movimiento.cantidad(delta);
+
+        switch (Movimiento.tipo(delta)) {
+            case Movimiento.TIPO_ROBO:
+                for (int i = 0; i < cantidad; i++) {
+                    pasarTope(TableroCompacto.MAZO, TableroCompacto.DESCARTE, true);
+                }
+                break;
+            case Movimiento.TIPO_RECICLAJE:
+                for (int i = 0; i < cantidad; i++) {
+                    pasarTope(TableroCompacto.DESCARTE, TableroCompacto.MAZO, false);
+                }
+                break;
+            case Movimiento.TIPO_VOLTEO:
+                voltearSiOculta(tablero.getPila(origen).get(tablero.getPila(origen).size() - 1));
+                break;
+            default:
+                trasladarTramo(origen, destino, cantidad);
+                if (DiarioMovimientos.huboVolteoAutomatico(delta)) {
+                    voltearNuevoTope(tablero.getPila(origen)); // Registra también su evento
+                }
+        }
+
+        sistemaPuntuacion.registrarEvento(eventoDe(delta));
+        limpiarSeleccion();
+        incrementarMovimientos();
+        METRICAS.registrarRehacer();
+        if (observador != null) {
+            observador.jugadaRehecha(delta);
+        }
+        return true;
+    }
+
+    public boolean puedeDeshacer() {
+        return diario.puedeDeshacer();
+    }
+
+    public boolean puedeRehacer() {
+        return diario.puedeRehacer();
+    }
+
+    /**
+     * Graba la partida actual (reparto y jugadas aplicadas) como Repeticion
+     * Las jugadas deshechas no forman parte de la grabación
+     * @throws IllegalStateException si el tablero se cargó desde un estado
+     * compacto y no proviene de un reparto
+     */
+    public Repeticion exportarRepeticion() {
+        if (!historialDesdeReparto) {
+            throw new IllegalStateException("La partida no parte de un reparto reproducible");
+        }
+        int[] jugadas = new int[diario.size()];
+        for (int i = 0; i < jugadas.length; i++) {
+            jugadas[i] = DiarioMovimientos.movimiento(diario.get(i));
+        }
+        return new Repeticion(numeroPartida, estrategiaActual, jugadas);
+    }
+
+    /**
+     * Pistas de la posición actual ordenadas de mejor a peor
+     * Incluye todos los tipos de movimiento legales; el texto de cada pista
+     * solo se construye si se llama a describir()
+     */
+    public List<Pista> obtenerPistas() {
+        long inicio = System.nanoTime();
+        List<Pista> pistas = motorPistas.obtenerPistas(vista, estrategiaActual);
+        METRICAS.getPistas().registrarDesde(inicio);
+        return pistas;
+    }
+
+    /**
+     * Mejor jugada de la posición actual, lista para aplicarMovimiento()
+     * @return movimiento codificado o -1 si no queda ninguna jugada útil
+     */
+    public int obtenerMejorPista() {
+        long inicio = System.nanoTime();
+        int movimiento = motorPistas.mejorMovimiento(vista, estrategiaActual);
+        METRICAS.getPistas().registrarDesde(inicio);
+        return movimiento;
+    }
+
+    /**
+     * Aplica de una vez todas las jugadas forzadas: sube a las fundaciones
+     * las cartas que es seguro subir y voltea los topes boca abajo, y si la
+     * partida ya está resuelta (mazo y descarte vacíos, todo boca arriba) la
+     * termina. Cada jugada pasa por aplicarMovimiento(), así que puntúa y se
+     * puede deshacer una a una.
+     * @return movimientos aplicados, en orden
+     */
+    public int[] autocompletar() {
+        int[] aplicados = new int[16];
+        int n = 0;
+        int movimiento;
+        while ((movimiento = AutoCompletado.siguienteMovimiento(vista)) >= 0 && aplicarMovimiento(movimiento)) {
+            if (n == aplicados.length) {
+                aplicados = Arrays.copyOf(aplicados, n * 2);
             }
+            aplicados[n++] = movimiento;
         }
-        return false;
+        return Arrays.copyOf(aplicados, n);
     }
 
     /**
      * Busca movimientos automáticos posibles hacia las fundaciones
-     * PATRÓN ITERATOR: usa el iterador para recorrer cartas volteadas
+     * Se apoya en el motor de pistas: solo sugiere cartas del tableau que
+     * pueden subir ya, en el mismo formato de texto de siempre
      * @return 
      */
     public List<String> buscarMovimientosAutomaticos() {
-        CartaIterator iterator = tablero.getCartasVolteadasIterator(); // PATRÓN ITERATOR
         List<String> movimientosSugeridos = new ArrayList<>();
-
-        // Itera sobre todas las cartas volteadas
-        while (iterator.hasNext()) {
-            Carta carta = iterator.next();
-            Point posicion = encontrarPosicionCarta(carta);
-
-            // Verifica si la carta puede moverse a alguna fundación
-            for (int i = 0; i < 4; i++) {
-                if (puedeColocarEnFundacion(carta, tablero.getFundaciones().get(i))) {
-                    String sugerencia = String.format("%s (Columna %d) → Fundación %d",
-                            carta.toString(),
-                            posicion != null ? posicion.x + 1 : 0,
-                            i + 1);
-                    movimientosSugeridos.add(sugerencia);
-                }
+        for (Pista pista : obtenerPistas()) {
+            if (pista.getTipo() != Movimiento.TIPO_TABLEAU_A_FUNDACION) {
+                continue;
             }
+            int columna = pista.getOrigen() - TableroCompacto.TABLEAU_0;
+            List<Carta> cartas = tablero.getTableau().get(columna);
+            movimientosSugeridos.add(String.format("%s (Columna %d) → Fundación %d",
+                    cartas.get(cartas.size() - 1).toString(),
+                    columna + 1,
+                    pista.getDestino() - TableroCompacto.FUNDACION_0 + 1));
         }
-
         return movimientosSugeridos;
     }
 
@@ -490,9 +951,20 @@ public class SolitarioController {
      * Mantiene la misma configuración (factory, estrategia, puntuación)
      */
     public void reiniciarJuego() {
-        inicializarJuego();                         // Reinicia el estado del juego
-        
-        // Valida que el reinicio fue exitoso
+        // Reinicia el estado del juego y valida que el reinicio fue exitoso
+        if (!inicializarJuego()) {
+            throw new IllegalStateException("Error al reiniciar el juego");
+        }
+    }
+
+    /**
+     * Reinicia el juego con un reparto concreto
+     * El mismo número de partida reproduce siempre el mismo tablero
+     * @param numeroPartida semilla de 64 bits del reparto
+     */
+    public void reiniciarJuego(long numeroPartida) {
+        inicializarJuego(numeroPartida);
+
         if (!validarEstadoJuego()) {
             throw new IllegalStateException("Error al reiniciar el juego");
         }
@@ -510,10 +982,8 @@ public class SolitarioController {
             factory = new CartaFrancesaFactory();   // Cambia a francesa
         }
 
-        inicializarJuego();                         // Reinicia con la nueva factory
-
-        // Valida que el cambio fue exitoso
-        if (!validarEstadoJuego()) {
+        // Reinicia con la nueva factory y valida que el cambio fue exitoso
+        if (!inicializarJuego()) {
             throw new IllegalStateException("Error al cambiar tipo de baraja");
         }
     }
@@ -524,6 +994,9 @@ public class SolitarioController {
      */
     public void cambiarEstrategia(EstrategiaJuego nuevaEstrategia) {
         estrategiaActual = nuevaEstrategia;
+        if (observador != null) {
+            observador.configuracionCambiada();
+        }
     }
 
     /**
@@ -531,33 +1004,12 @@ public class SolitarioController {
      * PATRÓN DECORATOR: permite intercambiar decoradores de puntuación
      */
     public void cambiarSistemaPuntuacion(SistemaPuntuacion nuevoSistema) {
+        nuevoSistema.setObservador(METRICAS);
+        nuevoSistema.transferirAcumulado(sistemaPuntuacion); // Conserva las jugadas ya puntuadas
         sistemaPuntuacion = nuevoSistema;
-    }
-
-    /**
-     * Encuentra la posición (columna, fila) de una carta específica
-     * PATRÓN ITERATOR: usa iterador para buscar en el tableau
-     */
-    private Point encontrarPosicionCarta(Carta cartaBuscada) {
-        CartaIterator iterator = tablero.getTableauIterator(); // PATRÓN ITERATOR
-        int columna = 0;
-        int fila = 0;
-
-        // Itera sobre todas las cartas del tableau
-        while (iterator.hasNext()) {
-            Carta carta = iterator.next();
-            if (carta == cartaBuscada) {
-                return new Point(columna, fila);    // Retorna la posición encontrada
-            }
-
-            fila++;
-            // Si llegó al final de la columna, pasa a la siguiente
-            if (fila >= tablero.getTableau().get(columna).size()) {
-                columna++;
-                fila = 0;
-            }
+        if (observador != null) {
+            observador.configuracionCambiada();
         }
-        return null;                                // No encontrada
     }
 
     /**
@@ -565,6 +1017,7 @@ public class SolitarioController {
      * Verifica que todas las cartas estén contabilizadas correctamente
      */
     private boolean validarEstadoJuego() {
+        long inicio = System.nanoTime();
         CartaIterator iterator = tablero.getTableauIterator(); // PATRÓN ITERATOR
         int cartasContadas = 0;
 
@@ -581,18 +1034,279 @@ public class SolitarioController {
         int cartasEnFundaciones = contarCartasEnFundaciones();
 
         // Verifica que la suma de todas las ubicaciones sea igual al total esperado
-        return (cartasContadas + cartasEnMazo + cartasEnDescarte + cartasEnFundaciones) == totalEsperado;
+        boolean valido = (cartasContadas + cartasEnMazo + cartasEnDescarte + cartasEnFundaciones) == totalEsperado;
+        METRICAS.getValidacionEstado().registrarDesde(inicio);
+        if (!valido) {
+            METRICAS.registrarFalloValidacionEstado();
+        }
+        return valido;
+    }
+
+    /**
+     * Resultado de la partida para la TablaClasificacion, con la puntuación
+     * y el tiempo actuales. Se entrega una sola vez por reparto para que la
+     * misma partida no entre varias veces en la clasificación.
+     * @return el resultado o null si ya se entregó
+     */
+    public ResultadoPartida obtenerResultadoFinal() {
+        if (resultadoEntregado) {
+            return null;
+        }
+        resultadoEntregado = true;
+        return new ResultadoPartida(TablaClasificacion.categoria(sistemaPuntuacion, estrategiaActual),
+                getPuntuacion(), movimientos, getTiempoTranscurrido(), numeroPartida, esVictoria(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Exporta el estado actual del tablero en formato compacto
+     * Útil para copiar, comparar o almacenar partidas con poca memoria
+     * @return copia compacta e independiente del tablero
+     */
+    public TableroCompacto exportarEstadoCompacto() {
+        return TableroCompacto.desde(tablero);
+    }
+
+    /**
+     * Reemplaza el tablero actual por uno decodificado desde formato compacto
+     * Conserva movimientos y cronómetro; limpia la selección y el historial
+     * @param estado tablero compacto a cargar
+     */
+    public void cargarEstadoCompacto(TableroCompacto estado) {
+        limpiarSeleccion();
+        cargarEstado(estado);
+    }
+
+    // Lo usa también el constructor (sin selección todavía), así que no llama a
+    // métodos que una subclase pueda redefinir
+    private void cargarEstado(TableroCompacto estado) {
+        tablero = estado.aTablero(factory);
+        tableroEntregado = false;
+        actualizarVista();
+        hashEstado = ZobristHash.calcular(estado);
+        diario.limpiar();                           // El historial no aplica al estado cargado
+        historialDesdeReparto = false;
+        sistemaPuntuacion.sincronizar(movimientos, contarCartasEnFundaciones());
+
+        if (!validarEstadoJuego()) {
+            throw new IllegalStateException("Error al cargar el estado compacto");
+        }
+        if (observador != null) {
+            observador.estadoCargado();
+        }
+    }
+
+    // SESIÓN BINARIA - Registro de tamaño fijo para guardar y restaurar sesiones
+
+    /**
+     * Bytes que ocupa una sesión guardada con guardarSesion()
+     */
+    public static final int TAMANO_SESION = 144;
+
+    private static final byte VERSION_SESION = 1;
+    private static final EventoPuntuacion[] EVENTOS = EventoPuntuacion.values();
+    private static final int MAX_SELECCION = 19;    // 6 cartas boca abajo + 13 boca arriba
+    private static final int POS_MOVIMIENTOS = 8;
+    private static final int POS_TIEMPO = 12;
+    private static final int POS_PARTIDA = 20;
+    private static final int POS_EVENTOS = 28;
+    private static final int POS_SELECCION = POS_EVENTOS + 4 * EVENTOS.length;
+    private static final int POS_TABLERO = POS_SELECCION + 1 + MAX_SELECCION;
+
+    /**
+     * Escribe la sesión en un registro de TAMANO_SESION bytes a partir de
+     * `pos`, con accesos absolutos (no mueve la posición del buffer) y sin
+     * crear objetos. Formato, en el orden de bytes del buffer:
+     * <pre>
+     *    0  versión
+     *    1  códigos de baraja, estrategia, sistema e implementación (CatalogoConfiguracion)
+     *    5  banderas (bit 0: resultado ya entregado)
+     *    6  columnaOrigen y 7 indiceInicioSeleccion (byte con signo)
+     *    8  movimientos (int)
+     *   12  tiempo transcurrido en ms (long)
+     *   20  número de partida (long)
+     *   28  eventos de puntuación por ordinal (int cada uno)
+     *   56  cartas seleccionadas: cantidad y hasta 19 ordinales
+     *   76  tablero en el formato de TableroCompacto; el resto a cero
+     * </pre>
+     * El diario de deshacer no se guarda.
+     */
+    public void guardarSesion(ByteBuffer destino, int pos) {
+        if (cartasSeleccionadas.size() > MAX_SELECCION) {
+            throw new IllegalStateException("La selección no cabe en el registro de sesión");
+        }
+        // Los códigos primero: si alguna pieza no se puede guardar, el registro queda intacto
+        int baraja = CatalogoConfiguracion.codigoBaraja(factory);
+        int estrategia = CatalogoConfiguracion.codigoEstrategia(estrategiaActual);
+        int sistema = CatalogoConfiguracion.codigoSistema(sistemaPuntuacion);
+        int implementacion = CatalogoConfiguracion.codigoImplementacion(sistemaPuntuacion.getImplementacion());
+        destino.put(pos, VERSION_SESION)
+                .put(pos + 1, (byte) baraja)
+                .put(pos + 2, (byte) estrategia)
+                .put(pos + 3, (byte) sistema)
+                .put(pos + 4, (byte) implementacion)
+                .put(pos + 5, (byte) (resultadoEntregado ? 1 : 0))
+                .put(pos + 6, (byte) columnaOrigen)
+                .put(pos + 7, (byte) indiceInicioSeleccion)
+                .putInt(pos + POS_MOVIMIENTOS, movimientos)
+                .putLong(pos + POS_TIEMPO, getTiempoTranscurrido())
+                .putLong(pos + POS_PARTIDA, numeroPartida);
+        for (int i = 0; i < EVENTOS.length; i++) {
+            destino.putInt(pos + POS_EVENTOS + 4 * i, sistemaPuntuacion.getConteoEvento(EVENTOS[i]));
+        }
+
+        destino.put(pos + POS_SELECCION, (byte) cartasSeleccionadas.size());
+        for (int i = 0; i < MAX_SELECCION; i++) {
+            destino.put(pos + POS_SELECCION + 1 + i,
+                    (byte) (i < cartasSeleccionadas.size() ? cartasSeleccionadas.get(i).getOrdinal() : 0));
+        }
+
+        // Tamaños de las 13 pilas y luego sus cartas, como TableroCompacto
+        int cursor = pos + POS_TABLERO + TableroCompacto.NUM_PILAS;
+        for (int idPila = 0; idPila < TableroCompacto.NUM_PILAS; idPila++) {
+            List<Carta> pila = tablero.getPila(idPila);
+            destino.put(pos + POS_TABLERO + idPila, (byte) pila.size());
+            for (int i = 0; i < pila.size(); i++) {
+                Carta carta = pila.get(i);
+                destino.put(cursor++, (byte) TableroCompacto.codificar(carta, tablero.estaVolteada(carta)));
+            }
+        }
+        while (cursor < pos + TAMANO_SESION) {
+            destino.put(cursor++, (byte) 0);
+        }
+    }
+
+    /**
+     * Reconstruye una sesión escrita con guardarSesion(). El tablero se
+     * valida; el historial de deshacer empieza vacío.
+     * @throws IllegalArgumentException si el registro no es válido
+     */
+    public static SolitarioController restaurarSesion(ByteBuffer origen, int pos) {
+        if (origen.get(pos) != VERSION_SESION) {
+            throw new IllegalArgumentException("Versión de sesión no soportada: " + origen.get(pos));
+        }
+        byte[] datos = new byte[TableroCompacto.TAMANO_DATOS];
+        origen.get(pos + POS_TABLERO, datos);
+        SistemaPuntuacion sistema = CatalogoConfiguracion.sistema(origen.get(pos + 3),
+                CatalogoConfiguracion.implementacion(origen.get(pos + 4)));
+        SolitarioController controller = new SolitarioController(CatalogoConfiguracion.baraja(origen.get(pos + 1)),
+                CatalogoConfiguracion.estrategia(origen.get(pos + 2)), sistema, TableroCompacto.desdeDatos(datos));
+
+        controller.resultadoEntregado = (origen.get(pos + 5) & 1) != 0;
+        controller.movimientos = origen.getInt(pos + POS_MOVIMIENTOS);
+        controller.tiempoInicio = System.currentTimeMillis() - origen.getLong(pos + POS_TIEMPO);
+        controller.numeroPartida = origen.getLong(pos + POS_PARTIDA);
+        if (sistema instanceof PuntuacionConTiempo) {
+            ((PuntuacionConTiempo) sistema).reiniciarTiempo(controller.tiempoInicio);
+        }
+        int[] conteo = new int[EVENTOS.length];
+        for (int i = 0; i < conteo.length; i++) {
+            conteo[i] = origen.getInt(pos + POS_EVENTOS + 4 * i);
+        }
+        sistema.restaurarAcumulado(conteo);
+
+        int seleccionadas = origen.get(pos + POS_SELECCION);
+        if (seleccionadas < 0 || seleccionadas > MAX_SELECCION) {
+            throw new IllegalArgumentException("Selección dañada en el registro de sesión");
+        }
+        for (int i = 0; i < seleccionadas; i++) {
+            int ordinal = origen.get(pos + POS_SELECCION + 1 + i);
+            if (ordinal < 0 || ordinal >= TableroCompacto.NUM_CARTAS) {
+                throw new IllegalArgumentException("Carta seleccionada dañada en el registro de sesión");
+            }
+            controller.cartasSeleccionadas.add(controller.factory.getCarta(ordinal));
+        }
+        controller.columnaOrigen = origen.get(pos + 6);
+        controller.indiceInicioSeleccion = origen.get(pos + 7);
+        return controller;
+    }
+
+    /**
+     * Suma tiempo de juego a un registro de guardarSesion(), p. ej. el que
+     * pasó guardado mientras la partida seguía abierta
+     */
+    public static void sumarTiempoSesion(ByteBuffer registro, int pos, long milisegundos) {
+        registro.putLong(pos + POS_TIEMPO, registro.getLong(pos + POS_TIEMPO) + milisegundos);
+    }
+
+    // RESERVAS DE TABLEROS - Repartos aleatorios preparados en segundo plano
+
+    /**
+     * Registra la reserva de tableros de una baraja para todos los
+     * controladores del proceso. Sustituye a la anterior de la misma baraja.
+     */
+    public static synchronized void registrarReserva(ReservaTableros reserva) {
+        List<ReservaTableros> nuevas = new ArrayList<>(reservas);
+        nuevas.removeIf(r -> r.sirvePara(reserva.getFactory()));
+        nuevas.add(reserva);
+        reservas = List.copyOf(nuevas);
+    }
+
+    /**
+     * Deja de usar una reserva (no la cierra)
+     */
+    public static synchronized void quitarReserva(ReservaTableros reserva) {
+        List<ReservaTableros> nuevas = new ArrayList<>(reservas);
+        nuevas.remove(reserva);
+        reservas = List.copyOf(nuevas);
+    }
+
+    public static List<ReservaTableros> getReservas() {
+        return reservas;
+    }
+
+    private static ReservaTableros buscarReserva(CartaAbstractFactory factory) {
+        for (ReservaTableros reserva : reservas) {      // Una por baraja: lista corta
+            if (reserva.sirvePara(factory)) {
+                return reserva;
+            }
+        }
+        return null;
     }
 
     // MÉTODOS GETTER - Proporcionan acceso controlado al estado interno
 
     /**
-     * Obtiene el tablero actual del juego
+     * Obtiene el tablero actual del juego. Tras un reparto nuevo la partida
+     * puede seguir en otro tablero, pero uno entregado aquí no vuelve a la
+     * ReservaTableros: nunca pasa a otra partida. Las consultas que no lo
+     * guardan pueden usar consultarTablero(), que sí permite reciclarlo.
      */
     public TableroSolitario getTablero() {
+        tableroEntregado = true;
+        return tablero;
+    }
+
+    /**
+     * Presta el tablero actual a una consulta sin entregarlo. La consulta no
+     * debe guardarlo: tras el siguiente reparto puede reciclarse para otra
+     * partida.
+     * @return lo que devuelva la consulta
+     */
+    public <T> T consultarTablero(Function<? super TableroSolitario, ? extends T> consulta) {
+        return consulta.apply(tablero);
+    }
+
+    // Tablero sin entregarlo, solo para el renderizador (no guardarlo)
+    TableroSolitario getTableroSinEntregar() {
         return tablero;
     }
 
+    /**
+     * Obtiene el hash Zobrist de la posición actual
+     * Se mantiene incrementalmente, leerlo es O(1)
+     */
+    public long getHashEstado() {
+        return hashEstado;
+    }
+
+    /**
+     * Obtiene el número de partida (semilla) del reparto actual
+     */
+    public long getNumeroPartida() {
+        return numeroPartida;
+    }
+
     /**
      * Obtiene el número de movimientos realizados
      */
@@ -612,7 +1326,7 @@ public class SolitarioController {
      * PATRÓN DECORATOR: utiliza el sistema de puntuación decorado
      */
     public int getPuntuacion() {
-        return sistemaPuntuacion.calcularPuntuacionFinal(movimientos, getTiempoTranscurrido(), contarCartasEnFundaciones());
+        return sistemaPuntuacion.getPuntuacionActual(getTiempoTranscurrido()); // O(1): acumulado incremental
     }
 
     /**
@@ -646,6 +1360,11 @@ public class SolitarioController {
         return new ArrayList<>(cartasSeleccionadas);
     }
 
+    // Selección actual sin copiar, solo para el renderizador (no modificar)
+    List<Carta> getSeleccionSinCopia() {
+        return cartasSeleccionadas;
+    }
+
     /**
      * Obtiene la fábrica de cartas actual
      * PATRÓN ABSTRACT FACTORY: expone la factory actual
@@ -654,6 +1373,14 @@ public class SolitarioController {
         return factory;
     }
 
+    /**
+     * Registra el observador que recibe cada cambio de estado
+     * PATRÓN OBSERVER: un único observador, null para quitarlo
+     */
+    public void setObservador(ObservadorJugadas observador) {
+        this.observador = observador;
+    }
+
     /**
      * Formatea el tiempo en formato MM:SS
      * Método utilitario para presentación de datos
@@ -674,86 +1401,12 @@ public class SolitarioController {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("=== ESTADO DEL JUEGO SOLITARIO ===\n");
-        sb.append("Estrategia: ").append(estrategiaActual.getNombre()).append("\n");
-        sb.append("Sistema de Puntuación: ").append(sistemaPuntuacion.getClass().getSimpleName()).append("\n");
-        sb.append("Movimientos: ").append(movimientos).append("\n");
-        sb.append("Tiempo: ").append(formatearTiempo(getTiempoTranscurrido())).append("\n");
-        sb.append("Puntuación: ").append(getPuntuacion()).append("\n");
-        sb.append("Estado: ").append(esVictoria() ? "¡VICTORIA!" : "En juego").append("\n");
-        sb.append("\n");
-
-        // Estado del mazo y descarte
-        sb.append("MAZO Y DESCARTE:\n");
-        sb.append("Cartas en mazo: ").append(tablero.getMazo().size()).append("\n");
-        sb.append("Cartas en descarte: ").append(tablero.getDescarte().size());
-        if (!tablero.getDescarte().isEmpty()) {
-            Carta cartaTope = tablero.getDescarte().get(tablero.getDescarte().size() - 1);
-            sb.append(" (Tope: ").append(cartaTope.toString()).append(")");
-        }
-        sb.append("\n\n");
-
-        // Estado de las fundaciones
-        sb.append("FUNDACIONES:\n");
-        for (int i = 0; i < tablero.getFundaciones().size(); i++) {
-            List<Carta> fundacion = tablero.getFundaciones().get(i);
-            sb.append("Fundación ").append(i + 1).append(": ");
-            if (fundacion.isEmpty()) {
-                sb.append("Vacía");
-            } else {
-                sb.append(fundacion.size()).append(" cartas (Tope: ")
-                  .append(fundacion.get(fundacion.size() - 1).toString()).append(")");
-            }
-            sb.append("\n");
-        }
-        sb.append("\n");
-
-        // Estado del tableau
-        sb.append("TABLEAU:\n");
-        for (int col = 0; col < tablero.getTableau().size(); col++) {
-            List<Carta> columna = tablero.getTableau().get(col);
-            sb.append("Columna ").append(col + 1).append(": ");
-            
-            if (columna.isEmpty()) {
-                sb.append("Vacía");
-            } else {
-                sb.append(columna.size()).append(" cartas [");
-                for (int i = 0; i < columna.size(); i++) {
-                    Carta carta = columna.get(i);
-                    if (i > 0) sb.append(", ");
-                    
-                    if (carta.estaVolteada()) {
-                        sb.append(carta.toString());
-                    } else {
-                        sb.append("🂠"); // Dorso de carta
-                    }
-                }
-                sb.append("]");
-            }
-            sb.append("\n");
-        }
-
-        // Cartas seleccionadas
-        if (!cartasSeleccionadas.isEmpty()) {
-            sb.append("\n");
-            sb.append("CARTAS SELECCIONADAS: ");
-            for (int i = 0; i < cartasSeleccionadas.size(); i++) {
-                if (i > 0) sb.append(", ");
-                sb.append(cartasSeleccionadas.get(i).toString());
-            }
-            sb.append("\n");
+        StringBuilder sb = new StringBuilder(1024);
+        try {
+            new RenderizadorTablero().renderizar(this, sb); // Las etiquetas ya están precalculadas por baraja
+        } catch (IOException e) {
+            throw new IllegalStateException(e);    // StringBuilder no lanza IOException
         }
-
-        // Estadísticas adicionales
-        sb.append("\n");
-        sb.append("ESTADÍSTICAS:\n");
-        sb.append("Total cartas en fundaciones: ").append(contarCartasEnFundaciones()).append("/52\n");
-        sb.append("Progreso: ").append(String.format("%.1f%%", (contarCartasEnFundaciones() / 52.0) * 100)).append("\n");
-        
-        // Validación del estado
-        sb.append("Estado válido: ").append(validarEstadoJuego() ? "✓" : "✗").append("\n");
-
         return sb.toString();
     }
 }
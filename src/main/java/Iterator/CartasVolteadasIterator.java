@@ -6,25 +6,30 @@ package Iterator;
 
 import AbstractFactory.Carta;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 // =============================================================================
 // CONCRETE ITERADOR
 // =============================================================================
 /**
  * Implementación concreta del Iterator que filtra solo cartas volteadas
  * Utiliza el patrón Decorator para agregar funcionalidad de filtrado
- * a un iterator base existente
+ * a un iterator base existente. Como las cartas son compartidas, el estado
+ * de volteo lo consulta al tablero a través de un predicado.
  */
 public class CartasVolteadasIterator implements CartaIterator {
     
     private CartaIterator baseIterator;
+    private Predicate<Carta> estaVolteada;
     private Carta siguienteCarta;
     
     /**
      * Constructor que recibe un iterator base y lo decora
      * @param baseIterator Iterator base a decorar
+     * @param estaVolteada consulta del tablero que indica si una carta está boca arriba
      */
-    public CartasVolteadasIterator(CartaIterator baseIterator) {
+    public CartasVolteadasIterator(CartaIterator baseIterator, Predicate<Carta> estaVolteada) {
         this.baseIterator = baseIterator;
+        this.estaVolteada = estaVolteada;
         encontrarSiguiente();
     }
     
@@ -36,7 +41,7 @@ public class CartasVolteadasIterator implements CartaIterator {
         siguienteCarta = null;
         while (baseIterator.hasNext()) {
             Carta carta = baseIterator.next();
-            if (carta.estaVolteada()) {
+            if (estaVolteada.test(carta)) {
                 siguienteCarta = carta;
                 break;
             }
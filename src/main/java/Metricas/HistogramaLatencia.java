@@ -0,0 +1,133 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// =============================================================================
+// HISTOGRAMA DE LATENCIAS
+// =============================================================================
+/**
+ * Histograma de latencias sin cerrojos con intervalos de potencias de 2
+ * (intervalo i = [2^i, 2^(i+1)) nanosegundos). Registrar una medida es un
+ * numberOfLeadingZeros y dos LongAdder, sin crear objetos; el máximo solo
+ * hace CAS cuando se supera. Los percentiles se calculan al leerlos.
+ *
+ * Precisión: un percentil se informa como el límite superior de su
+ * intervalo, así que puede llegar a ser el doble del valor real (nunca
+ * menos, y nunca más que el máximo observado). Sirve para ver órdenes de
+ * magnitud y regresiones grandes, no diferencias de un 10-20 %.
+ */
+public class HistogramaLatencia implements HistogramaLatenciaMBean {
+
+    private static final int NUM_INTERVALOS = 64;
+
+    private final LongAdder[] intervalos = new LongAdder[NUM_INTERVALOS];
+    private final LongAdder conteo = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maximoNanos = new AtomicLong();
+
+    public HistogramaLatencia() {
+        for (int i = 0; i < NUM_INTERVALOS; i++) {
+            intervalos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra una latencia medida con System.nanoTime()
+     */
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        intervalos[63 - Long.numberOfLeadingZeros(nanos | 1)].increment();
+        conteo.increment();
+        totalNanos.add(nanos);
+        long maximo;
+        while (nanos > (maximo = maximoNanos.get()) && !maximoNanos.compareAndSet(maximo, nanos)) {
+            // Otro hilo actualizó el máximo; se vuelve a comparar
+        }
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde inicioNanos
+     */
+    public void registrarDesde(long inicioNanos) {
+        registrar(System.nanoTime() - inicioNanos);
+    }
+
+    @Override
+    public long getConteo() {
+        return conteo.sum();
+    }
+
+    @Override
+    public long getMediaNanos() {
+        long n = conteo.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    @Override
+    public long getMaximoNanos() {
+        return maximoNanos.get();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return percentil(0.50);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return percentil(0.90);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return percentil(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return percentil(0.999);
+    }
+
+    /**
+     * Límite superior del intervalo que contiene el percentil p (0..1): entre
+     * el valor real y su doble
+     */
+    public long percentil(double p) {
+        long[] cuentas = new long[NUM_INTERVALOS];
+        long total = 0;
+        for (int i = 0; i < NUM_INTERVALOS; i++) {
+            cuentas[i] = intervalos[i].sum();
+            total += cuentas[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(p * total);
+        long acumulado = 0;
+        for (int i = 0; i < NUM_INTERVALOS; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= objetivo) {
+                // Nunca por encima del máximo observado
+                return Math.min(i == 63 ? Long.MAX_VALUE : (2L << i) - 1, maximoNanos.get());
+            }
+        }
+        return maximoNanos.get();
+    }
+
+    @Override
+    public void reiniciar() {
+        for (LongAdder intervalo : intervalos) {
+            intervalo.reset();
+        }
+        conteo.reset();
+        totalNanos.reset();
+        maximoNanos.set(0);
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metricas;
+
+/**
+ * Atributos JMX de un HistogramaLatencia. Los percentiles son el límite
+ * superior del intervalo (potencia de 2) donde caen, así que sobrestiman
+ * como mucho al doble.
+ */
+public interface HistogramaLatenciaMBean {
+
+    public long getConteo();
+
+    public long getMediaNanos();
+
+    public long getMaximoNanos();
+
+    public long getP50Nanos();
+
+    public long getP90Nanos();
+
+    public long getP99Nanos();
+
+    public long getP999Nanos();
+
+    public void reiniciar();
+}
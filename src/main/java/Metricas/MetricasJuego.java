@@ -0,0 +1,260 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metricas;
+
+import Motor.Movimiento;
+import Observer.ObservadorPuntuacion;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// =============================================================================
+// MÉTRICAS DEL MOTOR DE JUEGO
+// =============================================================================
+/**
+ * Contadores e histogramas de latencia de las operaciones del controlador y
+ * del tablero, compartidos por todas las partidas del proceso y publicados
+ * como MBeans en el servidor de la plataforma:
+ * <pre>
+ *   Solitario:type=Motor                        contadores
+ *   Solitario:type=Latencia,name=Legalidad      aplicarMovimiento (esLegal)
+ *   Solitario:type=Latencia,name=ValidacionEstado  validarEstadoJuego
+ *   Solitario:type=Latencia,name=Pistas         motor de pistas
+ *   Solitario:type=Latencia,name=Reparto        repartos construidos por el controlador
+ * </pre>
+ * Los repartos servidos por una ReservaTableros no pasan por el builder en
+ * el hilo de la partida: se cuentan aparte (RepartosDeReserva) y Repartos
+ * suma ambos. Registrar un evento es un incremento de LongAdder (unos pocos
+ * ns, sin cerrojos ni objetos). Las mediciones de tiempo añaden el coste de
+ * System.nanoTime(). La puntuación no llama aquí directamente: el
+ * controlador inyecta esta clase como su ObservadorPuntuacion.
+ */
+public final class MetricasJuego implements MetricasJuegoMBean, ObservadorPuntuacion {
+
+    private static final MetricasJuego INSTANCIA = new MetricasJuego();
+    private static final Exception ERROR_PUBLICACION = INSTANCIA.registrarMBeans(); // null si se registraron
+
+    private final LongAdder[] movimientosPorTipo = new LongAdder[Movimiento.NUM_TIPOS];
+    private final LongAdder deshechos = new LongAdder();
+    private final LongAdder rehechos = new LongAdder();
+    private final LongAdder fallosValidacionEstado = new LongAdder();
+    private final LongAdder consultasPuntuacion = new LongAdder();
+    private final LongAdder recalculosPuntuacion = new LongAdder();
+    private final LongAdder repartosDeReserva = new LongAdder();
+
+    private final HistogramaLatencia legalidad = new HistogramaLatencia();
+    private final HistogramaLatencia validacionEstado = new HistogramaLatencia();
+    private final HistogramaLatencia pistas = new HistogramaLatencia();
+    private final HistogramaLatencia reparto = new HistogramaLatencia();
+
+    private MetricasJuego() {
+        for (int i = 0; i < movimientosPorTipo.length; i++) {
+            movimientosPorTipo[i] = new LongAdder();
+        }
+    }
+
+    public static MetricasJuego get() {
+        return INSTANCIA;
+    }
+
+    // Sin JMX disponible las métricas siguen funcionando, solo que no se publican.
+    // Devuelve el error para que quien aloja el proceso decida cómo avisarlo
+    private Exception registrarMBeans() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            registrar(servidor, "Solitario:type=Motor", this);
+            registrar(servidor, "Solitario:type=Latencia,name=Legalidad", legalidad);
+            registrar(servidor, "Solitario:type=Latencia,name=ValidacionEstado", validacionEstado);
+            registrar(servidor, "Solitario:type=Latencia,name=Pistas", pistas);
+            registrar(servidor, "Solitario:type=Latencia,name=Reparto", reparto);
+            return null;
+        } catch (JMException | RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * @return true si las métricas están publicadas como MBeans
+     */
+    public boolean estanPublicadas() {
+        return ERROR_PUBLICACION == null;
+    }
+
+    /**
+     * @return el error al registrar los MBeans, o null si se registraron
+     */
+    public Exception getErrorPublicacion() {
+        return ERROR_PUBLICACION;
+    }
+
+    private static void registrar(MBeanServer servidor, String nombre, Object mbean) throws JMException {
+        ObjectName objeto = new ObjectName(nombre);
+        if (!servidor.isRegistered(objeto)) {
+            servidor.registerMBean(mbean, objeto);
+        }
+    }
+
+    // REGISTRO DE EVENTOS
+
+    /**
+     * Cuenta una jugada según su tipo (Movimiento.tipo)
+     */
+    public void registrarMovimiento(int movimiento) {
+        movimientosPorTipo[Movimiento.tipo(movimiento)].increment();
+    }
+
+    public void registrarDeshacer() {
+        deshechos.increment();
+    }
+
+    public void registrarRehacer() {
+        rehechos.increment();
+    }
+
+    public void registrarFalloValidacionEstado() {
+        fallosValidacionEstado.increment();
+    }
+
+    /**
+     * Cuenta una partida empezada con un tablero de la ReservaTableros
+     */
+    public void registrarRepartoDeReserva() {
+        repartosDeReserva.increment();
+    }
+
+    @Override
+    public void puntuacionConsultada() {
+        consultasPuntuacion.increment();
+    }
+
+    @Override
+    public void puntuacionRecalculada() {
+        recalculosPuntuacion.increment();
+    }
+
+    public HistogramaLatencia getLegalidad() {
+        return legalidad;
+    }
+
+    public HistogramaLatencia getValidacionEstado() {
+        return validacionEstado;
+    }
+
+    public HistogramaLatencia getPistas() {
+        return pistas;
+    }
+
+    public HistogramaLatencia getReparto() {
+        return reparto;
+    }
+
+    // ATRIBUTOS JMX
+
+    @Override
+    public long getRobos() {
+        return movimientosPorTipo[Movimiento.TIPO_ROBO].sum();
+    }
+
+    @Override
+    public long getReciclajes() {
+        return movimientosPorTipo[Movimiento.TIPO_RECICLAJE].sum();
+    }
+
+    @Override
+    public long getVolteos() {
+        return movimientosPorTipo[Movimiento.TIPO_VOLTEO].sum();
+    }
+
+    @Override
+    public long getDescarteAFundacion() {
+        return movimientosPorTipo[Movimiento.TIPO_DESCARTE_A_FUNDACION].sum();
+    }
+
+    @Override
+    public long getDescarteATableau() {
+        return movimientosPorTipo[Movimiento.TIPO_DESCARTE_A_TABLEAU].sum();
+    }
+
+    @Override
+    public long getTableauAFundacion() {
+        return movimientosPorTipo[Movimiento.TIPO_TABLEAU_A_FUNDACION].sum();
+    }
+
+    @Override
+    public long getTableauATableau() {
+        return movimientosPorTipo[Movimiento.TIPO_TABLEAU_A_TABLEAU].sum();
+    }
+
+    @Override
+    public long getFundacionATableau() {
+        return movimientosPorTipo[Movimiento.TIPO_FUNDACION_A_TABLEAU].sum();
+    }
+
+    @Override
+    public long getMovimientosTotales() {
+        long total = 0;
+        for (LongAdder contador : movimientosPorTipo) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getDeshechos() {
+        return deshechos.sum();
+    }
+
+    @Override
+    public long getRehechos() {
+        return rehechos.sum();
+    }
+
+    @Override
+    public long getRepartos() {
+        return reparto.getConteo() + repartosDeReserva.sum();
+    }
+
+    @Override
+    public long getRepartosDeReserva() {
+        return repartosDeReserva.sum();
+    }
+
+    @Override
+    public long getFallosValidacionEstado() {
+        return fallosValidacionEstado.sum();
+    }
+
+    @Override
+    public long getConsultasPuntuacion() {
+        return consultasPuntuacion.sum();
+    }
+
+    @Override
+    public long getRecalculosPuntuacion() {
+        return recalculosPuntuacion.sum();
+    }
+
+    /**
+     * Pone a cero contadores e histogramas
+     */
+    @Override
+    public void reiniciar() {
+        for (LongAdder contador : movimientosPorTipo) {
+            contador.reset();
+        }
+        deshechos.reset();
+        rehechos.reset();
+        fallosValidacionEstado.reset();
+        consultasPuntuacion.reset();
+        recalculosPuntuacion.reset();
+        repartosDeReserva.reset();
+        legalidad.reiniciar();
+        validacionEstado.reiniciar();
+        pistas.reiniciar();
+        reparto.reiniciar();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Metricas;
+
+/**
+ * Atributos JMX de los contadores del motor de juego
+ */
+public interface MetricasJuegoMBean {
+
+    // Movimientos por tipo (Movimiento.TIPO_*)
+    public long getRobos();
+
+    public long getReciclajes();
+
+    public long getVolteos();
+
+    public long getDescarteAFundacion();
+
+    public long getDescarteATableau();
+
+    public long getTableauAFundacion();
+
+    public long getTableauATableau();
+
+    public long getFundacionATableau();
+
+    public long getMovimientosTotales();
+
+    public long getDeshechos();
+
+    public long getRehechos();
+
+    // Todos los repartos: construidos por el controlador más los tomados de una reserva
+    public long getRepartos();
+
+    public long getRepartosDeReserva();
+
+    public long getFallosValidacionEstado();
+
+    public long getConsultasPuntuacion();
+
+    public long getRecalculosPuntuacion();
+
+    public void reiniciar();
+}
@@ -0,0 +1,80 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+// =============================================================================
+// AUTOCOMPLETADO
+// =============================================================================
+/**
+ * Decide la siguiente jugada forzada del autocompletado, sin crear objetos.
+ *
+ * Hay dos modos. Mientras la partida está abierta solo se suben cartas que
+ * es seguro subir (nunca harán falta en el tableau) y se voltean los topes
+ * boca abajo. Cuando mazo y descarte están vacíos y todas las cartas del
+ * tableau están boca arriba, la partida está resuelta: cada columna es una
+ * secuencia descendente, así que la menor carta pendiente de cada palo
+ * siempre está en algún tope y se puede subir cualquier carta.
+ */
+public final class AutoCompletado {
+
+    private AutoCompletado() {
+    }
+
+    /**
+     * Siguiente jugada del autocompletado en la posición
+     * @return movimiento codificado o -1 si no queda ninguna jugada forzada
+     */
+    public static int siguienteMovimiento(VistaTablero tablero) {
+        boolean resuelta = estaResuelta(tablero);
+
+        int movimiento = subirTope(tablero, TableroCompacto.DESCARTE, resuelta);
+        if (movimiento >= 0) {
+            return movimiento;
+        }
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            int tope = tablero.tope(columna);
+            if (tope < 0) {
+                continue;
+            }
+            if (!TableroCompacto.estaVolteada(tope)) {
+                return Movimiento.codificar(columna, columna, 0); // Voltear el tope
+            }
+            movimiento = subirTope(tablero, columna, resuelta);
+            if (movimiento >= 0) {
+                return movimiento;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mazo y descarte vacíos y todo el tableau boca arriba: la partida se
+     * puede terminar subiendo cartas a las fundaciones
+     */
+    public static boolean estaResuelta(VistaTablero tablero) {
+        if (tablero.tamano(TableroCompacto.MAZO) > 0 || tablero.tamano(TableroCompacto.DESCARTE) > 0) {
+            return false;
+        }
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            // Las cartas boca abajo siempre están debajo de las volteadas
+            if (tablero.tamano(columna) > 0 && !TableroCompacto.estaVolteada(tablero.carta(columna, 0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Movimiento del tope de `origen` a su fundación si procede, o -1
+    private static int subirTope(VistaTablero tablero, int origen, boolean resuelta) {
+        int carta = tablero.tope(origen);
+        if (carta < 0 || !(resuelta || ReglasTablero.esSeguraEnFundacion(tablero, carta))) {
+            return -1;
+        }
+        int fundacion = ReglasTablero.fundacionPara(tablero, carta);
+        return fundacion < 0 ? -1 : Movimiento.codificar(origen, fundacion, 1);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import java.util.Arrays;
+
+// =============================================================================
+// DIARIO DE MOVIMIENTOS (DESHACER / REHACER)
+// =============================================================================
+/**
+ * Historial de una partida guardado como deltas compactos en un int[], sin
+ * copias del tablero. Cada delta es un movimiento codificado con Movimiento
+ * (origen, destino, cantidad) más un bit que indica si la jugada volteó
+ * automáticamente la carta que quedó descubierta en la pila de origen. El
+ * reciclaje del descarte queda implícito en su codificación (DESCARTE → MAZO).
+ *
+ * Las entradas hasta el cursor se pueden deshacer y las posteriores rehacer;
+ * registrar una jugada nueva descarta las que estaban por rehacer.
+ */
+public final class DiarioMovimientos {
+
+    // Bit por encima de los 14 que ocupa el movimiento codificado
+    public static final int BIT_VOLTEO_AUTOMATICO = 1 << 14;
+
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    private int[] deltas = new int[CAPACIDAD_INICIAL];
+    private int cursor;                             // Entradas aplicadas (se pueden deshacer)
+    private int tope;                               // Entradas registradas (cursor..tope se pueden rehacer)
+
+    /**
+     * Codifica el delta de una jugada
+     * @param movimiento movimiento codificado con Movimiento
+     * @param volteoAutomatico si quedó volteada la nueva carta superior del origen
+     */
+    public static int delta(int movimiento, boolean volteoAutomatico) {
+        return volteoAutomatico ? movimiento | BIT_VOLTEO_AUTOMATICO : movimiento;
+    }
+
+    /**
+     * Movimiento codificado del delta, sin el bit de volteo automático
+     */
+    public static int movimiento(int delta) {
+        return delta & ~BIT_VOLTEO_AUTOMATICO;
+    }
+
+    public static boolean huboVolteoAutomatico(int delta) {
+        return (delta & BIT_VOLTEO_AUTOMATICO) != 0;
+    }
+
+    /**
+     * Registra una jugada nueva y descarta las pendientes de rehacer.
+     * Solo reserva memoria cuando el historial supera su capacidad.
+     */
+    public void registrar(int delta) {
+        if (cursor == deltas.length) {
+            deltas = Arrays.copyOf(deltas, deltas.length * 2);
+        }
+        deltas[cursor++] = delta;
+        tope = cursor;
+    }
+
+    /**
+     * Anota como pendiente de rehacer una jugada que se deshizo sin estar en
+     * el historial (la anterior a la primera registrada): se rehará antes
+     * que las que ya estaban pendientes.
+     */
+    public void anotarDeshecha(int delta) {
+        if (tope == deltas.length) {
+            deltas = Arrays.copyOf(deltas, deltas.length * 2);
+        }
+        System.arraycopy(deltas, cursor, deltas, cursor + 1, tope - cursor);
+        deltas[cursor] = delta;
+        tope++;
+    }
+
+    public boolean puedeDeshacer() {
+        return cursor > 0;
+    }
+
+    public boolean puedeRehacer() {
+        return cursor < tope;
+    }
+
+    /**
+     * Retrocede una entrada y devuelve el delta a revertir
+     */
+    public int deshacer() {
+        if (!puedeDeshacer()) {
+            throw new IllegalStateException("No hay movimientos para deshacer");
+        }
+        return deltas[--cursor];
+    }
+
+    /**
+     * Avanza una entrada y devuelve el delta a aplicar de nuevo
+     */
+    public int rehacer() {
+        if (!puedeRehacer()) {
+            throw new IllegalStateException("No hay movimientos para rehacer");
+        }
+        return deltas[cursor++];
+    }
+
+    /**
+     * Olvida todo el historial conservando el arreglo reservado
+     */
+    public void limpiar() {
+        cursor = 0;
+        tope = 0;
+    }
+
+    /**
+     * Cantidad de jugadas aplicadas (las que se pueden deshacer)
+     */
+    public int size() {
+        return cursor;
+    }
+
+    /**
+     * Delta aplicado en la posición indicada (0 = primera jugada)
+     */
+    public int get(int indice) {
+        if (indice < 0 || indice >= cursor) {
+            throw new IndexOutOfBoundsException(indice);
+        }
+        return deltas[indice];
+    }
+}
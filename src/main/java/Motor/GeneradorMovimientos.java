@@ -0,0 +1,219 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import AbstractFactory.ReglasCartas;
+import Strategy.EstrategiaJuego;
+
+// =============================================================================
+// GENERADOR DE MOVIMIENTOS LEGALES
+// =============================================================================
+/**
+ * Enumera todos los movimientos legales de una posición y los escribe como
+ * ints de Movimiento en un arreglo del llamador. No crea listas, puntos ni
+ * Strings: se puede llamar millones de veces por segundo sin generar basura.
+ *
+ * Cubre robar/reciclar el mazo, voltear el tope de una columna, descarte a
+ * fundación y a tableau, tableau a fundación, tableau a tableau (incluidas
+ * secuencias si la estrategia lo permite) y fundación a tableau.
+ */
+public final class GeneradorMovimientos {
+
+    // Cota superior de movimientos legales en cualquier posición de una baraja
+    public static final int MAX_MOVIMIENTOS = 256;
+
+    private GeneradorMovimientos() {
+    }
+
+    /**
+     * Escribe los movimientos legales de la posición en `salida`
+     * @param tablero posición a analizar (TableroCompacto o vista de un TableroSolitario)
+     * @param estrategia reglas de robo y de movimiento de secuencias
+     * @param salida arreglo de al menos MAX_MOVIMIENTOS posiciones
+     * @return cantidad de movimientos escritos
+     */
+    public static int generar(VistaTablero tablero, EstrategiaJuego estrategia, int[] salida) {
+        if (salida.length < MAX_MOVIMIENTOS) {
+            throw new IllegalArgumentException("El arreglo de salida necesita " + MAX_MOVIMIENTOS + " posiciones");
+        }
+        int n = 0;
+
+        // Mazo: robar o reciclar el descarte
+        int enMazo = tablero.tamano(TableroCompacto.MAZO);
+        int enDescarte = tablero.tamano(TableroCompacto.DESCARTE);
+        if (enMazo > 0) {
+            salida[n++] = Movimiento.codificar(TableroCompacto.MAZO, TableroCompacto.DESCARTE,
+                    Math.min(estrategia.getCartasAPasar(), enMazo));
+        } else if (enDescarte > 0) {
+            salida[n++] = Movimiento.codificar(TableroCompacto.DESCARTE, TableroCompacto.MAZO, enDescarte);
+        }
+
+        // Descarte a fundación y a tableau
+        if (enDescarte > 0) {
+            int carta = tablero.tope(TableroCompacto.DESCARTE);
+            n = agregarAFundaciones(tablero, carta, TableroCompacto.DESCARTE, salida, n);
+            n = agregarATableau(tablero, carta, TableroCompacto.DESCARTE, 1, salida, n);
+        }
+
+        // Columnas del tableau
+        boolean multiples = estrategia.permiteMoverMultiplesCartas();
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            int tamano = tablero.tamano(columna);
+            if (tamano == 0) {
+                continue;
+            }
+            int tope = tablero.carta(columna, tamano - 1);
+            if (!TableroCompacto.estaVolteada(tope)) {
+                salida[n++] = Movimiento.codificar(columna, columna, 0); // Voltear el tope
+                continue;
+            }
+
+            n = agregarAFundaciones(tablero, tope, columna, salida, n);
+
+            // La carta superior y, si se permite, cada secuencia válida que acaba en el tope
+            int carta = tope;
+            int indice = tamano - 1;
+            while (true) {
+                n = agregarATableau(tablero, carta, columna, tamano - indice, salida, n);
+                if (!multiples || indice == 0) {
+                    break;
+                }
+                int debajo = tablero.carta(columna, indice - 1);
+                if (!TableroCompacto.estaVolteada(debajo)
+                        || !ReglasCartas.puedeApilar(TableroCompacto.identidad(carta), TableroCompacto.identidad(debajo))) {
+                    break;
+                }
+                carta = debajo;
+                indice--;
+            }
+        }
+
+        // Fundación a tableau
+        for (int f = 0; f < TableroCompacto.NUM_FUNDACIONES; f++) {
+            int fundacion = TableroCompacto.FUNDACION_0 + f;
+            int tope = tablero.tope(fundacion);
+            if (tope >= 0) {
+                n = agregarATableau(tablero, tope, fundacion, 1, salida, n);
+            }
+        }
+        return n;
+    }
+
+    private static int agregarAFundaciones(VistaTablero tablero, int carta, int origen, int[] salida, int n) {
+        for (int f = 0; f < TableroCompacto.NUM_FUNDACIONES; f++) {
+            int fundacion = TableroCompacto.FUNDACION_0 + f;
+            if (puedeIrAFundacion(tablero, carta, fundacion)) {
+                salida[n++] = Movimiento.codificar(origen, fundacion, 1);
+            }
+        }
+        return n;
+    }
+
+    private static int agregarATableau(VistaTablero tablero, int carta, int origen, int cantidad,
+            int[] salida, int n) {
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int destino = TableroCompacto.TABLEAU_0 + c;
+            if (destino != origen && puedeIrATableau(tablero, carta, destino)) {
+                salida[n++] = Movimiento.codificar(origen, destino, cantidad);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Indica si un movimiento concreto es legal en la posición. Comprueba
+     * directamente las pilas implicadas con los mismos criterios que
+     * generar(), sin enumerar el resto de movimientos.
+     */
+    public static boolean esLegal(VistaTablero tablero, EstrategiaJuego estrategia, int movimiento) {
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+        int cantidad = Movimiento.cantidad(movimiento);
+        if (movimiento != Movimiento.codificar(origen, destino, cantidad)
+                || origen >= TableroCompacto.NUM_PILAS || destino >= TableroCompacto.NUM_PILAS) {
+            return false;
+        }
+        int enMazo = tablero.tamano(TableroCompacto.MAZO);
+        int enDescarte = tablero.tamano(TableroCompacto.DESCARTE);
+
+        switch (Movimiento.tipo(movimiento)) {
+            case Movimiento.TIPO_ROBO:
+                return destino == TableroCompacto.DESCARTE && enMazo > 0
+                        && cantidad == Math.min(estrategia.getCartasAPasar(), enMazo);
+            case Movimiento.TIPO_RECICLAJE:
+                return enMazo == 0 && enDescarte > 0 && cantidad == enDescarte;
+            case Movimiento.TIPO_VOLTEO: {
+                if (origen < TableroCompacto.TABLEAU_0 || cantidad != 0) {
+                    return false;
+                }
+                int tope = tablero.tope(origen);
+                return tope >= 0 && !TableroCompacto.estaVolteada(tope);
+            }
+            case Movimiento.TIPO_DESCARTE_A_FUNDACION:
+                return cantidad == 1 && enDescarte > 0
+                        && puedeIrAFundacion(tablero, tablero.tope(TableroCompacto.DESCARTE), destino);
+            case Movimiento.TIPO_DESCARTE_A_TABLEAU:
+                return cantidad == 1 && enDescarte > 0 && destino >= TableroCompacto.TABLEAU_0
+                        && puedeIrATableau(tablero, tablero.tope(TableroCompacto.DESCARTE), destino);
+            case Movimiento.TIPO_TABLEAU_A_FUNDACION: {
+                int tope = tablero.tope(origen);
+                return cantidad == 1 && tope >= 0 && TableroCompacto.estaVolteada(tope)
+                        && puedeIrAFundacion(tablero, tope, destino);
+            }
+            case Movimiento.TIPO_TABLEAU_A_TABLEAU:
+                return destino >= TableroCompacto.TABLEAU_0
+                        && esSecuenciaMovible(tablero, estrategia, origen, cantidad)
+                        && puedeIrATableau(tablero,
+                                tablero.carta(origen, tablero.tamano(origen) - cantidad), destino);
+            default: {
+                // Fundación a tableau
+                int tope = tablero.tope(origen);
+                return cantidad == 1 && tope >= 0 && destino >= TableroCompacto.TABLEAU_0
+                        && puedeIrATableau(tablero, tope, destino);
+            }
+        }
+    }
+
+    private static boolean puedeIrAFundacion(VistaTablero tablero, int carta, int fundacion) {
+        int ordinal = TableroCompacto.identidad(carta);
+        int tope = tablero.tope(fundacion);
+        return tope < 0
+                ? ReglasCartas.puedeIniciarFundacion(ordinal)
+                : ReglasCartas.esSiguienteEnFundacion(ordinal, TableroCompacto.identidad(tope));
+    }
+
+    private static boolean puedeIrATableau(VistaTablero tablero, int carta, int columna) {
+        int ordinal = TableroCompacto.identidad(carta);
+        int tope = tablero.tope(columna);
+        return tope < 0
+                ? ReglasCartas.puedeOcuparColumnaVacia(ordinal)
+                : TableroCompacto.estaVolteada(tope)
+                        && ReglasCartas.puedeApilar(ordinal, TableroCompacto.identidad(tope));
+    }
+
+    // Las `cantidad` cartas superiores están boca arriba y forman una secuencia válida
+    private static boolean esSecuenciaMovible(VistaTablero tablero, EstrategiaJuego estrategia,
+            int columna, int cantidad) {
+        int tamano = tablero.tamano(columna);
+        if (cantidad < 1 || cantidad > tamano
+                || (cantidad > 1 && !estrategia.permiteMoverMultiplesCartas())) {
+            return false;
+        }
+        int carta = tablero.carta(columna, tamano - 1);
+        if (!TableroCompacto.estaVolteada(carta)) {
+            return false;
+        }
+        for (int i = tamano - 2; i >= tamano - cantidad; i--) {
+            int debajo = tablero.carta(columna, i);
+            if (!TableroCompacto.estaVolteada(debajo)
+                    || !ReglasCartas.puedeApilar(TableroCompacto.identidad(carta), TableroCompacto.identidad(debajo))) {
+                return false;
+            }
+            carta = debajo;
+        }
+        return true;
+    }
+}
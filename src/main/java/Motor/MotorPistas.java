@@ -0,0 +1,140 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import Strategy.EstrategiaJuego;
+import java.util.ArrayList;
+import java.util.List;
+
+// =============================================================================
+// MOTOR DE PISTAS
+// =============================================================================
+/**
+ * Sugiere jugadas ordenadas por interés. Enumera los movimientos legales con
+ * el GeneradorMovimientos (todos los tipos, no solo subidas a fundación), les
+ * asigna una prioridad heurística en O(1) cada uno y los ordena. Los
+ * movimientos que no aportan nada (p. ej. mover un Rey del fondo a otra
+ * columna vacía) se descartan.
+ *
+ * Criterio, de mayor a menor: subidas seguras a fundación, resto de subidas,
+ * voltear una carta, destapar cartas boca abajo, descarte al tableau, vaciar
+ * una columna, movimientos que liberan una carta útil, mazo, otros
+ * movimientos del tableau y bajar cartas de las fundaciones.
+ *
+ * No es seguro entre hilos: cada hilo o sesión debe usar su propio motor.
+ */
+public final class MotorPistas {
+
+    // Prioridades base por categoría
+    public static final int PRIORIDAD_FUNDACION_SEGURA = 1000;
+    public static final int PRIORIDAD_FUNDACION = 900;
+    public static final int PRIORIDAD_VOLTEO = 800;
+    public static final int PRIORIDAD_DESTAPA = 700;
+    public static final int PRIORIDAD_DESCARTE_A_TABLEAU = 500;
+    public static final int PRIORIDAD_VACIA_COLUMNA = 400;
+    public static final int PRIORIDAD_LIBERA_CARTA = 300;
+    public static final int PRIORIDAD_MAZO = 200;
+    public static final int PRIORIDAD_TABLEAU = 100;
+    public static final int PRIORIDAD_DESDE_FUNDACION = 50;
+    public static final int PRIORIDAD_INUTIL = -1;
+
+    private final int[] movimientos = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+    private final int[] prioridades = new int[GeneradorMovimientos.MAX_MOVIMIENTOS];
+
+    /**
+     * Pistas de la posición ordenadas de mejor a peor
+     */
+    public List<Pista> obtenerPistas(VistaTablero tablero, EstrategiaJuego estrategia) {
+        int n = puntuarYOrdenar(tablero, estrategia);
+        List<Pista> pistas = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            pistas.add(new Pista(movimientos[i], prioridades[i]));
+        }
+        return pistas;
+    }
+
+    /**
+     * Mejor movimiento de la posición sin crear objetos
+     * @return movimiento codificado o -1 si no hay ninguno útil
+     */
+    public int mejorMovimiento(VistaTablero tablero, EstrategiaJuego estrategia) {
+        int n = GeneradorMovimientos.generar(tablero, estrategia, movimientos);
+        int mejor = -1;
+        int mejorPrioridad = PRIORIDAD_INUTIL;
+        for (int i = 0; i < n; i++) {
+            int prioridad = prioridad(tablero, movimientos[i]);
+            if (prioridad > mejorPrioridad) {
+                mejorPrioridad = prioridad;
+                mejor = movimientos[i];
+            }
+        }
+        return mejor;
+    }
+
+    // Genera, puntúa, descarta los inútiles y ordena por inserción (son pocos movimientos)
+    private int puntuarYOrdenar(VistaTablero tablero, EstrategiaJuego estrategia) {
+        int generados = GeneradorMovimientos.generar(tablero, estrategia, movimientos);
+        int n = 0;
+        for (int i = 0; i < generados; i++) {
+            int movimiento = movimientos[i];
+            int prioridad = prioridad(tablero, movimiento);
+            if (prioridad <= PRIORIDAD_INUTIL) {
+                continue;
+            }
+            // Orden estable: a igual prioridad se conserva el orden del generador
+            int j = n;
+            while (j > 0 && prioridades[j - 1] < prioridad) {
+                movimientos[j] = movimientos[j - 1];
+                prioridades[j] = prioridades[j - 1];
+                j--;
+            }
+            movimientos[j] = movimiento;
+            prioridades[j] = prioridad;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Prioridad heurística de un movimiento legal de la posición
+     */
+    public static int prioridad(VistaTablero tablero, int movimiento) {
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+        switch (Movimiento.tipo(movimiento)) {
+            case Movimiento.TIPO_DESCARTE_A_FUNDACION:
+            case Movimiento.TIPO_TABLEAU_A_FUNDACION: {
+                int carta = tablero.tope(origen);
+                int base = ReglasTablero.esSeguraEnFundacion(tablero, carta)
+                        ? PRIORIDAD_FUNDACION_SEGURA : PRIORIDAD_FUNDACION;
+                // Entre subidas, mejor las que destapan una carta
+                return origen >= TableroCompacto.TABLEAU_0
+                        && ReglasTablero.destapa(tablero, origen, tablero.tamano(origen) - 1) ? base + 10 : base;
+            }
+            case Movimiento.TIPO_VOLTEO:
+                return PRIORIDAD_VOLTEO;
+            case Movimiento.TIPO_DESCARTE_A_TABLEAU:
+                return PRIORIDAD_DESCARTE_A_TABLEAU;
+            case Movimiento.TIPO_TABLEAU_A_TABLEAU: {
+                int indice = tablero.tamano(origen) - Movimiento.cantidad(movimiento);
+                if (indice == 0) {
+                    // Mover toda la columna a otra vacía no cambia nada
+                    return tablero.tamano(destino) == 0 ? PRIORIDAD_INUTIL : PRIORIDAD_VACIA_COLUMNA;
+                }
+                if (!TableroCompacto.estaVolteada(tablero.carta(origen, indice - 1))) {
+                    // Cuantas más cartas ocultas quedan en la columna, más interesa destaparla
+                    return PRIORIDAD_DESTAPA + indice;
+                }
+                return ReglasTablero.liberaCartaUtil(tablero, tablero.carta(origen, indice - 1))
+                        ? PRIORIDAD_LIBERA_CARTA : PRIORIDAD_TABLEAU;
+            }
+            case Movimiento.TIPO_ROBO:
+            case Movimiento.TIPO_RECICLAJE:
+                return PRIORIDAD_MAZO;
+            default:
+                return PRIORIDAD_DESDE_FUNDACION;
+        }
+    }
+}
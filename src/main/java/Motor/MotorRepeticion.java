@@ -0,0 +1,86 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import AbstractFactory.CartaFrancesaFactory;
+import Builder.DirectorTablero;
+import Builder.TableroSolitarioConcreto;
+import Strategy.EstrategiaJuego;
+
+// =============================================================================
+// MOTOR DE REPETICIÓN
+// =============================================================================
+/**
+ * Vuelve a ejecutar una Repeticion sobre un TableroCompacto con las mismas
+ * reglas que SolitarioController. Puede validar cada movimiento con el
+ * GeneradorMovimientos (auditoría) o aplicarlos sin comprobar (repeticiones
+ * de confianza). Reutiliza el tablero entre partidas, así que tras el reparto
+ * no crea objetos.
+ *
+ * No es seguro entre hilos: cada hilo debe usar su propio motor.
+ */
+public final class MotorRepeticion {
+
+    private final EstrategiaJuego estrategia;
+    private final DirectorTablero director;
+    private final TableroCompacto tablero = new TableroCompacto();
+    private int movimientosAplicados;
+
+    /**
+     * @param estrategia reglas con las que se validan los movimientos
+     */
+    public MotorRepeticion(EstrategiaJuego estrategia) {
+        this.estrategia = estrategia;
+        // Todas las factories generan los mismos ordinales, así que el reparto no depende de ella
+        this.director = new DirectorTablero(new TableroSolitarioConcreto(new CartaFrancesaFactory()));
+    }
+
+    /**
+     * Reparte la partida grabada y ejecuta sus movimientos en orden
+     * @param repeticion partida a reproducir
+     * @param validar si es true se comprueba la legalidad de cada movimiento
+     * @return true si se aplicaron todos los movimientos; false si alguno era
+     * ilegal (la reproducción se detiene antes de él)
+     * @throws IllegalArgumentException si la repetición usa otras reglas
+     */
+    public boolean reproducir(Repeticion repeticion, boolean validar) {
+        if (!repeticion.esCompatible(estrategia)) {
+            throw new IllegalArgumentException("La repetición se grabó con otras reglas de juego");
+        }
+        tablero.copiarDesde(TableroCompacto.desde(director.construirTableroEstandar(repeticion.getNumeroPartida())));
+        movimientosAplicados = 0;
+
+        int total = repeticion.size();
+        for (int i = 0; i < total; i++) {
+            int movimiento = repeticion.getMovimiento(i);
+            if (validar && !GeneradorMovimientos.esLegal(tablero, estrategia, movimiento)) {
+                return false;
+            }
+            tablero.aplicar(movimiento);
+            movimientosAplicados++;
+        }
+        return true;
+    }
+
+    /**
+     * Movimientos ejecutados en la última reproducción. Si hubo un
+     * movimiento ilegal, es también su índice.
+     */
+    public int getMovimientosAplicados() {
+        return movimientosAplicados;
+    }
+
+    /**
+     * Posición alcanzada al terminar la última reproducción. El tablero se
+     * reutiliza: hay que copiarlo si se quiere conservar.
+     */
+    public TableroCompacto getTablero() {
+        return tablero;
+    }
+
+    public boolean esVictoria() {
+        return tablero.esVictoria();
+    }
+}
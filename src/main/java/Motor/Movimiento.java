@@ -0,0 +1,125 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+// =============================================================================
+// CODIFICACIÓN DE MOVIMIENTOS
+// =============================================================================
+/**
+ * Utilidades para representar un movimiento como un int empaquetado, sin
+ * crear objetos. Las pilas usan los identificadores de TableroCompacto.
+ *
+ * Formato: bits 0-3 pila origen, bits 4-7 pila destino, bits 8-13 cantidad.
+ * Robar del mazo es MAZO → DESCARTE, reciclar el descarte es DESCARTE → MAZO
+ * y voltear la carta superior de una columna es columna → misma columna.
+ */
+public final class Movimiento {
+
+    // Tipos de movimiento, deducidos de las pilas origen y destino
+    public static final int TIPO_ROBO = 0;
+    public static final int TIPO_RECICLAJE = 1;
+    public static final int TIPO_VOLTEO = 2;
+    public static final int TIPO_DESCARTE_A_FUNDACION = 3;
+    public static final int TIPO_DESCARTE_A_TABLEAU = 4;
+    public static final int TIPO_TABLEAU_A_FUNDACION = 5;
+    public static final int TIPO_TABLEAU_A_TABLEAU = 6;
+    public static final int TIPO_FUNDACION_A_TABLEAU = 7;
+    public static final int NUM_TIPOS = 8;
+
+    private static final int MASCARA_PILA = 0xF;
+    private static final int MASCARA_CANTIDAD = 0x3F;
+
+    private Movimiento() {
+    }
+
+    public static int codificar(int origen, int destino, int cantidad) {
+        return origen | (destino << 4) | (cantidad << 8);
+    }
+
+    public static int origen(int movimiento) {
+        return movimiento & MASCARA_PILA;
+    }
+
+    public static int destino(int movimiento) {
+        return (movimiento >>> 4) & MASCARA_PILA;
+    }
+
+    public static int cantidad(int movimiento) {
+        return (movimiento >>> 8) & MASCARA_CANTIDAD;
+    }
+
+    public static boolean esRobo(int movimiento) {
+        return origen(movimiento) == TableroCompacto.MAZO;
+    }
+
+    public static boolean esReciclaje(int movimiento) {
+        return origen(movimiento) == TableroCompacto.DESCARTE
+                && destino(movimiento) == TableroCompacto.MAZO;
+    }
+
+    /**
+     * Voltear la carta superior de una columna se codifica como un movimiento
+     * de la columna sobre sí misma sin cartas
+     */
+    public static boolean esVolteo(int movimiento) {
+        return origen(movimiento) == destino(movimiento);
+    }
+
+    /**
+     * Clasifica el movimiento en una de las constantes TIPO_*
+     */
+    public static int tipo(int movimiento) {
+        int origen = origen(movimiento);
+        int destino = destino(movimiento);
+        if (origen == TableroCompacto.MAZO) {
+            return TIPO_ROBO;
+        }
+        if (origen == destino) {
+            return TIPO_VOLTEO;
+        }
+        boolean aFundacion = destino >= TableroCompacto.FUNDACION_0 && destino < TableroCompacto.TABLEAU_0;
+        if (origen == TableroCompacto.DESCARTE) {
+            if (destino == TableroCompacto.MAZO) {
+                return TIPO_RECICLAJE;
+            }
+            return aFundacion ? TIPO_DESCARTE_A_FUNDACION : TIPO_DESCARTE_A_TABLEAU;
+        }
+        if (origen < TableroCompacto.TABLEAU_0) {
+            return TIPO_FUNDACION_A_TABLEAU;
+        }
+        return aFundacion ? TIPO_TABLEAU_A_FUNDACION : TIPO_TABLEAU_A_TABLEAU;
+    }
+
+    /**
+     * Texto legible del movimiento. Solo se usa para presentación, así que
+     * puede crear Strings.
+     */
+    public static String describir(int movimiento) {
+        if (esRobo(movimiento)) {
+            return "Mazo → Descarte (" + cantidad(movimiento) + ")";
+        }
+        if (esReciclaje(movimiento)) {
+            return "Reciclar descarte";
+        }
+        if (esVolteo(movimiento)) {
+            return "Voltear " + nombrePila(origen(movimiento));
+        }
+        return nombrePila(origen(movimiento)) + " → " + nombrePila(destino(movimiento))
+                + (cantidad(movimiento) > 1 ? " (" + cantidad(movimiento) + " cartas)" : "");
+    }
+
+    public static String nombrePila(int pila) {
+        if (pila == TableroCompacto.MAZO) {
+            return "Mazo";
+        }
+        if (pila == TableroCompacto.DESCARTE) {
+            return "Descarte";
+        }
+        if (pila < TableroCompacto.TABLEAU_0) {
+            return "Fundación " + (pila - TableroCompacto.FUNDACION_0 + 1);
+        }
+        return "Columna " + (pila - TableroCompacto.TABLEAU_0 + 1);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+// =============================================================================
+// PISTA
+// =============================================================================
+/**
+ * Movimiento sugerido por el MotorPistas con su prioridad (mayor es mejor).
+ * Es inmutable; el texto legible solo se construye si se pide.
+ */
+public final class Pista {
+
+    private final int movimiento;
+    private final int prioridad;
+
+    public Pista(int movimiento, int prioridad) {
+        this.movimiento = movimiento;
+        this.prioridad = prioridad;
+    }
+
+    /**
+     * Movimiento codificado con Movimiento, listo para aplicarMovimiento()
+     */
+    public int getMovimiento() {
+        return movimiento;
+    }
+
+    public int getPrioridad() {
+        return prioridad;
+    }
+
+    /**
+     * Una de las constantes Movimiento.TIPO_*
+     */
+    public int getTipo() {
+        return Movimiento.tipo(movimiento);
+    }
+
+    public int getOrigen() {
+        return Movimiento.origen(movimiento);
+    }
+
+    public int getDestino() {
+        return Movimiento.destino(movimiento);
+    }
+
+    public int getCantidad() {
+        return Movimiento.cantidad(movimiento);
+    }
+
+    /**
+     * Texto legible del movimiento (se construye en cada llamada)
+     */
+    public String describir() {
+        return Movimiento.describir(movimiento);
+    }
+
+    @Override
+    public String toString() {
+        return describir() + " [" + prioridad + "]";
+    }
+}
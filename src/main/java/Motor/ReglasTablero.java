@@ -0,0 +1,90 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import AbstractFactory.ReglasCartas;
+
+// =============================================================================
+// REGLAS SOBRE UNA VISTA DEL TABLERO
+// =============================================================================
+/**
+ * Reglas de ReglasCartas aplicadas a los códigos de TableroCompacto (con el
+ * bit de volteo) y a una VistaTablero: dónde puede subir una carta, si
+ * subirla es seguro y qué consigue un movimiento del tableau. Las comparten
+ * el MotorPistas, el AutoCompletado y el solver.
+ */
+public final class ReglasTablero {
+
+    private ReglasTablero() {
+    }
+
+    /**
+     * Color alterno y valor inmediatamente inferior sobre una carta boca arriba
+     */
+    public static boolean puedeApilar(int carta, int destino) {
+        return TableroCompacto.estaVolteada(destino)
+                && ReglasCartas.puedeApilar(TableroCompacto.identidad(carta), TableroCompacto.identidad(destino));
+    }
+
+    /**
+     * Fundación donde puede subir la carta; los Ases van a la primera vacía
+     * @return identificador de pila de la fundación o -1
+     */
+    public static int fundacionPara(VistaTablero tablero, int carta) {
+        int ordinal = TableroCompacto.identidad(carta);
+        for (int i = 0; i < TableroCompacto.NUM_FUNDACIONES; i++) {
+            int fundacion = TableroCompacto.FUNDACION_0 + i;
+            int tope = tablero.tope(fundacion);
+            if (tope < 0) {
+                if (ReglasCartas.puedeIniciarFundacion(ordinal)) {
+                    return fundacion;
+                }
+            } else if (ReglasCartas.esSiguienteEnFundacion(ordinal, TableroCompacto.identidad(tope))) {
+                return fundacion;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Una carta puede subir sin riesgo si es As o 2, o si las dos cartas de
+     * color contrario del valor inferior ya están en las fundaciones: ninguna
+     * carta del tableau necesitará apilarse sobre ella.
+     */
+    public static boolean esSeguraEnFundacion(VistaTablero tablero, int carta) {
+        int valor = TableroCompacto.valor(carta);
+        if (valor <= 1) {
+            return true;
+        }
+        boolean roja = TableroCompacto.esRoja(carta);
+        int contrarias = 0;
+        for (int i = 0; i < TableroCompacto.NUM_FUNDACIONES; i++) {
+            int tope = tablero.tope(TableroCompacto.FUNDACION_0 + i);
+            if (tope >= 0 && TableroCompacto.esRoja(tope) != roja && TableroCompacto.valor(tope) >= valor - 1) {
+                contrarias++;
+            }
+        }
+        return contrarias == 2;
+    }
+
+    /**
+     * Mover desde `indice` deja al descubierto una carta boca abajo o vacía la columna
+     */
+    public static boolean destapa(VistaTablero tablero, int columna, int indice) {
+        return indice == 0 || !TableroCompacto.estaVolteada(tablero.carta(columna, indice - 1));
+    }
+
+    /**
+     * La carta que queda al descubierto puede subir a fundación o recibir el
+     * tope del descarte
+     */
+    public static boolean liberaCartaUtil(VistaTablero tablero, int carta) {
+        if (fundacionPara(tablero, carta) >= 0) {
+            return true;
+        }
+        int topeDescarte = tablero.tope(TableroCompacto.DESCARTE);
+        return topeDescarte >= 0 && puedeApilar(topeDescarte, carta);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import Strategy.EstrategiaJuego;
+import java.util.Arrays;
+
+// =============================================================================
+// REPETICIÓN DE PARTIDA (FORMATO BINARIO)
+// =============================================================================
+/**
+ * Partida grabada: número de partida del reparto, reglas con las que se jugó
+ * y la secuencia de movimientos codificados con Movimiento.
+ *
+ * Formato binario (big-endian):
+ * <pre>
+ *   4 bytes  magia "SOLR"
+ *   1 byte   versión
+ *   1 byte   banderas (bit 0: se permiten secuencias de varias cartas)
+ *   1 byte   cartas a pasar del mazo
+ *   8 bytes  número de partida
+ *   varint   cantidad de movimientos
+ *   varint   cada movimiento (1 o 2 bytes)
+ * </pre>
+ * Los varint son LEB128 sin signo: 7 bits por byte, el bit alto indica que
+ * sigue otro byte. Una partida típica ocupa menos de 2 bytes por movimiento.
+ */
+public final class Repeticion {
+
+    public static final int MAGIA = 0x534F4C52;     // "SOLR"
+    public static final int VERSION = 1;
+    public static final int TAMANO_CABECERA = 15;
+
+    private static final int BANDERA_MULTIPLES = 0x01;
+
+    private final long numeroPartida;
+    private final int cartasAPasar;
+    private final boolean movimientosMultiples;
+    private final int[] movimientos;
+
+    public Repeticion(long numeroPartida, int cartasAPasar, boolean movimientosMultiples, int[] movimientos) {
+        this.numeroPartida = numeroPartida;
+        this.cartasAPasar = cartasAPasar;
+        this.movimientosMultiples = movimientosMultiples;
+        this.movimientos = movimientos.clone();
+    }
+
+    /**
+     * Graba una partida jugada con las reglas de una estrategia
+     */
+    public Repeticion(long numeroPartida, EstrategiaJuego estrategia, int[] movimientos) {
+        this(numeroPartida, estrategia.getCartasAPasar(), estrategia.permiteMoverMultiplesCartas(), movimientos);
+    }
+
+    // =========================================================================
+    // SERIALIZACIÓN
+    // =========================================================================
+
+    /**
+     * Codifica la repetición en su formato binario
+     */
+    public byte[] aBytes() {
+        byte[] salida = new byte[TAMANO_CABECERA + 5 + movimientos.length * 3];
+        int pos = escribirEntero(salida, 0, MAGIA);
+        salida[pos++] = (byte) VERSION;
+        salida[pos++] = (byte) (movimientosMultiples ? BANDERA_MULTIPLES : 0);
+        salida[pos++] = (byte) cartasAPasar;
+        pos = escribirEntero(salida, pos, (int) (numeroPartida >>> 32));
+        pos = escribirEntero(salida, pos, (int) numeroPartida);
+        pos = escribirVarint(salida, pos, movimientos.length);
+        for (int movimiento : movimientos) {
+            pos = escribirVarint(salida, pos, movimiento);
+        }
+        return Arrays.copyOf(salida, pos);
+    }
+
+    /**
+     * Decodifica una repetición desde su formato binario
+     * @throws IllegalArgumentException si los datos no son una repetición válida
+     */
+    public static Repeticion desdeBytes(byte[] datos) {
+        if (datos.length < TAMANO_CABECERA + 1 || leerEntero(datos, 0) != MAGIA) {
+            throw new IllegalArgumentException("Los datos no son una repetición de Solitario");
+        }
+        if (datos[4] != VERSION) {
+            throw new IllegalArgumentException("Versión de repetición no soportada: " + datos[4]);
+        }
+        boolean multiples = (datos[5] & BANDERA_MULTIPLES) != 0;
+        int cartasAPasar = datos[6];
+        long numeroPartida = ((long) leerEntero(datos, 7) << 32) | (leerEntero(datos, 11) & 0xFFFFFFFFL);
+
+        int[] cursor = {TAMANO_CABECERA};
+        int cantidad = leerVarint(datos, cursor);
+        if (cantidad < 0 || cantidad > datos.length - cursor[0]) { // Cada movimiento ocupa al menos un byte
+            throw new IllegalArgumentException("Cantidad de movimientos inconsistente: " + cantidad);
+        }
+        int[] movimientos = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            movimientos[i] = leerVarint(datos, cursor);
+        }
+        return new Repeticion(numeroPartida, cartasAPasar, multiples, movimientos);
+    }
+
+    private static int escribirEntero(byte[] salida, int pos, int valor) {
+        salida[pos] = (byte) (valor >>> 24);
+        salida[pos + 1] = (byte) (valor >>> 16);
+        salida[pos + 2] = (byte) (valor >>> 8);
+        salida[pos + 3] = (byte) valor;
+        return pos + 4;
+    }
+
+    private static int leerEntero(byte[] datos, int pos) {
+        return (datos[pos] & 0xFF) << 24 | (datos[pos + 1] & 0xFF) << 16
+                | (datos[pos + 2] & 0xFF) << 8 | (datos[pos + 3] & 0xFF);
+    }
+
+    private static int escribirVarint(byte[] salida, int pos, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            salida[pos++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida[pos++] = (byte) valor;
+        return pos;
+    }
+
+    // cursor[0] es la posición de lectura y avanza tras el varint
+    private static int leerVarint(byte[] datos, int[] cursor) {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 7) {
+            if (cursor[0] >= datos.length) {
+                throw new IllegalArgumentException("Repetición truncada");
+            }
+            int b = datos[cursor[0]++];
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+
+    // =========================================================================
+    // CONSULTAS
+    // =========================================================================
+
+    /**
+     * Indica si la estrategia aplica las mismas reglas que la partida grabada
+     */
+    public boolean esCompatible(EstrategiaJuego estrategia) {
+        return estrategia.getCartasAPasar() == cartasAPasar
+                && estrategia.permiteMoverMultiplesCartas() == movimientosMultiples;
+    }
+
+    public long getNumeroPartida() {
+        return numeroPartida;
+    }
+
+    public int getCartasAPasar() {
+        return cartasAPasar;
+    }
+
+    public boolean permiteMovimientosMultiples() {
+        return movimientosMultiples;
+    }
+
+    public int size() {
+        return movimientos.length;
+    }
+
+    public int getMovimiento(int indice) {
+        return movimientos[indice];
+    }
+
+    public int[] getMovimientos() {
+        return movimientos.clone();
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import AbstractFactory.Carta;
+import AbstractFactory.CartaAbstractFactory;
+import Builder.TableroSolitario;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// =============================================================================
+// TABLERO COMPACTO
+// =============================================================================
+/**
+ * Representación compacta del estado de un TableroSolitario. Todo el tablero
+ * vive en un único arreglo de 65 bytes: primero la longitud de las 13 pilas y
+ * luego las 52 cartas en el orden de las pilas, una carta por byte (6 bits de
+ * identidad + 1 bit de volteada). Copiar un tablero es una sola copia de
+ * arreglo.
+ */
+public final class TableroCompacto implements VistaTablero {
+
+    // Identificadores de pila (mismo orden en que se guardan las cartas)
+    public static final int MAZO = TableroSolitario.PILA_MAZO;
+    public static final int DESCARTE = TableroSolitario.PILA_DESCARTE;
+    public static final int FUNDACION_0 = TableroSolitario.PILA_FUNDACION_0;   // Fundaciones: 2..5
+    public static final int TABLEAU_0 = TableroSolitario.PILA_TABLEAU_0;       // Columnas del tableau: 6..12
+    public static final int NUM_FUNDACIONES = 4;
+    public static final int NUM_COLUMNAS = 7;
+    public static final int NUM_PILAS = 13;
+
+    // Formato de cada carta: palo * 13 + valor en los 6 bits bajos
+    public static final int NUM_VALORES = 13;
+    public static final int NUM_PALOS = 4;
+    public static final int NUM_CARTAS = 52;
+    public static final int MASCARA_CARTA = 0x3F;
+    public static final int BIT_VOLTEADA = 0x40;
+
+    // Tamaño total del arreglo: longitudes de pila + cartas
+    public static final int TAMANO_DATOS = NUM_PILAS + NUM_CARTAS;
+
+    private final byte[] datos;
+
+    /**
+     * Crea un tablero vacío (todas las pilas sin cartas). Se usa como destino
+     * de copiarDesde() o para construir estados a mano.
+     */
+    public TableroCompacto() {
+        this.datos = new byte[TAMANO_DATOS];
+    }
+
+    private TableroCompacto(byte[] datos) {
+        this.datos = datos;
+    }
+
+    /**
+     * Crea un tablero compacto a partir de su arreglo de datos serializado
+     * @param datos arreglo de TAMANO_DATOS bytes (se copia)
+     * @return tablero equivalente
+     */
+    public static TableroCompacto desdeDatos(byte[] datos) {
+        if (datos.length != TAMANO_DATOS) {
+            throw new IllegalArgumentException("Se esperaban " + TAMANO_DATOS + " bytes");
+        }
+        TableroCompacto tablero = new TableroCompacto(datos.clone());
+        if (!tablero.esValido()) {
+            throw new IllegalArgumentException("Los datos no describen un tablero válido");
+        }
+        return tablero;
+    }
+
+    // =========================================================================
+    // CONVERSIÓN DESDE/HACIA TableroSolitario
+    // =========================================================================
+
+    /**
+     * Codifica un TableroSolitario sin pérdida de información
+     * @param tablero tablero de objetos construido por el Builder
+     * @return tablero compacto equivalente
+     */
+    public static TableroCompacto desde(TableroSolitario tablero) {
+        if (tablero.getFundaciones().size() != NUM_FUNDACIONES
+                || tablero.getTableau().size() != NUM_COLUMNAS) {
+            throw new IllegalArgumentException("Solo se soportan tableros de 4 fundaciones y 7 columnas");
+        }
+
+        TableroCompacto compacto = new TableroCompacto();
+        int pos = NUM_PILAS;
+        pos = compacto.codificarPila(tablero, MAZO, tablero.getMazo(), pos);
+        pos = compacto.codificarPila(tablero, DESCARTE, tablero.getDescarte(), pos);
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            pos = compacto.codificarPila(tablero, FUNDACION_0 + i, tablero.getFundaciones().get(i), pos);
+        }
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            pos = compacto.codificarPila(tablero, TABLEAU_0 + i, tablero.getTableau().get(i), pos);
+        }
+
+        if (pos != TAMANO_DATOS || !compacto.esValido()) {
+            throw new IllegalArgumentException("El tablero no contiene exactamente una baraja de 52 cartas");
+        }
+        return compacto;
+    }
+
+    private int codificarPila(TableroSolitario tablero, int pila, List<Carta> cartas, int pos) {
+        if (pos + cartas.size() > TAMANO_DATOS) {
+            throw new IllegalArgumentException("El tablero contiene más de " + NUM_CARTAS + " cartas");
+        }
+        datos[pila] = (byte) cartas.size();
+        for (Carta carta : cartas) {
+            datos[pos++] = (byte) codificar(carta, tablero.estaVolteada(carta));
+        }
+        return pos;
+    }
+
+    /**
+     * Decodifica el estado a un TableroSolitario nuevo
+     * @param factory factory que aporta las cartas compartidas
+     * @return tablero de objetos equivalente
+     */
+    public TableroSolitario aTablero(CartaAbstractFactory factory) {
+        List<Carta> mazo = decodificarPila(MAZO, factory);
+        List<Carta> descarte = decodificarPila(DESCARTE, factory);
+        List<List<Carta>> fundaciones = new ArrayList<>();
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            fundaciones.add(decodificarPila(FUNDACION_0 + i, factory));
+        }
+        List<List<Carta>> tableau = new ArrayList<>();
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            tableau.add(decodificarPila(TABLEAU_0 + i, factory));
+        }
+        return new TableroSolitario(mazo, descarte, fundaciones, tableau, factory, mascaraVolteadas());
+    }
+
+    private List<Carta> decodificarPila(int pila, CartaAbstractFactory factory) {
+        int tamano = tamano(pila);
+        int inicio = inicio(pila);
+        List<Carta> cartas = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            cartas.add(factory.getCarta(identidad(datos[inicio + i])));
+        }
+        return cartas;
+    }
+
+    /**
+     * Máscara de bits por ordinal de las cartas boca arriba, en el formato
+     * de TableroSolitario.getVolteadas()
+     */
+    public long mascaraVolteadas() {
+        long mascara = 0;
+        for (int i = NUM_PILAS; i < TAMANO_DATOS; i++) {
+            if ((datos[i] & BIT_VOLTEADA) != 0) {
+                mascara |= 1L << identidad(datos[i]);
+            }
+        }
+        return mascara;
+    }
+
+    // =========================================================================
+    // CODIFICACIÓN DE UNA CARTA
+    // =========================================================================
+
+    public static int codificar(Carta carta, boolean volteada) {
+        int codigo = carta.getOrdinal();
+        return volteada ? codigo | BIT_VOLTEADA : codigo;
+    }
+
+    public static int identidad(int codigo) {
+        return codigo & MASCARA_CARTA;
+    }
+
+    public static int valor(int codigo) {
+        return (codigo & MASCARA_CARTA) % NUM_VALORES;
+    }
+
+    public static int palo(int codigo) {
+        return (codigo & MASCARA_CARTA) / NUM_VALORES;
+    }
+
+    public static boolean estaVolteada(int codigo) {
+        return (codigo & BIT_VOLTEADA) != 0;
+    }
+
+    // Mismo criterio de color que las factories: corazones (1) y diamantes (2) son rojos
+    public static boolean esRoja(int codigo) {
+        int palo = palo(codigo);
+        return palo == 1 || palo == 2;
+    }
+
+    // =========================================================================
+    // CONSULTAS
+    // =========================================================================
+
+    @Override
+    public int tamano(int pila) {
+        return datos[pila];
+    }
+
+    public boolean estaVacia(int pila) {
+        return datos[pila] == 0;
+    }
+
+    /**
+     * Posición absoluta dentro de datos donde empieza la pila
+     */
+    private int inicio(int pila) {
+        int pos = NUM_PILAS;
+        for (int i = 0; i < pila; i++) {
+            pos += datos[i];
+        }
+        return pos;
+    }
+
+    /**
+     * Obtiene el código de la carta en una posición de la pila
+     * @param pila identificador de pila
+     * @param indice posición desde el fondo de la pila (0 = fondo)
+     * @return código de la carta (identidad + bit de volteada)
+     */
+    @Override
+    public int carta(int pila, int indice) {
+        if (indice < 0 || indice >= datos[pila]) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de la pila " + pila);
+        }
+        return datos[inicio(pila) + indice];
+    }
+
+    /**
+     * Obtiene la carta superior de la pila
+     * @return código de la carta o -1 si la pila está vacía
+     */
+    @Override
+    public int tope(int pila) {
+        int tamano = datos[pila];
+        return tamano == 0 ? -1 : datos[inicio(pila) + tamano - 1];
+    }
+
+    public int cartasEnFundaciones() {
+        int total = 0;
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            total += datos[FUNDACION_0 + i];
+        }
+        return total;
+    }
+
+    public boolean esVictoria() {
+        return cartasEnFundaciones() == NUM_CARTAS;
+    }
+
+    /**
+     * Verifica que las longitudes sumen 52 y que cada carta aparezca una vez
+     */
+    public boolean esValido() {
+        int total = 0;
+        for (int i = 0; i < NUM_PILAS; i++) {
+            if (datos[i] < 0) {
+                return false;
+            }
+            total += datos[i];
+        }
+        if (total != NUM_CARTAS) {
+            return false;
+        }
+
+        long vistas = 0;
+        for (int i = NUM_PILAS; i < TAMANO_DATOS; i++) {
+            int codigo = datos[i];
+            if ((codigo & ~(MASCARA_CARTA | BIT_VOLTEADA)) != 0 || identidad(codigo) >= NUM_CARTAS) {
+                return false;
+            }
+            vistas |= 1L << identidad(codigo);
+        }
+        return vistas == (1L << NUM_CARTAS) - 1;
+    }
+
+    /**
+     * Calcula desde cero el hash Zobrist recorriendo los datos en orden
+     * @return mismo valor que ZobristHash.calcular(this)
+     */
+    public long hashZobrist() {
+        long hash = 0;
+        int pos = NUM_PILAS;
+        for (int pila = 0; pila < NUM_PILAS; pila++) {
+            int tamano = datos[pila];
+            for (int i = 0; i < tamano; i++) {
+                hash ^= ZobristHash.clave(datos[pos++], pila, i);
+            }
+        }
+        return hash;
+    }
+
+    // =========================================================================
+    // MUTACIONES PRIMITIVAS
+    // =========================================================================
+
+    /**
+     * Ejecuta un movimiento codificado con Movimiento. Los robos del mazo y el
+     * reciclaje del descarte siguen las reglas del controlador; al sacar
+     * cartas de una columna se voltea automáticamente la nueva carta superior.
+     * No valida reglas de juego.
+     * @param movimiento movimiento codificado
+     * @return true si se volteó automáticamente una carta de la columna origen
+     */
+    public boolean aplicar(int movimiento) {
+        int origen = Movimiento.origen(movimiento);
+        int destino = Movimiento.destino(movimiento);
+        if (origen == MAZO && destino == DESCARTE) {
+            pasarDelMazo(Movimiento.cantidad(movimiento));
+            return false;
+        }
+        if (origen == DESCARTE && destino == MAZO) {
+            reciclarDescarte();
+            return false;
+        }
+        mover(origen, destino, Movimiento.cantidad(movimiento));
+        return origen >= TABLEAU_0 && voltearTope(origen);
+    }
+
+    /**
+     * Mueve las `cantidad` cartas superiores de una pila a otra conservando
+     * su orden y su estado de volteo. No valida reglas de juego.
+     */
+    public void mover(int origen, int destino, int cantidad) {
+        if (cantidad <= 0 || origen == destino) {
+            return;
+        }
+        if (cantidad > datos[origen]) {
+            throw new IllegalArgumentException("La pila " + origen + " no tiene " + cantidad + " cartas");
+        }
+
+        int finOrigen = inicio(origen) + datos[origen];
+        int inicioBloque = finOrigen - cantidad;
+        if (destino > origen) {
+            // El bloque avanza hasta el final de la pila destino
+            int finDestino = inicio(destino) + datos[destino];
+            rotarIzquierda(inicioBloque, finDestino, cantidad);
+        } else {
+            // El bloque retrocede hasta el final de la pila destino
+            int finDestino = inicio(destino) + datos[destino];
+            rotarIzquierda(finDestino, finOrigen, finOrigen - finDestino - cantidad);
+        }
+        datos[origen] = (byte) (datos[origen] - cantidad);
+        datos[destino] = (byte) (datos[destino] + cantidad);
+    }
+
+    /**
+     * Pasa cartas del mazo al descarte una a una (el orden queda invertido)
+     * y las deja volteadas, igual que SolitarioController.pasarCartasDelMazo()
+     * @return cantidad de cartas realmente pasadas
+     */
+    public int pasarDelMazo(int cantidad) {
+        int n = Math.min(cantidad, datos[MAZO]);
+        if (n == 0) {
+            return 0;
+        }
+        mover(MAZO, DESCARTE, n);
+        int fin = inicio(DESCARTE) + datos[DESCARTE];
+        invertir(fin - n, fin);
+        for (int i = fin - n; i < fin; i++) {
+            datos[i] |= BIT_VOLTEADA;
+        }
+        return n;
+    }
+
+    /**
+     * Devuelve todo el descarte al mazo boca abajo y en orden invertido
+     * @return cantidad de cartas recicladas
+     */
+    public int reciclarDescarte() {
+        int n = datos[DESCARTE];
+        if (n == 0) {
+            return 0;
+        }
+        mover(DESCARTE, MAZO, n);
+        int fin = inicio(MAZO) + datos[MAZO];
+        invertir(fin - n, fin);
+        for (int i = fin - n; i < fin; i++) {
+            datos[i] &= ~BIT_VOLTEADA;
+        }
+        return n;
+    }
+
+    /**
+     * Cambia el estado de volteo de una carta concreta
+     */
+    public void setVolteada(int pila, int indice, boolean volteada) {
+        if (indice < 0 || indice >= datos[pila]) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de la pila " + pila);
+        }
+        int pos = inicio(pila) + indice;
+        datos[pos] = (byte) (volteada ? datos[pos] | BIT_VOLTEADA : datos[pos] & ~BIT_VOLTEADA);
+    }
+
+    /**
+     * Voltea la carta superior de la pila si está boca abajo
+     * @return true si se volteó una carta
+     */
+    public boolean voltearTope(int pila) {
+        int tamano = datos[pila];
+        if (tamano == 0) {
+            return false;
+        }
+        int pos = inicio(pila) + tamano - 1;
+        if ((datos[pos] & BIT_VOLTEADA) != 0) {
+            return false;
+        }
+        datos[pos] |= BIT_VOLTEADA;
+        return true;
+    }
+
+    // Rota a la izquierda el rango [desde, hasta) `pasos` posiciones sin memoria extra
+    private void rotarIzquierda(int desde, int hasta, int pasos) {
+        if (pasos <= 0 || pasos >= hasta - desde) {
+            return;
+        }
+        invertir(desde, desde + pasos);
+        invertir(desde + pasos, hasta);
+        invertir(desde, hasta);
+    }
+
+    private void invertir(int desde, int hasta) {
+        for (int i = desde, j = hasta - 1; i < j; i++, j--) {
+            byte tmp = datos[i];
+            datos[i] = datos[j];
+            datos[j] = tmp;
+        }
+    }
+
+    // =========================================================================
+    // COPIA
+    // =========================================================================
+
+    public TableroCompacto copiar() {
+        return new TableroCompacto(datos.clone());
+    }
+
+    public void copiarDesde(TableroCompacto otro) {
+        System.arraycopy(otro.datos, 0, datos, 0, TAMANO_DATOS);
+    }
+
+    /**
+     * Copia de los datos crudos (para persistirlos o transmitirlos)
+     */
+    public byte[] getDatos() {
+        return datos.clone();
+    }
+
+    /**
+     * Vuelca los datos crudos en un arreglo del llamador sin asignar memoria
+     */
+    public void copiarDatosEn(byte[] destino, int desplazamiento) {
+        System.arraycopy(datos, 0, destino, desplazamiento, TAMANO_DATOS);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof TableroCompacto otro && Arrays.equals(datos, otro.datos);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(datos);
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package Motor;
+
+// =============================================================================
+// INTERFAZ VISTA DE TABLERO
+// =============================================================================
+/**
+ * Acceso de solo lectura a un tablero con los identificadores de pila y el
+ * formato de carta de TableroCompacto. Permite que el generador de
+ * movimientos trabaje igual sobre un TableroCompacto que sobre el
+ * TableroSolitario de una partida en curso, sin copiarlo.
+ */
+public interface VistaTablero {
+
+    // Cantidad de cartas en la pila
+    public int tamano(int pila);
+
+    // Código de la carta en la posición indicada (0 = fondo)
+    public int carta(int pila, int indice);
+
+    // Código de la carta superior o -1 si la pila está vacía
+    public int tope(int pila);
+
+}
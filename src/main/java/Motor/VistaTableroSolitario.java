@@ -0,0 +1,51 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import AbstractFactory.Carta;
+import Builder.TableroSolitario;
+import java.util.List;
+
+// =============================================================================
+// ADAPTADOR TableroSolitario → VistaTablero
+// =============================================================================
+/**
+ * Expone un TableroSolitario con la interfaz VistaTablero leyendo
+ * directamente sus listas, sin copiar ni crear objetos. El tablero
+ * observado puede cambiarse para reutilizar el adaptador tras un reinicio.
+ */
+public class VistaTableroSolitario implements VistaTablero {
+
+    private TableroSolitario tablero;
+
+    public VistaTableroSolitario(TableroSolitario tablero) {
+        this.tablero = tablero;
+    }
+
+    public void setTablero(TableroSolitario tablero) {
+        this.tablero = tablero;
+    }
+
+    private List<Carta> pila(int pila) {
+        return tablero.getPila(pila);
+    }
+
+    @Override
+    public int tamano(int pila) {
+        return pila(pila).size();
+    }
+
+    @Override
+    public int carta(int pila, int indice) {
+        Carta carta = pila(pila).get(indice);
+        return TableroCompacto.codificar(carta, tablero.estaVolteada(carta));
+    }
+
+    @Override
+    public int tope(int pila) {
+        List<Carta> cartas = pila(pila);
+        return cartas.isEmpty() ? -1 : carta(pila, cartas.size() - 1);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Motor;
+
+import AbstractFactory.Carta;
+import Builder.TableroSolitario;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// =============================================================================
+// HASH ZOBRIST
+// =============================================================================
+/**
+ * Hash de 64 bits de una posición de Solitario. Cada combinación (carta, pila,
+ * posición) tiene una clave aleatoria fija y cada carta volteada suma además
+ * su clave de volteo; el hash es el XOR de todas las claves. Como XOR es su
+ * propio inverso, mover o voltear una carta actualiza el hash en O(1).
+ * Las claves salen de una semilla fija, así que el hash es estable entre
+ * ejecuciones y puede usarse como clave persistente.
+ */
+public final class ZobristHash {
+
+    // En juego legal ninguna pila supera 24 cartas (mazo/descarte completos)
+    public static final int MAX_POSICIONES = 24;
+
+    private static final long SEMILLA = 0x5A0B_C0DE_CAFE_F00DL;
+
+    // Claves de posición aplanadas: [carta][pila][posición]
+    private static final long[] CLAVES_POSICION;
+    private static final long[] CLAVES_VOLTEO;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        CLAVES_POSICION = new long[TableroCompacto.NUM_CARTAS * TableroCompacto.NUM_PILAS * MAX_POSICIONES];
+        for (int i = 0; i < CLAVES_POSICION.length; i++) {
+            CLAVES_POSICION[i] = random.nextLong();
+        }
+        CLAVES_VOLTEO = new long[TableroCompacto.NUM_CARTAS];
+        for (int i = 0; i < CLAVES_VOLTEO.length; i++) {
+            CLAVES_VOLTEO[i] = random.nextLong();
+        }
+    }
+
+    private ZobristHash() {
+    }
+
+    /**
+     * Clave de una carta situada en una posición concreta
+     * @param codigo código compacto de la carta (identidad + bit de volteada)
+     * @param pila identificador de pila de TableroCompacto
+     * @param indice posición dentro de la pila (0 = fondo)
+     * @return clave a combinar con XOR
+     */
+    public static long clave(int codigo, int pila, int indice) {
+        int id = TableroCompacto.identidad(codigo);
+        long clave = CLAVES_POSICION[(id * TableroCompacto.NUM_PILAS + pila) * MAX_POSICIONES
+                + indice % MAX_POSICIONES];
+        return TableroCompacto.estaVolteada(codigo) ? clave ^ CLAVES_VOLTEO[id] : clave;
+    }
+
+    /**
+     * Clave a combinar con XOR cuando una carta cambia de boca abajo a boca arriba
+     * (o al revés) sin moverse
+     */
+    public static long claveVolteo(int codigo) {
+        return CLAVES_VOLTEO[TableroCompacto.identidad(codigo)];
+    }
+
+    /**
+     * Calcula desde cero el hash de un tablero compacto
+     */
+    public static long calcular(TableroCompacto tablero) {
+        return tablero.hashZobrist();
+    }
+
+    /**
+     * Calcula desde cero el hash de un tablero de objetos. Coincide con el
+     * hash del TableroCompacto equivalente.
+     */
+    public static long calcular(TableroSolitario tablero) {
+        long hash = calcularPila(tablero, tablero.getMazo(), TableroCompacto.MAZO);
+        hash ^= calcularPila(tablero, tablero.getDescarte(), TableroCompacto.DESCARTE);
+        for (int i = 0; i < tablero.getFundaciones().size(); i++) {
+            hash ^= calcularPila(tablero, tablero.getFundaciones().get(i), TableroCompacto.FUNDACION_0 + i);
+        }
+        for (int i = 0; i < tablero.getTableau().size(); i++) {
+            hash ^= calcularPila(tablero, tablero.getTableau().get(i), TableroCompacto.TABLEAU_0 + i);
+        }
+        return hash;
+    }
+
+    private static long calcularPila(TableroSolitario tablero, List<Carta> cartas, int pila) {
+        long hash = 0;
+        for (int i = 0; i < cartas.size(); i++) {
+            Carta carta = cartas.get(i);
+            hash ^= clave(TableroCompacto.codificar(carta, tablero.estaVolteada(carta)), pila, i);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Observer;
+
+// =============================================================================
+// OBSERVADOR
+// =============================================================================
+/**
+ * Recibe cada cambio de estado que el controlador completa con éxito, en el
+ * mismo hilo y justo después de aplicarlo. Las jugadas fallidas no se
+ * notifican. Sirve para llevar un diario de la partida fuera del
+ * controlador (p. ej. para recuperarla tras una caída).
+ */
+public interface ObservadorJugadas {
+
+    // Jugada aplicada, codificada con Motor.Movimiento (sin bits del diario de deshacer)
+    void jugadaRegistrada(int movimiento);
+
+    // Jugada deshecha o rehecha, con su delta de Motor.DiarioMovimientos
+    void jugadaDeshecha(int delta);
+
+    void jugadaRehecha(int delta);
+
+    // Partida nueva con el reparto de este número (puede cambiar la baraja)
+    void partidaRepartida(long numeroPartida);
+
+    // Cambió la estrategia o el sistema de puntuación
+    void configuracionCambiada();
+
+    // El tablero se reemplazó por uno arbitrario (cargarEstadoCompacto)
+    void estadoCargado();
+}
@@ -0,0 +1,22 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Observer;
+
+// =============================================================================
+// OBSERVADOR DE PUNTUACIÓN
+// =============================================================================
+/**
+ * Recibe las operaciones del SistemaPuntuacion que interesa medir, en el
+ * hilo de la partida. Lo inyecta quien aloja la partida (el controlador),
+ * así la puntuación no depende de cómo se publican las métricas.
+ */
+public interface ObservadorPuntuacion {
+
+    // Se consultó la puntuación actual (incremental, O(1))
+    void puntuacionConsultada();
+
+    // El acumulado se recalculó desde los contadores de eventos
+    void puntuacionRecalculada();
+}
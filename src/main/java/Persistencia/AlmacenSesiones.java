@@ -0,0 +1,139 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import Controller.SolitarioController;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// =============================================================================
+// ALMACÉN DE SESIONES
+// =============================================================================
+/**
+ * Checkpoint de sesiones en un archivo binario de registros de tamaño fijo.
+ * Un LoteSesiones se escribe con una sola escritura agrupada (cabecera más
+ * lote) por FileChannel en un archivo temporal que luego se renombra sobre
+ * el anterior: un corte a mitad deja intacto el último checkpoint completo.
+ *
+ * Formato del archivo:
+ * <pre>
+ *   cabecera (16 bytes): "SOLS", versión, 3 bytes libres, número de registros (long)
+ *   registros:           LoteSesiones.TAMANO_REGISTRO bytes cada uno
+ * </pre>
+ */
+public class AlmacenSesiones {
+
+    private static final byte[] MAGICO = {'S', 'O', 'L', 'S'};
+    private static final byte VERSION = 2;
+    private static final int TAMANO_CABECERA = 16;
+    private static final int POS_REGISTROS = 8;
+
+    private final Path archivo;
+    private int registrosDanados;           // De la última carga
+
+    public AlmacenSesiones(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Registros que la última llamada a cargar() saltó por no poder
+     * reconstruir su sesión
+     */
+    public int getRegistrosDanados() {
+        return registrosDanados;
+    }
+
+    // =========================================================================
+    // ESCRITURA
+    // =========================================================================
+
+    /**
+     * Sustituye el checkpoint por el contenido del lote. Las ranuras del
+     * lote ya deben estar llenas (o vacías a propósito).
+     */
+    public void guardar(LoteSesiones lote) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA)
+                .put(MAGICO)
+                .put(VERSION)
+                .putLong(POS_REGISTROS, lote.getCapacidad());
+        cabecera.clear();
+        ByteBuffer[] partes = {cabecera, lote.contenido()};
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (partes[1].hasRemaining() || partes[0].hasRemaining()) {
+                canal.write(partes);
+            }
+            canal.force(false);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // =========================================================================
+    // LECTURA
+    // =========================================================================
+
+    /**
+     * Restaura las sesiones del checkpoint en el orden en que se guardaron.
+     * Un registro dañado (o con una pieza que ya no está en el catálogo) se
+     * salta y se cuenta en getRegistrosDanados(); el resto se restaura igual.
+     * @return sesiones restauradas; vacío si aún no hay checkpoint
+     */
+    public List<SesionGuardada> cargar() throws IOException {
+        registrosDanados = 0;
+        if (!Files.exists(archivo)) {
+            return new ArrayList<>();
+        }
+        ByteBuffer datos;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < TAMANO_CABECERA || tamano > Integer.MAX_VALUE) {
+                throw new IOException(archivo + " no es un checkpoint de sesiones válido");
+            }
+            datos = ByteBuffer.allocateDirect((int) tamano);
+            while (datos.hasRemaining() && canal.read(datos) >= 0) {
+                // Lee hasta llenar el buffer
+            }
+        }
+
+        byte[] magico = new byte[MAGICO.length];
+        datos.get(0, magico);
+        if (!Arrays.equals(magico, MAGICO) || datos.get(4) != VERSION) {
+            throw new IOException(archivo + " no es un checkpoint de sesiones válido");
+        }
+        long registros = datos.getLong(POS_REGISTROS);
+        if (registros < 0 || TAMANO_CABECERA + registros * LoteSesiones.TAMANO_REGISTRO != datos.capacity()) {
+            throw new IOException(archivo + ": el número de registros no coincide con el tamaño");
+        }
+
+        List<SesionGuardada> sesiones = new ArrayList<>((int) registros);
+        for (int i = 0; i < registros; i++) {
+            int pos = TAMANO_CABECERA + i * LoteSesiones.TAMANO_REGISTRO;
+            if (datos.get(pos + LoteSesiones.POS_SESION) == 0) {
+                continue;                               // Ranura vacía (sesión cerrada durante el checkpoint)
+            }
+            try {
+                sesiones.add(new SesionGuardada(datos.getLong(pos), SolitarioController.restaurarSesion(datos,
+                        pos + LoteSesiones.POS_SESION), datos.getInt(pos + LoteSesiones.POS_SECUENCIA)));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                registrosDanados++;
+            }
+        }
+        return sesiones;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import Controller.SolitarioController;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// =============================================================================
+// ARCHIVO DE DESBORDAMIENTO
+// =============================================================================
+/**
+ * Archivo local de trabajo donde se vuelcan las partidas inactivas para
+ * sacarlas del heap. Cada partida ocupa una ranura de TAMANO_RANURA bytes
+ * (un registro de SolitarioController.guardarSesion()); las ranuras
+ * liberadas se reutilizan antes de hacer crecer el archivo.
+ *
+ * No es duradero: se vacía al abrirlo, no hace fsync y se borra al
+ * cerrarlo. Lo que debe sobrevivir a una caída lo cubren los checkpoints y
+ * el DiarioJugadas. Las lecturas y escrituras son posicionales y se pueden
+ * hacer desde varios hilos a la vez.
+ */
+public class ArchivoDesbordamiento implements AutoCloseable {
+
+    public static final int TAMANO_RANURA = SolitarioController.TAMANO_SESION;
+
+    private final Path archivo;
+    private final FileChannel canal;
+
+    // Ranuras; protegidas por el monitor del archivo
+    private int[] libres = new int[64];
+    private int numLibres;
+    private int siguiente;                          // Primera ranura nunca usada
+
+    public ArchivoDesbordamiento(Path archivo) throws IOException {
+        this.archivo = archivo;
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Escribe un registro en una ranura libre
+     * @return la ranura, para leerla o liberarla después
+     */
+    public int escribir(byte[] registro) throws IOException {
+        comprobarTamano(registro);
+        int ranura = reservar();
+        try {
+            ByteBuffer datos = ByteBuffer.wrap(registro);
+            long pos = (long) ranura * TAMANO_RANURA;
+            while (datos.hasRemaining()) {
+                pos += canal.write(datos, pos);
+            }
+        } catch (IOException e) {
+            liberar(ranura);
+            throw e;
+        }
+        return ranura;
+    }
+
+    /**
+     * Lee el registro de una ranura ocupada
+     */
+    public void leer(int ranura, byte[] destino) throws IOException {
+        comprobarTamano(destino);
+        ByteBuffer datos = ByteBuffer.wrap(destino);
+        long pos = (long) ranura * TAMANO_RANURA;
+        while (datos.hasRemaining()) {
+            int leidos = canal.read(datos, pos);
+            if (leidos < 0) {
+                throw new IOException("Ranura " + ranura + " fuera de " + archivo);
+            }
+            pos += leidos;
+        }
+    }
+
+    /**
+     * Devuelve una ranura para reutilizarla. Su contenido se queda en el
+     * archivo hasta que otra partida la sobrescriba.
+     */
+    public synchronized void liberar(int ranura) {
+        if (numLibres == libres.length) {
+            libres = Arrays.copyOf(libres, libres.length * 2);
+        }
+        libres[numLibres++] = ranura;
+    }
+
+    /**
+     * Ranuras con una partida volcada
+     */
+    public synchronized int getRanurasOcupadas() {
+        return siguiente - numLibres;
+    }
+
+    /**
+     * Tamaño del archivo: las ranuras libres también ocupan disco
+     */
+    public synchronized long getTamanoArchivo() {
+        return (long) siguiente * TAMANO_RANURA;
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private synchronized int reservar() {
+        return numLibres > 0 ? libres[--numLibres] : siguiente++;
+    }
+
+    private static void comprobarTamano(byte[] registro) {
+        if (registro.length != TAMANO_RANURA) {
+            throw new IllegalArgumentException("Registro de " + registro.length + " bytes, se esperaban "
+                    + TAMANO_RANURA);
+        }
+    }
+}
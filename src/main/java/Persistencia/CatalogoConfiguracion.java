@@ -0,0 +1,127 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import AbstractFactory.CartaAbstractFactory;
+import AbstractFactory.CartaFrancesaFactory;
+import AbstractFactory.CartaInglesaFactory;
+import Bridge.PuntuacionClasica;
+import Bridge.PuntuacionConTiempo;
+import Bridge.PuntuacionEstandar;
+import Bridge.PuntuacionImpl;
+import Bridge.PuntuacionModerna;
+import Bridge.PuntuacionVegas;
+import Bridge.SistemaPuntuacion;
+import Strategy.EstrategiaDificil;
+import Strategy.EstrategiaFacil;
+import Strategy.EstrategiaJuego;
+import Strategy.EstrategiaKlondike;
+
+// =============================================================================
+// CATÁLOGO DE CONFIGURACIÓN
+// =============================================================================
+/**
+ * Códigos de un byte para las piezas intercambiables de una partida (baraja,
+ * estrategia, sistema e implementación de puntuación) en las sesiones
+ * guardadas. Los códigos son parte del formato: solo se añaden al final.
+ */
+public final class CatalogoConfiguracion {
+
+    private static final Class<?>[] BARAJAS = {CartaFrancesaFactory.class, CartaInglesaFactory.class};
+    private static final Class<?>[] ESTRATEGIAS = {EstrategiaKlondike.class, EstrategiaFacil.class,
+        EstrategiaDificil.class};
+    private static final Class<?>[] SISTEMAS = {PuntuacionEstandar.class, PuntuacionConTiempo.class};
+    private static final Class<?>[] IMPLEMENTACIONES = {PuntuacionClasica.class, PuntuacionVegas.class,
+        PuntuacionModerna.class};
+
+    private CatalogoConfiguracion() {
+    }
+
+    // =========================================================================
+    // OBJETO -> CÓDIGO
+    // =========================================================================
+
+    public static int codigoBaraja(CartaAbstractFactory factory) {
+        return codigo(factory, BARAJAS);
+    }
+
+    public static int codigoEstrategia(EstrategiaJuego estrategia) {
+        return codigo(estrategia, ESTRATEGIAS);
+    }
+
+    public static int codigoSistema(SistemaPuntuacion sistema) {
+        return codigo(sistema, SISTEMAS);
+    }
+
+    public static int codigoImplementacion(PuntuacionImpl implementacion) {
+        return codigo(implementacion, IMPLEMENTACIONES);
+    }
+
+    // Solo la clase exacta: una subclase podría tener estado que no se guarda
+    private static int codigo(Object pieza, Class<?>[] tipos) {
+        for (int i = 0; i < tipos.length; i++) {
+            if (tipos[i] == pieza.getClass()) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(pieza.getClass().getName() + " no se puede guardar en una sesión");
+    }
+
+    // =========================================================================
+    // CÓDIGO -> OBJETO
+    // =========================================================================
+
+    public static CartaAbstractFactory baraja(int codigo) {
+        switch (codigo) {
+            case 0:
+                return new CartaFrancesaFactory();
+            case 1:
+                return new CartaInglesaFactory();
+            default:
+                throw desconocido("baraja", codigo);
+        }
+    }
+
+    public static EstrategiaJuego estrategia(int codigo) {
+        switch (codigo) {
+            case 0:
+                return new EstrategiaKlondike();
+            case 1:
+                return new EstrategiaFacil();
+            case 2:
+                return new EstrategiaDificil();
+            default:
+                throw desconocido("estrategia", codigo);
+        }
+    }
+
+    public static SistemaPuntuacion sistema(int codigo, PuntuacionImpl implementacion) {
+        switch (codigo) {
+            case 0:
+                return new PuntuacionEstandar(implementacion);
+            case 1:
+                return new PuntuacionConTiempo(implementacion);
+            default:
+                throw desconocido("sistema de puntuación", codigo);
+        }
+    }
+
+    public static PuntuacionImpl implementacion(int codigo) {
+        switch (codigo) {
+            case 0:
+                return new PuntuacionClasica();
+            case 1:
+                return new PuntuacionVegas();
+            case 2:
+                return new PuntuacionModerna();
+            default:
+                throw desconocido("implementación de puntuación", codigo);
+        }
+    }
+
+    private static IllegalArgumentException desconocido(String pieza, int codigo) {
+        return new IllegalArgumentException("Código de " + pieza + " desconocido: " + codigo);
+    }
+}
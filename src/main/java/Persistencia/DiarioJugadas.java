@@ -0,0 +1,406 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// =============================================================================
+// DIARIO DE JUGADAS (ESCRITURA ANTICIPADA)
+// =============================================================================
+/**
+ * Diario de solo escritura con las jugadas de todas las sesiones entre dos
+ * checkpoints. Anotar copia un registro de 32 bytes a un buffer en memoria
+ * (unos cientos de ns, sin esperar al disco); un hilo escritor vuelca el
+ * buffer cada pocos milisegundos con una sola escritura y un solo fsync
+ * para todas las sesiones (commit agrupado). Una caída pierde como mucho
+ * las jugadas del último intervalo; sincronizar() espera a que lo anotado
+ * sea duradero.
+ *
+ * El diario se reparte en segmentos numerados (archivo.1, archivo.2...).
+ * Al abrirlo siempre empieza un segmento nuevo, así que los anteriores solo
+ * se leen para la recuperación. rotar() cierra el segmento actual antes de
+ * un checkpoint y descartarHasta() borra los que el checkpoint ya cubre.
+ *
+ * Formato de un registro:
+ * <pre>
+ *    0  id de la sesión (long)
+ *    8  secuencia de la sesión (int)
+ *   12  tipo (byte)
+ *   13  códigos de configuración (int, ver RegistradorSesion)
+ *   17  3 bytes libres
+ *   20  dato (long): movimiento, delta de deshacer/rehacer o número de partida
+ *   28  CRC32C de los 28 bytes anteriores
+ * </pre>
+ * Un registro con el CRC incorrecto o incompleto marca el final válido de
+ * su segmento (escritura cortada por la caída).
+ */
+public class DiarioJugadas implements AutoCloseable {
+
+    public static final int TAMANO_REGISTRO = 32;
+    public static final long INTERVALO_POR_DEFECTO_MS = 2;
+
+    // Tipos de registro
+    public static final int TIPO_ALTA = 1;              // Sesión creada: configuración y reparto
+    public static final int TIPO_REPARTO = 2;           // Partida nueva: configuración y reparto
+    public static final int TIPO_MOVIMIENTO = 3;
+    public static final int TIPO_DESHACER = 4;
+    public static final int TIPO_REHACER = 5;
+    public static final int TIPO_CONFIGURACION = 6;     // Cambio de estrategia o puntuación
+    public static final int TIPO_IRREPRODUCIBLE = 7;    // Estado que el diario no puede describir
+    public static final int TIPO_CIERRE = 8;            // Sesión cerrada o expulsada
+
+    private static final int CAPACIDAD_BUFFER = 1 << 16; // Registros por buffer
+
+    private final Path archivo;
+    private final long intervaloNanos;
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayDatos = cerrojo.newCondition();
+    private final Condition volcado = cerrojo.newCondition();
+
+    // Protegido por el cerrojo
+    private ByteBuffer activo = ByteBuffer.allocateDirect(CAPACIDAD_BUFFER * TAMANO_REGISTRO);
+    private ByteBuffer enEscritura = ByteBuffer.allocateDirect(CAPACIDAD_BUFFER * TAMANO_REGISTRO);
+    private final byte[] registro = new byte[TAMANO_REGISTRO];
+    private final ByteBuffer vistaRegistro = ByteBuffer.wrap(registro);
+    private final CRC32C crc = new CRC32C();
+    private long anotados;                              // Registros aceptados desde la apertura
+    private long duraderos;                             // Registros ya escritos con fsync
+    private long segmento;                              // Número del segmento abierto
+    private long rotacionPedida = -1;                   // Segmento que debe abrir el escritor
+    private boolean sincronizacionPedida;
+    private boolean cerrado;
+    private IOException error;
+
+    private FileChannel canal;                          // Solo lo usa el hilo escritor
+    private final Thread escritor;
+
+    public DiarioJugadas(Path archivo) throws IOException {
+        this(archivo, INTERVALO_POR_DEFECTO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre un segmento nuevo a continuación de los existentes
+     * @param intervalo espera máxima de un registro antes de volcarse
+     */
+    public DiarioJugadas(Path archivo, long intervalo, TimeUnit unidad) throws IOException {
+        this.archivo = archivo.toAbsolutePath();
+        this.intervaloNanos = unidad.toNanos(intervalo);
+        List<Long> existentes = segmentos();
+        this.segmento = existentes.isEmpty() ? 1 : existentes.get(existentes.size() - 1) + 1;
+        this.canal = abrirSegmento(segmento);
+        this.escritor = Thread.ofPlatform().name("diario-jugadas").daemon().start(this::escribir);
+    }
+
+    // =========================================================================
+    // ANOTACIÓN
+    // =========================================================================
+
+    /**
+     * Añade un registro al buffer. Solo espera si los dos buffers están
+     * llenos. Tras cerrar el diario o un error de escritura los registros se
+     * descartan: la jugada ya está hecha y no se puede rechazar. Quien aloja
+     * el diario debe vigilar estaSano() para no seguir sin durabilidad.
+     */
+    public void anotar(long id, int secuencia, int tipo, int codigos, long dato) {
+        cerrojo.lock();
+        try {
+            while (activo.remaining() < TAMANO_REGISTRO && !cerrado && error == null) {
+                hayDatos.signal();
+                volcado.awaitUninterruptibly();
+            }
+            if (cerrado || error != null) {
+                return;
+            }
+            vistaRegistro.putLong(0, id)
+                    .putInt(8, secuencia)
+                    .put(12, (byte) tipo)
+                    .putInt(13, codigos)
+                    .putLong(20, dato);
+            crc.reset();
+            crc.update(registro, 0, TAMANO_REGISTRO - Integer.BYTES);
+            vistaRegistro.putInt(TAMANO_REGISTRO - Integer.BYTES, (int) crc.getValue());
+            activo.put(registro);
+            if (anotados++ == duraderos) {
+                hayDatos.signal();                      // Primer registro del lote: arranca el plazo
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que todo lo anotado hasta ahora esté en disco
+     */
+    public void sincronizar() throws IOException {
+        cerrojo.lock();
+        try {
+            long objetivo = anotados;
+            sincronizacionPedida = true;
+            hayDatos.signal();
+            while (duraderos < objetivo && error == null && !cerrado) {
+                volcado.awaitUninterruptibly();
+            }
+            if (error != null) {
+                throw new IOException("El diario de jugadas dejó de escribirse", error);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Vuelca lo pendiente y empieza un segmento nuevo. Todo lo anotado
+     * antes de la llamada queda en segmentos anteriores al devuelto.
+     * @return número del segmento nuevo
+     */
+    public long rotar() throws IOException {
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                throw new IOException("El diario de jugadas está cerrado");
+            }
+            long nuevo = segmento + 1;
+            rotacionPedida = nuevo;
+            hayDatos.signal();
+            while (segmento < nuevo && error == null && !cerrado) {
+                volcado.awaitUninterruptibly();
+            }
+            if (error != null) {
+                throw new IOException("El diario de jugadas dejó de escribirse", error);
+            }
+            if (segmento < nuevo) {
+                throw new IOException("El diario de jugadas se cerró durante la rotación");
+            }
+            return nuevo;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Borra los segmentos anteriores a `segmento` (ya cubiertos por un checkpoint)
+     */
+    public void descartarHasta(long segmento) throws IOException {
+        for (long numero : segmentos()) {
+            if (numero < segmento) {
+                Files.deleteIfExists(rutaSegmento(numero));
+            }
+        }
+    }
+
+    /**
+     * Vuelca lo pendiente y detiene el escritor
+     */
+    @Override
+    public void close() throws IOException {
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            hayDatos.signal();
+        } finally {
+            cerrojo.unlock();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw new IOException("El diario de jugadas dejó de escribirse", error);
+        }
+    }
+
+    // =========================================================================
+    // HILO ESCRITOR
+    // =========================================================================
+
+    private void escribir() {
+        while (true) {
+            long lote;
+            long rotacion;
+            boolean terminar;
+            cerrojo.lock();
+            try {
+                // Espera al primer registro y luego hasta el plazo, salvo que el
+                // buffer se llene o alguien necesite el volcado ya
+                long espera = intervaloNanos;
+                while (!cerrado && rotacionPedida < 0 && !sincronizacionPedida
+                        && activo.remaining() >= TAMANO_REGISTRO && (anotados == duraderos || espera > 0)) {
+                    if (anotados == duraderos) {
+                        hayDatos.awaitUninterruptibly();
+                        espera = intervaloNanos;
+                    } else {
+                        try {
+                            espera = hayDatos.awaitNanos(espera);
+                        } catch (InterruptedException e) {
+                            espera = 0;
+                        }
+                    }
+                }
+                ByteBuffer lleno = activo;
+                activo = enEscritura;
+                enEscritura = lleno;
+                lote = anotados;
+                rotacion = rotacionPedida;
+                terminar = cerrado;
+                sincronizacionPedida = false;
+            } finally {
+                cerrojo.unlock();
+            }
+
+            IOException fallo = null;
+            try {
+                enEscritura.flip();
+                while (enEscritura.hasRemaining()) {
+                    canal.write(enEscritura);
+                }
+                enEscritura.clear();
+                canal.force(false);
+                if (rotacion > 0 || terminar) {
+                    canal.close();
+                }
+                if (rotacion > 0 && !terminar) {
+                    canal = abrirSegmento(rotacion);
+                }
+            } catch (IOException e) {
+                fallo = e;                              // Lo ve quien consulte estaSano() o espere un volcado
+            }
+
+            cerrojo.lock();
+            try {
+                if (fallo != null) {
+                    error = fallo;
+                } else {
+                    duraderos = lote;
+                    if (rotacion > 0 && !terminar) {
+                        segmento = rotacion;
+                        rotacionPedida = -1;
+                    }
+                }
+                volcado.signalAll();
+                if (terminar || error != null) {
+                    return;
+                }
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    // =========================================================================
+    // LECTURA PARA LA RECUPERACIÓN
+    // =========================================================================
+
+    /**
+     * Recibe los registros válidos en el orden en que se anotaron
+     */
+    @FunctionalInterface
+    public interface Lector {
+        void registro(long id, int secuencia, int tipo, int codigos, long dato);
+    }
+
+    /**
+     * Recorre los segmentos anteriores al abierto, del más antiguo al más
+     * nuevo, y entrega sus registros válidos
+     */
+    public void leer(Lector lector) throws IOException {
+        long abierto;
+        cerrojo.lock();
+        try {
+            abierto = segmento;
+        } finally {
+            cerrojo.unlock();
+        }
+        byte[] datos = new byte[TAMANO_REGISTRO];
+        ByteBuffer vista = ByteBuffer.wrap(datos);
+        CRC32C comprobacion = new CRC32C();
+        for (long numero : segmentos()) {
+            if (numero >= abierto) {
+                break;
+            }
+            byte[] contenido = Files.readAllBytes(rutaSegmento(numero));
+            for (int pos = 0; pos + TAMANO_REGISTRO <= contenido.length; pos += TAMANO_REGISTRO) {
+                System.arraycopy(contenido, pos, datos, 0, TAMANO_REGISTRO);
+                comprobacion.reset();
+                comprobacion.update(datos, 0, TAMANO_REGISTRO - Integer.BYTES);
+                if ((int) comprobacion.getValue() != vista.getInt(TAMANO_REGISTRO - Integer.BYTES)) {
+                    break;                              // Final cortado por una caída
+                }
+                lector.registro(vista.getLong(0), vista.getInt(8), vista.get(12), vista.getInt(13),
+                        vista.getLong(20));
+            }
+        }
+    }
+
+    // =========================================================================
+    // SEGMENTOS
+    // =========================================================================
+
+    // Números de los segmentos existentes, en orden
+    private List<Long> segmentos() throws IOException {
+        String prefijo = archivo.getFileName() + ".";
+        List<Long> numeros = new ArrayList<>();
+        try (Stream<Path> rutas = Files.list(archivo.getParent())) {
+            rutas.forEach(ruta -> {
+                String nombre = ruta.getFileName().toString();
+                if (nombre.startsWith(prefijo)) {
+                    try {
+                        numeros.add(Long.parseLong(nombre.substring(prefijo.length())));
+                    } catch (NumberFormatException e) {
+                        // Otro archivo con el mismo prefijo
+                    }
+                }
+            });
+        }
+        numeros.sort(null);
+        return numeros;
+    }
+
+    private Path rutaSegmento(long numero) {
+        return archivo.resolveSibling(archivo.getFileName() + "." + numero);
+    }
+
+    private FileChannel abrirSegmento(long numero) throws IOException {
+        return FileChannel.open(rutaSegmento(numero), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @return false si el escritor falló: desde entonces no se guarda nada
+     *         y el diario no se puede rotar ni sincronizar
+     */
+    public boolean estaSano() {
+        cerrojo.lock();
+        try {
+            return error == null;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public long getSegmento() {
+        cerrojo.lock();
+        try {
+            return segmento;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+}
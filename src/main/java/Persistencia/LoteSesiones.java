@@ -0,0 +1,80 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import Controller.SolitarioController;
+import java.nio.ByteBuffer;
+
+// =============================================================================
+// LOTE DE SESIONES
+// =============================================================================
+/**
+ * Buffer directo con una ranura de tamaño fijo por sesión, listo para que el
+ * AlmacenSesiones lo escriba de una vez. Cada registro es el id de la sesión
+ * (long), la secuencia del DiarioJugadas que ya incluye (int), 4 bytes
+ * libres y el registro de SolitarioController.guardarSesion().
+ *
+ * Ranuras distintas se pueden llenar a la vez desde hilos distintos (solo
+ * hay escrituras absolutas); quien escribe el lote debe esperar a que
+ * terminen. Una ranura sin llenar queda a cero y se ignora al cargar.
+ */
+public final class LoteSesiones {
+
+    public static final int TAMANO_REGISTRO = 16 + SolitarioController.TAMANO_SESION;
+    static final int POS_SECUENCIA = 8;
+    static final int POS_SESION = 16;
+
+    private final ByteBuffer datos;
+    private final int capacidad;
+
+    /**
+     * @param capacidad número de ranuras
+     */
+    public LoteSesiones(int capacidad) {
+        if (capacidad < 0 || (long) capacidad * TAMANO_REGISTRO > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacidad de lote no válida: " + capacidad);
+        }
+        this.capacidad = capacidad;
+        this.datos = ByteBuffer.allocateDirect(capacidad * TAMANO_REGISTRO); // Nace a cero
+    }
+
+    /**
+     * Guarda una sesión en su ranura. Debe llamarse desde el hilo que tiene
+     * acceso exclusivo al controlador (el buzón de su sesión).
+     */
+    public void guardar(int ranura, long id, int secuencia, SolitarioController controller) {
+        int pos = posicion(ranura);
+        datos.putLong(pos, id).putInt(pos + POS_SECUENCIA, secuencia);
+        controller.guardarSesion(datos, pos + POS_SESION);
+    }
+
+    /**
+     * Guarda una sesión ya serializada con guardarSesion() (p. ej. una
+     * partida degradada que no está en memoria viva)
+     */
+    public void guardar(int ranura, long id, int secuencia, byte[] sesion) {
+        if (sesion.length != SolitarioController.TAMANO_SESION) {
+            throw new IllegalArgumentException("Registro de sesión de " + sesion.length + " bytes");
+        }
+        int pos = posicion(ranura);
+        datos.putLong(pos, id).putInt(pos + POS_SECUENCIA, secuencia).put(pos + POS_SESION, sesion);
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    // Vista de todo el lote para escribirlo en el canal
+    ByteBuffer contenido() {
+        return datos.duplicate().clear();
+    }
+
+    private int posicion(int ranura) {
+        if (ranura < 0 || ranura >= capacidad) {
+            throw new IndexOutOfBoundsException("Ranura " + ranura + " fuera del lote de " + capacidad);
+        }
+        return ranura * TAMANO_REGISTRO;
+    }
+}
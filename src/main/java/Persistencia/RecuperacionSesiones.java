@@ -0,0 +1,157 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import Controller.SolitarioController;
+import Bridge.SistemaPuntuacion;
+import Motor.DiarioMovimientos;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// =============================================================================
+// RECUPERACIÓN DE SESIONES
+// =============================================================================
+/**
+ * Reconstruye las sesiones tras una caída: parte del último checkpoint y
+ * reproduce encima los registros del DiarioJugadas posteriores a él.
+ *
+ * De cada sesión solo se aplican los registros con secuencia mayor que la
+ * del checkpoint y en orden estricto. El historial de deshacer no se guarda
+ * en el checkpoint, así que deshacer o rehacer una jugada anterior a él se
+ * reproduce con el delta anotado. Si falta un registro, una jugada ya no
+ * encaja o el diario no puede describir el estado, la sesión se queda en el
+ * último estado reproducible y se ignora el resto, hasta que un reparto
+ * nuevo vuelve a dejarla en un estado conocido.
+ */
+public final class RecuperacionSesiones {
+
+    private final Map<Long, SesionGuardada> sesiones = new LinkedHashMap<>();
+    private int descartados;
+
+    private RecuperacionSesiones() {
+    }
+
+    /**
+     * @param diario diario abierto; solo se leen sus segmentos anteriores
+     * @return sesiones vivas en el momento de la caída y registros descartados
+     */
+    public static RecuperacionSesiones recuperar(AlmacenSesiones almacen, DiarioJugadas diario) throws IOException {
+        RecuperacionSesiones recuperacion = new RecuperacionSesiones();
+        for (SesionGuardada sesion : almacen.cargar()) {
+            recuperacion.sesiones.put(sesion.getId(), sesion);
+        }
+        if (diario != null) {
+            diario.leer(recuperacion::aplicar);
+        }
+        return recuperacion;
+    }
+
+    /**
+     * Sesiones vivas en el momento de la caída, en el orden del checkpoint
+     * y luego en el de alta
+     */
+    public List<SesionGuardada> getSesiones() {
+        return new ArrayList<>(sesiones.values());
+    }
+
+    /**
+     * Registros del diario que no se pudieron reproducir
+     */
+    public int getDescartados() {
+        return descartados;
+    }
+
+    private void aplicar(long id, int secuencia, int tipo, int codigos, long dato) {
+        if (tipo == DiarioJugadas.TIPO_CIERRE) {
+            sesiones.remove(id);
+            return;
+        }
+        SesionGuardada sesion = sesiones.get(id);
+        if (tipo == DiarioJugadas.TIPO_ALTA) {
+            if (sesion == null) {                       // Si ya existe, el checkpoint incluye el alta
+                SolitarioController controller = crear(codigos, dato);
+                if (controller != null) {
+                    sesiones.put(id, new SesionGuardada(id, controller, secuencia));
+                }
+            }
+            return;
+        }
+        if (sesion == null || secuencia <= sesion.getSecuencia()) {
+            return;                                     // Sesión cerrada o registro ya incluido
+        }
+        if (tipo == DiarioJugadas.TIPO_REPARTO) {
+            // Un reparto no depende del estado anterior: sirve aunque falten registros
+            SolitarioController controller = crear(codigos, dato);
+            if (controller != null) {
+                sesion.setController(controller);
+                sesion.setReproducible(true);
+                sesion.setSecuencia(secuencia);
+                return;
+            }
+        }
+        if (!sesion.esReproducible() || secuencia != sesion.getSecuencia() + 1 || !reproducir(sesion, tipo,
+                codigos, dato)) {
+            sesion.setReproducible(false);
+            descartados++;
+            return;
+        }
+        sesion.setSecuencia(secuencia);
+    }
+
+    private boolean reproducir(SesionGuardada sesion, int tipo, int codigos, long dato) {
+        SolitarioController controller = sesion.getController();
+        try {
+            switch (tipo) {
+                case DiarioJugadas.TIPO_MOVIMIENTO:
+                    return controller.aplicarMovimiento((int) dato);
+                case DiarioJugadas.TIPO_DESHACER:
+                    // Una jugada anterior al checkpoint no está en el historial restaurado
+                    return controller.puedeDeshacer() ? controller.deshacer()
+                            : controller.deshacerJugada((int) dato);
+                case DiarioJugadas.TIPO_REHACER:
+                    return controller.puedeRehacer() ? controller.rehacer()
+                            : controller.aplicarMovimiento(DiarioMovimientos.movimiento((int) dato));
+                case DiarioJugadas.TIPO_CONFIGURACION:
+                    cambiarConfiguracion(controller, codigos);
+                    return true;
+                default:
+                    return false;                       // Irreproducible o desconocido
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    // Partida nueva con la configuración y el reparto del registro, o null si los códigos no son válidos
+    private SolitarioController crear(int codigos, long numeroPartida) {
+        try {
+            SolitarioController controller = new SolitarioController(
+                    CatalogoConfiguracion.baraja(RegistradorSesion.baraja(codigos)),
+                    CatalogoConfiguracion.estrategia(RegistradorSesion.estrategia(codigos)),
+                    CatalogoConfiguracion.sistema(RegistradorSesion.sistema(codigos),
+                            CatalogoConfiguracion.implementacion(RegistradorSesion.implementacion(codigos))));
+            controller.reiniciarJuego(numeroPartida);
+            return controller;
+        } catch (IllegalArgumentException e) {
+            descartados++;
+            return null;
+        }
+    }
+
+    private static void cambiarConfiguracion(SolitarioController controller, int codigos) {
+        int actuales = RegistradorSesion.codigos(controller);
+        if (RegistradorSesion.estrategia(actuales) != RegistradorSesion.estrategia(codigos)) {
+            controller.cambiarEstrategia(CatalogoConfiguracion.estrategia(RegistradorSesion.estrategia(codigos)));
+        }
+        if ((actuales & 0xFFFF) != (codigos & 0xFFFF)) {
+            SistemaPuntuacion sistema = CatalogoConfiguracion.sistema(RegistradorSesion.sistema(codigos),
+                    CatalogoConfiguracion.implementacion(RegistradorSesion.implementacion(codigos)));
+            controller.cambiarSistemaPuntuacion(sistema);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import Controller.SolitarioController;
+import Observer.ObservadorJugadas;
+
+// =============================================================================
+// REGISTRADOR DE SESIÓN
+// =============================================================================
+/**
+ * Observador de un controlador que anota sus cambios en el DiarioJugadas con
+ * el id de la sesión y una secuencia propia. La secuencia solo avanza en el
+ * hilo de la sesión, así que un checkpoint tomado en ese hilo sabe qué
+ * registros del diario ya incluye.
+ */
+public final class RegistradorSesion implements ObservadorJugadas {
+
+    private final long id;
+    private SolitarioController controller;
+    private final DiarioJugadas diario;
+    private int secuencia;                          // Último registro anotado
+
+    /**
+     * @param secuencia último registro de la sesión ya cubierto (0 si es nueva)
+     */
+    public RegistradorSesion(long id, SolitarioController controller, DiarioJugadas diario, int secuencia) {
+        this.id = id;
+        this.controller = controller;
+        this.diario = diario;
+        this.secuencia = secuencia;
+    }
+
+    /**
+     * Anota la creación de la sesión con su configuración y su reparto
+     */
+    public void alta() {
+        anotarConfiguracion(DiarioJugadas.TIPO_ALTA, controller.getNumeroPartida());
+    }
+
+    /**
+     * Anota el cierre de la sesión. Puede llamarse desde cualquier hilo: no
+     * usa la secuencia y la recuperación lo aplica siempre.
+     */
+    public void cierre() {
+        diario.anotar(id, 0, DiarioJugadas.TIPO_CIERRE, 0, 0);
+    }
+
+    public int getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Sigue anotando los cambios de otro controlador de la misma sesión (p.
+     * ej. el que la reconstruye tras sacarla de memoria) sin cortar la secuencia
+     */
+    public void setController(SolitarioController controller) {
+        this.controller = controller;
+    }
+
+    // =========================================================================
+    // OBSERVADOR
+    // =========================================================================
+
+    @Override
+    public void jugadaRegistrada(int movimiento) {
+        diario.anotar(id, ++secuencia, DiarioJugadas.TIPO_MOVIMIENTO, 0, movimiento);
+    }
+
+    @Override
+    public void jugadaDeshecha(int delta) {
+        diario.anotar(id, ++secuencia, DiarioJugadas.TIPO_DESHACER, 0, delta);
+    }
+
+    @Override
+    public void jugadaRehecha(int delta) {
+        diario.anotar(id, ++secuencia, DiarioJugadas.TIPO_REHACER, 0, delta);
+    }
+
+    @Override
+    public void partidaRepartida(long numeroPartida) {
+        anotarConfiguracion(DiarioJugadas.TIPO_REPARTO, numeroPartida);
+    }
+
+    @Override
+    public void configuracionCambiada() {
+        anotarConfiguracion(DiarioJugadas.TIPO_CONFIGURACION, 0);
+    }
+
+    @Override
+    public void estadoCargado() {
+        diario.anotar(id, ++secuencia, DiarioJugadas.TIPO_IRREPRODUCIBLE, 0, 0);
+    }
+
+    // Una pieza fuera del catálogo no se puede reproducir: la recuperación se detiene ahí
+    private void anotarConfiguracion(int tipo, long dato) {
+        int codigos;
+        try {
+            codigos = codigos(controller);
+        } catch (IllegalArgumentException e) {
+            diario.anotar(id, ++secuencia, DiarioJugadas.TIPO_IRREPRODUCIBLE, 0, 0);
+            return;
+        }
+        diario.anotar(id, ++secuencia, tipo, codigos, dato);
+    }
+
+    // =========================================================================
+    // CÓDIGOS DE CONFIGURACIÓN
+    // =========================================================================
+
+    /**
+     * Códigos de CatalogoConfiguracion empaquetados en un int: baraja,
+     * estrategia, sistema e implementación, un byte cada uno
+     */
+    static int codigos(SolitarioController controller) {
+        return CatalogoConfiguracion.codigoBaraja(controller.getFactory()) << 24
+                | CatalogoConfiguracion.codigoEstrategia(controller.getEstrategiaActual()) << 16
+                | CatalogoConfiguracion.codigoSistema(controller.getSistemaPuntuacion()) << 8
+                | CatalogoConfiguracion.codigoImplementacion(controller.getSistemaPuntuacion().getImplementacion());
+    }
+
+    static int baraja(int codigos) {
+        return codigos >>> 24;
+    }
+
+    static int estrategia(int codigos) {
+        return (codigos >>> 16) & 0xFF;
+    }
+
+    static int sistema(int codigos) {
+        return (codigos >>> 8) & 0xFF;
+    }
+
+    static int implementacion(int codigos) {
+        return codigos & 0xFF;
+    }
+}
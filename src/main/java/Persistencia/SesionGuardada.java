@@ -0,0 +1,59 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Persistencia;
+
+import Controller.SolitarioController;
+
+// =============================================================================
+// SESIÓN GUARDADA
+// =============================================================================
+/**
+ * Sesión leída de un checkpoint (y puesta al día con el diario): su id, el
+ * controlador reconstruido y el último registro del diario que incluye.
+ */
+public final class SesionGuardada {
+
+    private final long id;
+    private SolitarioController controller;
+    private int secuencia;
+    private boolean reproducible = true;            // El diario aún describe su estado
+
+    SesionGuardada(long id, SolitarioController controller, int secuencia) {
+        this.id = id;
+        this.controller = controller;
+        this.secuencia = secuencia;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public SolitarioController getController() {
+        return controller;
+    }
+
+    /**
+     * Último registro del DiarioJugadas aplicado a la sesión
+     */
+    public int getSecuencia() {
+        return secuencia;
+    }
+
+    void setController(SolitarioController controller) {
+        this.controller = controller;
+    }
+
+    void setSecuencia(int secuencia) {
+        this.secuencia = secuencia;
+    }
+
+    boolean esReproducible() {
+        return reproducible;
+    }
+
+    void setReproducible(boolean reproducible) {
+        this.reproducible = reproducible;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servidor;
+
+import java.nio.charset.StandardCharsets;
+
+// =============================================================================
+// ESCRITOR JSON EN STREAMING
+// =============================================================================
+/**
+ * Escribe JSON de forma secuencial sobre un StringBuilder reutilizable, sin
+ * reflexión ni árboles intermedios. El llamador abre y cierra objetos y
+ * arreglos; el escritor se ocupa de comas, comillas y escapes.
+ *
+ * Soporta hasta 64 niveles de anidamiento. No es seguro entre hilos.
+ */
+public final class EscritorJson {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder sb;
+    private long primeroEnNivel = 1;               // Bit n: aún no hay elementos en el nivel n
+    private int nivel;
+    private boolean trasNombre;                    // Se acaba de escribir "nombre":
+
+    public EscritorJson() {
+        this(256);
+    }
+
+    public EscritorJson(int capacidad) {
+        this.sb = new StringBuilder(capacidad);
+    }
+
+    /**
+     * Vacía el escritor para reutilizarlo con otro documento
+     */
+    public EscritorJson reiniciar() {
+        sb.setLength(0);
+        primeroEnNivel = 1;
+        nivel = 0;
+        trasNombre = false;
+        return this;
+    }
+
+    // =========================================================================
+    // ESTRUCTURA
+    // =========================================================================
+
+    public EscritorJson inicioObjeto() {
+        return abrir('{');
+    }
+
+    public EscritorJson finObjeto() {
+        return cerrar('}');
+    }
+
+    public EscritorJson inicioArreglo() {
+        return abrir('[');
+    }
+
+    public EscritorJson finArreglo() {
+        return cerrar(']');
+    }
+
+    /**
+     * Escribe el nombre de la siguiente propiedad del objeto abierto
+     */
+    public EscritorJson nombre(String nombre) {
+        separar();
+        cadena(nombre);
+        sb.append(':');
+        trasNombre = true;
+        return this;
+    }
+
+    private EscritorJson abrir(char c) {
+        separar();
+        sb.append(c);
+        nivel++;
+        primeroEnNivel |= 1L << nivel;
+        return this;
+    }
+
+    private EscritorJson cerrar(char c) {
+        sb.append(c);
+        nivel--;
+        return this;
+    }
+
+    // Coma antes de cada elemento salvo el primero del nivel o el valor de una propiedad
+    private void separar() {
+        if (trasNombre) {
+            trasNombre = false;
+            return;
+        }
+        long bit = 1L << nivel;
+        if ((primeroEnNivel & bit) != 0) {
+            primeroEnNivel &= ~bit;
+        } else {
+            sb.append(',');
+        }
+    }
+
+    // =========================================================================
+    // VALORES
+    // =========================================================================
+
+    public EscritorJson valor(String valor) {
+        separar();
+        if (valor == null) {
+            sb.append("null");
+        } else {
+            cadena(valor);
+        }
+        return this;
+    }
+
+    public EscritorJson valor(long valor) {
+        separar();
+        sb.append(valor);
+        return this;
+    }
+
+    public EscritorJson valor(double valor) {
+        separar();
+        if (Double.isFinite(valor)) {
+            sb.append(valor);
+        } else {
+            sb.append("null");                      // JSON no admite NaN ni infinitos
+        }
+        return this;
+    }
+
+    public EscritorJson valor(boolean valor) {
+        separar();
+        sb.append(valor);
+        return this;
+    }
+
+    public EscritorJson nulo() {
+        separar();
+        sb.append("null");
+        return this;
+    }
+
+    // Atajos para propiedades simples
+    public EscritorJson propiedad(String nombre, String valor) {
+        return nombre(nombre).valor(valor);
+    }
+
+    public EscritorJson propiedad(String nombre, long valor) {
+        return nombre(nombre).valor(valor);
+    }
+
+    public EscritorJson propiedad(String nombre, double valor) {
+        return nombre(nombre).valor(valor);
+    }
+
+    public EscritorJson propiedad(String nombre, boolean valor) {
+        return nombre(nombre).valor(valor);
+    }
+
+    private void cadena(String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    // =========================================================================
+    // SALIDA
+    // =========================================================================
+
+    public byte[] aBytes() {
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servidor;
+
+import Sesion.GestorSesiones;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// =============================================================================
+// PRUEBA DE CARGA DEL SERVIDOR
+// =============================================================================
+/**
+ * Lanza muchos clientes concurrentes, cada uno en un hilo virtual con su
+ * propia partida, contra un ServidorJuego en localhost. Los clientes
+ * arrancan a la vez y alternan robos del mazo con consultas de estado.
+ * Informa de throughput y de los percentiles de latencia.
+ *
+ * Uso: PruebaCarga [clientes=10000] [peticionesPorCliente=20] [puerto]
+ * Sin puerto, levanta un servidor propio en un puerto libre.
+ *
+ * Cada cliente mantiene una conexión abierta: el límite de descriptores de
+ * archivo del proceso (ulimit -n) debe superar el doble de clientes si el
+ * servidor corre en el mismo proceso.
+ */
+public class PruebaCarga {
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int peticiones = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        GestorSesiones gestor = null;
+        ServidorJuego servidor = null;
+        int puerto;
+        if (args.length > 2) {
+            puerto = Integer.parseInt(args[2]);
+        } else {
+            gestor = new GestorSesiones();
+            servidor = new ServidorJuego(0, clientes, gestor);
+            servidor.iniciar();
+            puerto = servidor.getPuerto();
+        }
+
+        try {
+            ejecutar("http://localhost:" + puerto, clientes, peticiones);
+        } finally {
+            if (servidor != null) {
+                servidor.close();
+                gestor.close();
+            }
+        }
+    }
+
+    private static void ejecutar(String base, int clientes, int peticiones) throws InterruptedException {
+        long[] latencias = new long[clientes * peticiones];
+        AtomicInteger siguiente = new AtomicInteger();
+        LongAdder errores = new LongAdder();
+        AtomicReference<Exception> primerError = new AtomicReference<>();
+        CountDownLatch listos = new CountDownLatch(clientes);
+        CountDownLatch salida = new CountDownLatch(1);
+
+        long inicio;
+        // El ejecutor se cierra primero (espera a los clientes) y después el HttpClient
+        try (HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+                ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                long numeroPartida = i;
+                hilos.submit(() -> {
+                    try {
+                        // Cada cliente crea su partida antes de la salida conjunta
+                        String id = crearPartida(http, base, numeroPartida);
+                        HttpRequest robar = HttpRequest.newBuilder(URI.create(base + "/partidas/" + id + "/mazo"))
+                                .POST(HttpRequest.BodyPublishers.noBody()).build();
+                        HttpRequest estado = HttpRequest.newBuilder(URI.create(base + "/partidas/" + id)).GET().build();
+                        listos.countDown();
+                        salida.await();
+
+                        for (int p = 0; p < peticiones; p++) {
+                            long t0 = System.nanoTime();
+                            HttpResponse<Void> respuesta = http.send(p % 2 == 0 ? robar : estado,
+                                    HttpResponse.BodyHandlers.discarding());
+                            latencias[siguiente.getAndIncrement()] = System.nanoTime() - t0;
+                            if (respuesta.statusCode() != 200) {
+                                errores.increment();
+                            }
+                        }
+                    } catch (Exception e) {
+                        errores.increment();
+                        primerError.compareAndSet(null, e);
+                        listos.countDown();
+                    }
+                    return null;
+                });
+            }
+            listos.await();
+            inicio = System.nanoTime();
+            salida.countDown();
+        }
+        long duracion = System.nanoTime() - inicio;
+
+        int medidas = siguiente.get();
+        long[] ordenadas = Arrays.copyOf(latencias, medidas);
+        Arrays.sort(ordenadas);
+        System.out.printf("clientes: %d | peticiones: %d | errores: %d | %.0f pet/s%n",
+                clientes, medidas, errores.sum(), medidas * 1e9 / duracion);
+        if (primerError.get() != null) {
+            System.out.println("primer error: " + primerError.get());
+        }
+        if (medidas > 0) {
+            System.out.printf("latencia ms -> p50: %.2f | p90: %.2f | p99: %.2f | p99.9: %.2f | máx: %.2f%n",
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.90), percentil(ordenadas, 0.99),
+                    percentil(ordenadas, 0.999), ordenadas[medidas - 1] / 1e6);
+        }
+    }
+
+    private static String crearPartida(HttpClient http, String base, long numeroPartida) throws Exception {
+        HttpRequest crear = HttpRequest.newBuilder(URI.create(base + "/partidas?partida=" + numeroPartida))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+        String cuerpo = http.send(crear, HttpResponse.BodyHandlers.ofString()).body();
+        // El id es la primera propiedad del estado: {"id":N,...
+        int inicio = cuerpo.indexOf(':') + 1;
+        return cuerpo.substring(inicio, cuerpo.indexOf(',', inicio));
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+}
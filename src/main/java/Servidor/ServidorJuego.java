@@ -0,0 +1,549 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Servidor;
+
+import AbstractFactory.Carta;
+import Builder.ReservaTableros;
+import Builder.TableroSolitario;
+import Clasificacion.ResultadoPartida;
+import Clasificacion.TablaClasificacion;
+import Controller.SolitarioController;
+import Metricas.MetricasJuego;
+import Motor.Movimiento;
+import Motor.Pista;
+import Persistencia.DiarioJugadas;
+import Sesion.CacheSesiones;
+import Sesion.GestorSesiones;
+import Sesion.SesionJuego;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// =============================================================================
+// SERVIDOR HTTP/JSON DEL JUEGO
+// =============================================================================
+/**
+ * API HTTP local sobre com.sun.net.httpserver.HttpServer. Cada petición se
+ * atiende en un hilo virtual y se ejecuta en el buzón de su sesión del
+ * GestorSesiones, así que las partidas no comparten cerrojos. Las respuestas
+ * se escriben con EscritorJson, sin reflexión.
+ *
+ * Rutas:
+ * <pre>
+ *   POST   /partidas[?partida=N]                      crea una partida
+ *   GET    /partidas/{id}                             estado de la partida
+ *   DELETE /partidas/{id}                             cierra la partida
+ *   POST   /partidas/{id}/mazo                        pasarCartasDelMazo
+ *   POST   /partidas/{id}/descarte/seleccionar        seleccionarCartaDescarte
+ *   POST   /partidas/{id}/tableau/{col}/seleccionar?indice=N  seleccionarCartasTableau
+ *   POST   /partidas/{id}/tableau/{col}               moverATableau
+ *   POST   /partidas/{id}/fundaciones/{i}             moverAFundacion
+ *   GET    /partidas/{id}/sugerencias                 buscarMovimientosAutomaticos
+ *   GET    /partidas/{id}/pistas                      obtenerPistas (movimientos ordenados)
+ *   POST   /partidas/{id}/reiniciar[?partida=N]       reiniciarJuego
+ *   POST   /partidas/{id}/autocompletar               autocompletar
+ *   POST   /partidas/{id}/deshacer                    deshacer
+ *   POST   /partidas/{id}/rehacer                     rehacer
+ *   POST   /partidas/{id}/clasificacion               registra el resultado en la clasificación
+ *   GET    /clasificacion                             categorías de la clasificación
+ *   GET    /clasificacion?categoria=C[&n=N]           mejores resultados de una categoría
+ *   GET    /metricas                                  métricas del gestor de sesiones
+ * </pre>
+ * Columnas, fundaciones e índices empiezan en 0.
+ */
+public class ServidorJuego implements AutoCloseable {
+
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+
+    // Por defecto el HttpServer del JDK cierra las conexiones inactivas por
+    // encima de 200, y los clientes que las reutilizan reciben errores. Se
+    // amplía el límite salvo que ya esté configurado.
+    static {
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "100000");
+        }
+    }
+
+    private final HttpServer servidor;
+    private final GestorSesiones gestor;
+    private final TablaClasificacion clasificacion;     // null si el servidor no guarda clasificación
+    private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param puerto puerto local (0 = elegir uno libre)
+     * @param backlog conexiones pendientes de aceptar (0 = valor del sistema)
+     * @param gestor sesiones que atiende el servidor
+     * @param clasificacion tabla donde se registran los resultados (puede ser null)
+     */
+    public ServidorJuego(int puerto, int backlog, GestorSesiones gestor, TablaClasificacion clasificacion)
+            throws IOException {
+        this.gestor = gestor;
+        this.clasificacion = clasificacion;
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), backlog);
+        this.servidor.createContext("/", this::atender);
+        this.servidor.setExecutor(ejecutor);
+    }
+
+    public ServidorJuego(int puerto, int backlog, GestorSesiones gestor) throws IOException {
+        this(puerto, backlog, gestor, null);
+    }
+
+    public ServidorJuego(int puerto, GestorSesiones gestor) throws IOException {
+        this(puerto, 0, gestor, null);
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        ejecutor.close();
+    }
+
+    // =========================================================================
+    // ENRUTADO
+    // =========================================================================
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            String[] ruta = intercambio.getRequestURI().getPath().substring(1).split("/");
+            String consulta = intercambio.getRequestURI().getRawQuery();
+            String metodo = intercambio.getRequestMethod();
+            try {
+                if (ruta.length == 1 && ruta[0].equals("metricas")) {
+                    exigirMetodo(metodo, "GET");
+                    responder(intercambio, 200, escribirMetricas());
+                } else if (ruta.length == 1 && ruta[0].equals("clasificacion")) {
+                    exigirMetodo(metodo, "GET");
+                    responder(intercambio, 200, consultarClasificacion(consulta));
+                } else if (ruta[0].equals("partidas")) {
+                    atenderPartidas(intercambio, metodo, ruta, consulta);
+                } else {
+                    responderError(intercambio, 404, "Ruta desconocida");
+                }
+            } catch (NumberFormatException e) {
+                responderError(intercambio, 400, "Parámetro numérico inválido");
+            } catch (PeticionInvalida e) {
+                responderError(intercambio, e.codigo, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                responderError(intercambio, 503, "Servidor detenido");
+            }
+        }
+    }
+
+    private void atenderPartidas(HttpExchange intercambio, String metodo, String[] ruta, String consulta)
+            throws IOException, InterruptedException {
+        if (ruta.length == 1) {
+            exigirMetodo(metodo, "POST");
+            String partida = parametro(consulta, "partida");
+            SesionJuego sesion;
+            try {
+                sesion = partida == null
+                        ? gestor.crearSesion()
+                        : gestor.crearSesion(Long.parseUnsignedLong(partida));
+            } catch (IllegalStateException e) {
+                throw new PeticionInvalida(500, e.getMessage()); // El reparto no pasó la validación
+            }
+            responder(intercambio, 201, comando(sesion, c -> escribirEstado(sesion.getId(), c)));
+            return;
+        }
+
+        long id = Long.parseLong(ruta[1]);
+        byte[] cuerpo;
+        if (ruta.length == 2) {
+            if (metodo.equals("DELETE")) {
+                if (!gestor.cerrarSesion(id)) {
+                    throw new PeticionInvalida(404, "No existe la sesión " + id);
+                }
+                responder(intercambio, 204, null);
+                return;
+            }
+            exigirMetodo(metodo, "GET");
+            cuerpo = comando(id, c -> escribirEstado(id, c));
+        } else if (ruta.length == 3 && ruta[2].equals("sugerencias")) {
+            exigirMetodo(metodo, "GET");
+            cuerpo = comando(id, c -> escribirSugerencias(c.buscarMovimientosAutomaticos()));
+        } else if (ruta.length == 3 && ruta[2].equals("clasificacion")) {
+            exigirMetodo(metodo, "POST");
+            TablaClasificacion tabla = exigirClasificacion();
+            cuerpo = comando(id, c -> escribirRegistro(tabla, c.obtenerResultadoFinal()));
+        } else if (ruta.length == 3 && ruta[2].equals("pistas")) {
+            exigirMetodo(metodo, "GET");
+            cuerpo = comando(id, c -> escribirPistas(c.obtenerPistas()));
+        } else {
+            exigirMetodo(metodo, "POST");
+            cuerpo = comando(id, accion(id, ruta, consulta));
+        }
+        responder(intercambio, 200, cuerpo);
+    }
+
+    /**
+     * Traduce la ruta de una acción POST a un comando sobre el controlador
+     */
+    private Function<SolitarioController, byte[]> accion(long id, String[] ruta, String consulta) {
+        String recurso = ruta[2];
+        if (ruta.length == 3) {
+            switch (recurso) {
+                case "mazo":
+                    return c -> escribirResultado(id, c, c.pasarCartasDelMazo());
+                case "autocompletar":
+                    return c -> escribirAutocompletado(id, c, c.autocompletar());
+                case "deshacer":
+                    return c -> escribirResultado(id, c, c.deshacer());
+                case "rehacer":
+                    return c -> escribirResultado(id, c, c.rehacer());
+                case "reiniciar": {
+                    String partida = parametro(consulta, "partida");
+                    if (partida == null) {
+                        return c -> {
+                            c.reiniciarJuego();
+                            return escribirResultado(id, c, true);
+                        };
+                    }
+                    long numeroPartida = Long.parseUnsignedLong(partida);
+                    return c -> {
+                        c.reiniciarJuego(numeroPartida);
+                        return escribirResultado(id, c, true);
+                    };
+                }
+                default:
+                    break;
+            }
+        } else if (ruta.length == 4 && recurso.equals("descarte") && ruta[3].equals("seleccionar")) {
+            return c -> escribirResultado(id, c, c.seleccionarCartaDescarte());
+        } else if (ruta.length == 4 && recurso.equals("fundaciones")) {
+            int fundacion = Integer.parseInt(ruta[3]);
+            return c -> escribirResultado(id, c, c.moverAFundacion(fundacion));
+        } else if (recurso.equals("tableau")) {
+            int columna = Integer.parseInt(ruta[3]);
+            if (ruta.length == 4) {
+                return c -> escribirResultado(id, c, c.moverATableau(columna));
+            }
+            if (ruta.length == 5 && ruta[4].equals("seleccionar")) {
+                String indice = parametro(consulta, "indice");
+                if (indice == null) {
+                    throw new PeticionInvalida(400, "Falta el parámetro indice");
+                }
+                int fila = Integer.parseInt(indice);
+                return c -> escribirResultado(id, c, c.seleccionarCartasTableau(columna, fila));
+            }
+        }
+        throw new PeticionInvalida(404, "Ruta desconocida");
+    }
+
+    private byte[] comando(long id, Function<SolitarioController, byte[]> comando) throws InterruptedException {
+        SesionJuego sesion = gestor.obtener(id);
+        if (sesion == null) {
+            throw new PeticionInvalida(404, "No existe la sesión " + id);
+        }
+        return comando(sesion, comando);
+    }
+
+    /**
+     * Ejecuta el comando en la sesión y traduce su fallo a un código HTTP:
+     * 410 si la sesión se cerró antes de ejecutarlo, 400 si el controlador
+     * rechaza los argumentos y 500 para el resto
+     */
+    private static byte[] comando(SesionJuego sesion, Function<SolitarioController, byte[]> comando)
+            throws InterruptedException {
+        try {
+            return sesion.ejecutar(comando).get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IllegalStateException && sesion.estaCerrada()) {
+                throw new PeticionInvalida(410, "La sesión " + sesion.getId() + " está cerrada");
+            }
+            throw new PeticionInvalida(causa instanceof IllegalArgumentException ? 400 : 500,
+                    String.valueOf(causa.getMessage()));
+        }
+    }
+
+    private TablaClasificacion exigirClasificacion() {
+        if (clasificacion == null) {
+            throw new PeticionInvalida(404, "El servidor no guarda clasificación");
+        }
+        return clasificacion;
+    }
+
+    private byte[] consultarClasificacion(String consulta) {
+        TablaClasificacion tabla = exigirClasificacion();
+        String categoria = parametro(consulta, "categoria");
+        if (categoria == null) {
+            EscritorJson json = new EscritorJson(256).inicioObjeto()
+                    .propiedad("resultados", tabla.getTotalResultados())
+                    .nombre("categorias").inicioArreglo();
+            for (String nombre : tabla.getCategorias()) {
+                json.valor(nombre);
+            }
+            return json.finArreglo().finObjeto().aBytes();
+        }
+        String n = parametro(consulta, "n");
+        categoria = URLDecoder.decode(categoria, StandardCharsets.UTF_8);
+        List<ResultadoPartida> mejores = tabla.getMejores(categoria, n == null ? 10 : Integer.parseInt(n));
+        EscritorJson json = new EscritorJson(1024).inicioObjeto()
+                .propiedad("categoria", categoria)
+                .nombre("mejores").inicioArreglo();
+        for (ResultadoPartida resultado : mejores) {
+            escribirResultadoPartida(json, resultado);
+        }
+        return json.finArreglo().finObjeto().aBytes();
+    }
+
+    private static void exigirMetodo(String metodo, String esperado) {
+        if (!metodo.equals(esperado)) {
+            throw new PeticionInvalida(405, "Método no permitido: " + metodo);
+        }
+    }
+
+    // Valor de un parámetro de la consulta o null si no aparece
+    private static String parametro(String consulta, String nombre) {
+        if (consulta == null) {
+            return null;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0 && par.regionMatches(0, nombre, 0, igual) && igual == nombre.length()) {
+                return par.substring(igual + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void responder(HttpExchange intercambio, int codigo, byte[] cuerpo) throws IOException {
+        if (cuerpo == null) {
+            intercambio.sendResponseHeaders(codigo, -1);
+            return;
+        }
+        intercambio.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        intercambio.sendResponseHeaders(codigo, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    private static void responderError(HttpExchange intercambio, int codigo, String mensaje) throws IOException {
+        responder(intercambio, codigo, new EscritorJson(64).inicioObjeto()
+                .propiedad("error", mensaje).finObjeto().aBytes());
+    }
+
+    // =========================================================================
+    // SERIALIZACIÓN
+    // =========================================================================
+
+    private static byte[] escribirResultado(long id, SolitarioController c, boolean resultado) {
+        EscritorJson json = new EscritorJson(2048).inicioObjeto().propiedad("resultado", resultado).nombre("estado");
+        escribirEstado(json, id, c);
+        return json.finObjeto().aBytes();
+    }
+
+    private static byte[] escribirAutocompletado(long id, SolitarioController c, int[] movimientos) {
+        EscritorJson json = new EscritorJson(2048).inicioObjeto().nombre("movimientos").inicioArreglo();
+        for (int movimiento : movimientos) {
+            json.valor(Movimiento.describir(movimiento));
+        }
+        json.finArreglo().nombre("estado");
+        escribirEstado(json, id, c);
+        return json.finObjeto().aBytes();
+    }
+
+    private static byte[] escribirEstado(long id, SolitarioController c) {
+        EscritorJson json = new EscritorJson(2048);
+        escribirEstado(json, id, c);
+        return json.aBytes();
+    }
+
+    /**
+     * Escribe el estado visible de una partida. Las cartas boca abajo se
+     * escriben como null.
+     */
+    private static void escribirEstado(EscritorJson json, long id, SolitarioController c) {
+        c.consultarTablero(tablero -> escribirEstado(json, id, c, tablero));
+    }
+
+    private static EscritorJson escribirEstado(EscritorJson json, long id, SolitarioController c,
+            TableroSolitario tablero) {
+        json.inicioObjeto()
+                .propiedad("id", id)
+                .propiedad("partida", Long.toUnsignedString(c.getNumeroPartida()))
+                .propiedad("estrategia", c.getEstrategiaActual().getNombre())
+                .propiedad("movimientos", c.getMovimientos())
+                .propiedad("puntuacion", c.getPuntuacion())
+                .propiedad("victoria", c.esVictoria())
+                .propiedad("mazo", tablero.getMazo().size());
+
+        List<Carta> descarte = tablero.getDescarte();
+        json.propiedad("cartasDescarte", descarte.size()).nombre("descarte");
+        escribirCarta(json, tablero, descarte.isEmpty() ? null : descarte.get(descarte.size() - 1));
+
+        json.nombre("fundaciones").inicioArreglo();
+        for (List<Carta> fundacion : tablero.getFundaciones()) {
+            escribirCarta(json, tablero, fundacion.isEmpty() ? null : fundacion.get(fundacion.size() - 1));
+        }
+        json.finArreglo();
+
+        json.nombre("tableau").inicioArreglo();
+        for (List<Carta> columna : tablero.getTableau()) {
+            json.inicioArreglo();
+            for (Carta carta : columna) {
+                escribirCarta(json, tablero, carta);
+            }
+            json.finArreglo();
+        }
+        json.finArreglo();
+
+        json.nombre("seleccion").inicioArreglo();
+        for (Carta carta : c.getCartasSeleccionadas()) {
+            escribirCarta(json, tablero, carta);
+        }
+        return json.finArreglo().finObjeto();
+    }
+
+    private static void escribirCarta(EscritorJson json, TableroSolitario tablero, Carta carta) {
+        if (carta == null || !tablero.estaVolteada(carta)) {
+            json.nulo();
+            return;
+        }
+        json.inicioObjeto()
+                .propiedad("valor", carta.getValor())
+                .propiedad("palo", carta.getPalo())
+                .propiedad("texto", carta.getNombreValor() + carta.getSimboloPalo())
+                .finObjeto();
+    }
+
+    private static byte[] escribirSugerencias(List<String> sugerencias) {
+        EscritorJson json = new EscritorJson(256).inicioObjeto().nombre("sugerencias").inicioArreglo();
+        for (String sugerencia : sugerencias) {
+            json.valor(sugerencia);
+        }
+        return json.finArreglo().finObjeto().aBytes();
+    }
+
+    // Registra el resultado en la tabla; el resultado es null si esta partida ya se registró
+    private static byte[] escribirRegistro(TablaClasificacion tabla, ResultadoPartida resultado) {
+        EscritorJson json = new EscritorJson(256).inicioObjeto();
+        if (resultado == null) {
+            return json.propiedad("registrado", false).finObjeto().aBytes();
+        }
+        int posicion;
+        try {
+            posicion = tabla.registrar(resultado);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        json.propiedad("registrado", true).propiedad("posicion", posicion).nombre("resultado");
+        escribirResultadoPartida(json, resultado);
+        return json.finObjeto().aBytes();
+    }
+
+    private static void escribirResultadoPartida(EscritorJson json, ResultadoPartida resultado) {
+        json.inicioObjeto()
+                .propiedad("puntuacion", resultado.getPuntuacion())
+                .propiedad("movimientos", resultado.getMovimientos())
+                .propiedad("tiempoMs", resultado.getTiempoMs())
+                .propiedad("partida", Long.toUnsignedString(resultado.getNumeroPartida()))
+                .propiedad("victoria", resultado.esVictoria())
+                .propiedad("fecha", resultado.getFecha())
+                .finObjeto();
+    }
+
+    private static byte[] escribirPistas(List<Pista> pistas) {
+        EscritorJson json = new EscritorJson(256).inicioObjeto().nombre("pistas").inicioArreglo();
+        for (Pista pista : pistas) {
+            json.inicioObjeto()
+                    .propiedad("movimiento", pista.getMovimiento())
+                    .propiedad("origen", Movimiento.nombrePila(pista.getOrigen()))
+                    .propiedad("destino", Movimiento.nombrePila(pista.getDestino()))
+                    .propiedad("cantidad", pista.getCantidad())
+                    .propiedad("prioridad", pista.getPrioridad())
+                    .propiedad("descripcion", pista.describir())
+                    .finObjeto();
+        }
+        return json.finArreglo().finObjeto().aBytes();
+    }
+
+    private byte[] escribirMetricas() {
+        EscritorJson json = new EscritorJson(512).inicioObjeto()
+                .propiedad("sesionesActivas", gestor.getSesionesActivas())
+                .propiedad("comandosEnCola", gestor.getComandosEnCola())
+                .propiedad("colaMaxima", gestor.getColaMaxima())
+                .propiedad("comandosEjecutados", gestor.getComandosEjecutados())
+                .propiedad("latenciaMediaMicros", gestor.getLatenciaMediaNanos() / 1_000)
+                .propiedad("latenciaMaximaMicros", gestor.getLatenciaMaximaNanos() / 1_000)
+                .propiedad("sesionesExpulsadas", gestor.getSesionesExpulsadas())
+                .propiedad("sesionesSinGuardar", gestor.getSesionesSinGuardar())
+                .propiedad("metricasJmx", MetricasJuego.get().estanPublicadas());
+        CacheSesiones cache = gestor.getCache();
+        if (cache != null) {
+            json.nombre("cache").inicioObjeto()
+                    .propiedad("vivas", cache.getSesionesVivas())
+                    .propiedad("compactas", cache.getSesionesCompactas())
+                    .propiedad("enDisco", cache.getSesionesEnDisco())
+                    .propiedad("bytesCompactas", cache.getBytesCompactas())
+                    .propiedad("bytesEnDisco", cache.getBytesEnDisco())
+                    .propiedad("compactaciones", cache.getCompactaciones())
+                    .propiedad("compactacionesPorPresupuesto", cache.getCompactacionesPorPresupuesto())
+                    .propiedad("volcados", cache.getVolcados())
+                    .propiedad("volcadosPorPresupuesto", cache.getVolcadosPorPresupuesto())
+                    .propiedad("fallosDesbordamiento", cache.getFallosDesbordamiento())
+                    .propiedad("fallosCompactacion", cache.getFallosCompactacion())
+                    .propiedad("rehidrataciones", cache.getRehidrataciones())
+                    .propiedad("rehidratacionesDesdeDisco", cache.getRehidratacionesDesdeDisco())
+                    .propiedad("rehidratacionP99Micros", cache.getLatenciaRehidratacion().getP99Nanos() / 1_000)
+                    .finObjeto();
+        }
+        DiarioJugadas diario = gestor.getDiario();
+        if (diario != null) {
+            json.nombre("diario").inicioObjeto()
+                    .propiedad("sano", diario.estaSano())
+                    .propiedad("segmento", diario.getSegmento())
+                    .propiedad("noReproducidos", gestor.getRegistrosNoReproducidos())
+                    .finObjeto();
+        }
+        json.nombre("reservasTableros").inicioArreglo();
+        for (ReservaTableros reserva : SolitarioController.getReservas()) {
+            json.inicioObjeto()
+                    .propiedad("baraja", reserva.getFactory().getClass().getSimpleName())
+                    .propiedad("disponibles", reserva.getDisponibles())
+                    .propiedad("capacidad", reserva.getCapacidad())
+                    .propiedad("aciertos", reserva.getAciertos())
+                    .propiedad("fallos", reserva.getFallos())
+                    .propiedad("tasaAciertos", reserva.getTasaAciertos())
+                    .finObjeto();
+        }
+        return json.finArreglo().finObjeto().aBytes();
+    }
+
+    /**
+     * Error de la petición con su código HTTP
+     */
+    private static final class PeticionInvalida extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int codigo;
+
+        PeticionInvalida(int codigo, String mensaje) {
+            super(mensaje, null, false, false);
+            this.codigo = codigo;
+        }
+    }
+}
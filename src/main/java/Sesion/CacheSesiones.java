@@ -0,0 +1,344 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Sesion;
+
+import Controller.SolitarioController;
+import Metricas.HistogramaLatencia;
+import Persistencia.ArchivoDesbordamiento;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// =============================================================================
+// CACHE DE SESIONES POR NIVELES
+// =============================================================================
+/**
+ * Decide qué partidas del GestorSesiones siguen vivas en el heap y cuáles
+ * se degradan (ver SesionJuego):
+ * <ul>
+ *   <li>VIVA → COMPACTA tras la inactividad indicada, o antes si hay más
+ *       partidas vivas que el presupuesto (primero las usadas hace más tiempo).</li>
+ *   <li>COMPACTA → EN_DISCO tras la segunda inactividad, o antes si los
+ *       registros compactos superan su presupuesto de bytes.</li>
+ * </ul>
+ * Las degradaciones las hace ajustar(), llamada periódicamente por quien
+ * aloja el gestor y también cuando las rehidrataciones superan el
+ * presupuesto de vivas. Una sesión con comandos pendientes nunca se degrada.
+ * Sin archivo de desbordamiento no hay nivel EN_DISCO y los registros
+ * compactos se quedan en el heap.
+ */
+public class CacheSesiones implements AutoCloseable {
+
+    /**
+     * Bytes de heap estimados de una partida compacta (el registro y la
+     * cabecera de su array)
+     */
+    public static final long BYTES_COMPACTA = SolitarioController.TAMANO_SESION + 16;
+
+    private final int maxVivas;
+    private final long maxBytesCompactas;
+    private final long inactividadCompactaNanos;
+    private final long inactividadDiscoNanos;
+    private final ArchivoDesbordamiento desbordamiento; // null: sin nivel EN_DISCO
+    private final int margenVivas;                  // Exceso tolerado antes de ajustar fuera de plazo
+
+    private final AtomicInteger[] porNivel = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+    private final AtomicBoolean ajustando = new AtomicBoolean();
+
+    // Métricas
+    private final LongAdder compactaciones = new LongAdder();
+    private final LongAdder compactacionesPorPresupuesto = new LongAdder();
+    private final LongAdder volcados = new LongAdder();
+    private final LongAdder volcadosPorPresupuesto = new LongAdder();
+    private final LongAdder fallosDesbordamiento = new LongAdder();
+    private final LongAdder fallosCompactacion = new LongAdder();
+    private final LongAdder rehidratacionesDesdeDisco = new LongAdder();
+    private final HistogramaLatencia latenciaRehidratacion = new HistogramaLatencia();
+
+    /**
+     * Cache sin nivel de disco
+     * @param maxVivas partidas vivas como máximo tras cada ajuste
+     * @param inactividadCompacta inactividad tras la que una partida se compacta
+     */
+    public CacheSesiones(int maxVivas, long inactividadCompacta, TimeUnit unidad) {
+        this(maxVivas, Long.MAX_VALUE, inactividadCompacta, Long.MAX_VALUE, unidad, (ArchivoDesbordamiento) null);
+    }
+
+    /**
+     * @param maxVivas partidas vivas como máximo tras cada ajuste
+     * @param maxBytesCompactas bytes de heap para registros compactos (ver BYTES_COMPACTA)
+     * @param inactividadCompacta inactividad tras la que una partida se compacta
+     * @param inactividadDisco inactividad tras la que una partida compacta se vuelca a disco
+     * @param desbordamiento archivo de trabajo para el nivel EN_DISCO; se vacía al abrirlo
+     */
+    public CacheSesiones(int maxVivas, long maxBytesCompactas, long inactividadCompacta, long inactividadDisco,
+            TimeUnit unidad, Path desbordamiento) throws IOException {
+        this(maxVivas, maxBytesCompactas, inactividadCompacta, inactividadDisco, unidad,
+                new ArchivoDesbordamiento(desbordamiento));
+    }
+
+    private CacheSesiones(int maxVivas, long maxBytesCompactas, long inactividadCompacta, long inactividadDisco,
+            TimeUnit unidad, ArchivoDesbordamiento desbordamiento) {
+        if (maxVivas < 0 || maxBytesCompactas < 0 || inactividadCompacta < 0 || inactividadDisco < 0) {
+            throw new IllegalArgumentException("Los presupuestos y las inactividades no pueden ser negativos");
+        }
+        this.maxVivas = maxVivas;
+        this.maxBytesCompactas = maxBytesCompactas;
+        this.inactividadCompactaNanos = unidad.toNanos(inactividadCompacta);
+        this.inactividadDiscoNanos = unidad.toNanos(inactividadDisco);
+        this.margenVivas = Math.max(1, maxVivas / 16);
+        this.desbordamiento = desbordamiento;
+    }
+
+    // =========================================================================
+    // AJUSTE
+    // =========================================================================
+
+    /**
+     * Degrada las partidas inactivas y luego las menos usadas hasta cumplir
+     * los presupuestos. Si ya hay un ajuste en curso no hace nada. Una
+     * partida que no se puede degradar se queda donde está, se cuenta en
+     * getFallosCompactacion() o getFallosDesbordamiento() y el ajuste sigue
+     * con las demás.
+     * @return cantidad de partidas que bajaron de nivel
+     */
+    int ajustar(Collection<SesionJuego> sesiones) {
+        if (!ajustando.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            List<Candidata> vivas = new ArrayList<>();
+            List<Candidata> compactas = new ArrayList<>();
+            int degradadas = 0;
+            for (SesionJuego sesion : sesiones) {
+                if (sesion.getComandosPendientes() > 0 || sesion.estaCerrada()) {
+                    continue;                           // Ocupada: está caliente
+                }
+                Candidata candidata = new Candidata(sesion);
+                long inactividad = System.nanoTime() - candidata.ultimoAcceso;
+                if (sesion.getNivel() == SesionJuego.VIVA) {
+                    if (inactividad <= inactividadCompactaNanos || !compactar(sesion, false)) {
+                        vivas.add(candidata);
+                        continue;
+                    }
+                    degradadas++;
+                }
+                if (sesion.getNivel() == SesionJuego.COMPACTA) {
+                    if (desbordamiento != null && inactividad > inactividadDiscoNanos && volcar(sesion, false)) {
+                        degradadas++;
+                    } else {
+                        compactas.add(candidata);
+                    }
+                }
+            }
+
+            // Presupuestos: salen primero las usadas hace más tiempo (LRU)
+            if (getSesionesVivas() > maxVivas) {
+                vivas.sort(Comparator.comparingLong(c -> c.ultimoAcceso));
+                for (int i = 0; i < vivas.size() && getSesionesVivas() > maxVivas; i++) {
+                    if (compactar(vivas.get(i).sesion, true)) {
+                        compactas.add(vivas.get(i));
+                        degradadas++;
+                    }
+                }
+            }
+            if (desbordamiento != null && getBytesCompactas() > maxBytesCompactas) {
+                compactas.sort(Comparator.comparingLong(c -> c.ultimoAcceso));
+                for (int i = 0; i < compactas.size() && getBytesCompactas() > maxBytesCompactas; i++) {
+                    if (volcar(compactas.get(i).sesion, true)) {
+                        degradadas++;
+                    }
+                }
+            }
+            return degradadas;
+        } finally {
+            ajustando.set(false);
+        }
+    }
+
+    /**
+     * Hay bastantes más partidas vivas que el presupuesto y ningún ajuste en
+     * curso: conviene ajustar sin esperar al próximo periódico
+     */
+    boolean necesitaAjuste() {
+        return getSesionesVivas() > maxVivas + margenVivas && !ajustando.get();
+    }
+
+    private boolean compactar(SesionJuego sesion, boolean porPresupuesto) {
+        boolean[] hecho = new boolean[1];
+        try {
+            if (!sesion.ejecutarSiLibre(() -> hecho[0] = sesion.compactar()) || !hecho[0]) {
+                return false;
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // No se puede serializar (p. ej. una pieza fuera del catálogo): sigue viva
+            fallosCompactacion.increment();
+            return false;
+        }
+        compactaciones.increment();
+        if (porPresupuesto) {
+            compactacionesPorPresupuesto.increment();
+        }
+        return true;
+    }
+
+    private boolean volcar(SesionJuego sesion, boolean porPresupuesto) {
+        boolean[] hecho = new boolean[1];
+        try {
+            if (!sesion.ejecutarSiLibre(() -> hecho[0] = sesion.volcar()) || !hecho[0]) {
+                return false;
+            }
+        } catch (UncheckedIOException e) {
+            // Disco lleno o archivo roto: se queda compacta hasta el próximo ajuste
+            fallosDesbordamiento.increment();
+            return false;
+        }
+        volcados.increment();
+        if (porPresupuesto) {
+            volcadosPorPresupuesto.increment();
+        }
+        return true;
+    }
+
+    // =========================================================================
+    // AVISOS DE LAS SESIONES
+    // =========================================================================
+
+    // Una sesión cambió de nivel; -1 como origen es una sesión nueva y como destino una cerrada
+    void cambioNivel(int anterior, int nuevo) {
+        if (anterior >= 0) {
+            porNivel[anterior].decrementAndGet();
+        }
+        if (nuevo >= 0) {
+            porNivel[nuevo].incrementAndGet();
+        }
+    }
+
+    void rehidratada(int anterior, long nanos) {
+        cambioNivel(anterior, SesionJuego.VIVA);
+        if (anterior == SesionJuego.EN_DISCO) {
+            rehidratacionesDesdeDisco.increment();
+        }
+        latenciaRehidratacion.registrar(nanos);
+    }
+
+    ArchivoDesbordamiento getDesbordamiento() {
+        return desbordamiento;
+    }
+
+    // =========================================================================
+    // MÉTRICAS
+    // =========================================================================
+
+    public int getMaxVivas() {
+        return maxVivas;
+    }
+
+    public long getMaxBytesCompactas() {
+        return maxBytesCompactas;
+    }
+
+    public int getSesionesVivas() {
+        return porNivel[SesionJuego.VIVA].get();
+    }
+
+    public int getSesionesCompactas() {
+        return porNivel[SesionJuego.COMPACTA].get();
+    }
+
+    public int getSesionesEnDisco() {
+        return porNivel[SesionJuego.EN_DISCO].get();
+    }
+
+    /**
+     * Heap estimado de los registros compactos
+     */
+    public long getBytesCompactas() {
+        return getSesionesCompactas() * BYTES_COMPACTA;
+    }
+
+    /**
+     * Tamaño del archivo de desbordamiento (0 sin nivel de disco)
+     */
+    public long getBytesEnDisco() {
+        return desbordamiento == null ? 0 : desbordamiento.getTamanoArchivo();
+    }
+
+    /**
+     * Partidas vivas compactadas, por inactividad o por presupuesto
+     */
+    public long getCompactaciones() {
+        return compactaciones.sum();
+    }
+
+    public long getCompactacionesPorPresupuesto() {
+        return compactacionesPorPresupuesto.sum();
+    }
+
+    /**
+     * Partidas compactas volcadas a disco, por inactividad o por presupuesto
+     */
+    public long getVolcados() {
+        return volcados.sum();
+    }
+
+    public long getVolcadosPorPresupuesto() {
+        return volcadosPorPresupuesto.sum();
+    }
+
+    public long getFallosDesbordamiento() {
+        return fallosDesbordamiento.sum();
+    }
+
+    public long getFallosCompactacion() {
+        return fallosCompactacion.sum();
+    }
+
+    /**
+     * Partidas degradadas que un comando devolvió a memoria viva
+     */
+    public long getRehidrataciones() {
+        return latenciaRehidratacion.getConteo();
+    }
+
+    public long getRehidratacionesDesdeDisco() {
+        return rehidratacionesDesdeDisco.sum();
+    }
+
+    public HistogramaLatencia getLatenciaRehidratacion() {
+        return latenciaRehidratacion;
+    }
+
+    /**
+     * Borra el archivo de desbordamiento. Solo después de cerrar el gestor
+     * (y de su último checkpoint, que lee las partidas volcadas).
+     */
+    @Override
+    public void close() throws IOException {
+        if (desbordamiento != null) {
+            desbordamiento.close();
+        }
+    }
+
+    // Sesión con su último acceso fijado: ordenar por un valor que cambia rompe el ordenamiento
+    private static final class Candidata {
+
+        final SesionJuego sesion;
+        final long ultimoAcceso;
+
+        Candidata(SesionJuego sesion) {
+            this.sesion = sesion;
+            this.ultimoAcceso = sesion.getUltimoAcceso();
+        }
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Sesion;
+
+import Controller.SolitarioController;
+import Persistencia.AlmacenSesiones;
+import Persistencia.DiarioJugadas;
+import Persistencia.LoteSesiones;
+import Persistencia.RecuperacionSesiones;
+import Persistencia.RegistradorSesion;
+import Persistencia.SesionGuardada;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// =============================================================================
+// GESTOR DE SESIONES
+// =============================================================================
+/**
+ * Aloja miles de partidas concurrentes, cada una en su SesionJuego. Crea,
+ * busca y expulsa sesiones por id sobre un ConcurrentHashMap, y ejecuta los
+ * comandos de cada sesión en hilos virtuales: una sesión ocupada usa un hilo
+ * virtual mientras vacía su buzón y una inactiva no usa ninguno.
+ *
+ * Expone métricas de sesiones activas, comandos en cola y latencia de los
+ * comandos (desde que se encolan hasta que terminan).
+ *
+ * Con un DiarioJugadas, cada cambio de cada partida se anota en el diario
+ * entre checkpoints y restaurarSesiones() reconstruye las sesiones vivas en
+ * el momento de una caída.
+ *
+ * Con una CacheSesiones, las partidas inactivas salen del heap a un registro
+ * compacto o a disco y vuelven al recibir un comando; ajustarCache() aplica
+ * sus presupuestos.
+ */
+public class GestorSesiones implements AutoCloseable {
+
+    private final Map<Long, SesionJuego> sesiones = new ConcurrentHashMap<>();
+    private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Supplier<SolitarioController> fabricaControladores;
+    private final DiarioJugadas diario;             // null: sin diario entre checkpoints
+    private final CacheSesiones cache;              // null: todas las partidas siempre vivas
+    private final AtomicLong siguienteId = new AtomicLong(1);
+
+    // Métricas
+    private final LongAdder comandosEjecutados = new LongAdder();
+    private final LongAdder latenciaTotalNanos = new LongAdder();
+    private final AtomicLong latenciaMaximaNanos = new AtomicLong();
+    private final LongAdder sesionesExpulsadas = new LongAdder();
+    private final LongAdder sesionesSinGuardar = new LongAdder();
+    private volatile int registrosNoReproducidos;  // Del diario en la última restauración
+
+    /**
+     * Gestor con la configuración estándar del controlador
+     */
+    public GestorSesiones() {
+        this(SolitarioController::new);
+    }
+
+    /**
+     * @param fabricaControladores crea el controlador de cada sesión nueva
+     */
+    public GestorSesiones(Supplier<SolitarioController> fabricaControladores) {
+        this(fabricaControladores, null);
+    }
+
+    /**
+     * @param fabricaControladores crea el controlador de cada sesión nueva
+     * @param diario diario donde se anotan las jugadas de todas las sesiones (o null)
+     */
+    public GestorSesiones(Supplier<SolitarioController> fabricaControladores, DiarioJugadas diario) {
+        this(fabricaControladores, diario, null);
+    }
+
+    /**
+     * @param fabricaControladores crea el controlador de cada sesión nueva
+     * @param diario diario donde se anotan las jugadas de todas las sesiones (o null)
+     * @param cache niveles de memoria para las partidas inactivas (o null)
+     */
+    public GestorSesiones(Supplier<SolitarioController> fabricaControladores, DiarioJugadas diario,
+            CacheSesiones cache) {
+        this.fabricaControladores = fabricaControladores;
+        this.diario = diario;
+        this.cache = cache;
+    }
+
+    // =========================================================================
+    // CICLO DE VIDA DE LAS SESIONES
+    // =========================================================================
+
+    /**
+     * Crea una sesión con un reparto aleatorio
+     */
+    public SesionJuego crearSesion() {
+        return publicar(fabricaControladores.get());
+    }
+
+    /**
+     * Crea una sesión con el reparto de un número de partida concreto. El
+     * reparto se hace antes de publicar la sesión: si falla, la excepción
+     * llega a quien llama y no queda ninguna sesión creada.
+     */
+    public SesionJuego crearSesion(long numeroPartida) {
+        SolitarioController controller = fabricaControladores.get();
+        controller.reiniciarJuego(numeroPartida);
+        return publicar(controller);
+    }
+
+    // Da de alta la sesión con su controlador ya repartido
+    private SesionJuego publicar(SolitarioController controller) {
+        long id = siguienteId.getAndIncrement();
+        RegistradorSesion registrador = null;
+        if (diario != null) {
+            registrador = new RegistradorSesion(id, controller, diario, 0);
+            registrador.alta();
+        }
+        SesionJuego sesion = new SesionJuego(id, controller, ejecutor, this, registrador);
+        sesiones.put(id, sesion);
+        comprobarPresupuesto();
+        return sesion;
+    }
+
+    /**
+     * @return la sesión o null si no existe (o fue expulsada)
+     */
+    public SesionJuego obtener(long id) {
+        return sesiones.get(id);
+    }
+
+    /**
+     * Encola un comando en la sesión indicada
+     * @return futuro con el resultado; falla con IllegalArgumentException si la sesión no existe
+     */
+    public <T> CompletableFuture<T> ejecutar(long id, Function<SolitarioController, T> comando) {
+        SesionJuego sesion = sesiones.get(id);
+        if (sesion == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("No existe la sesión " + id));
+        }
+        return sesion.ejecutar(comando);
+    }
+
+    /**
+     * Cierra y elimina una sesión. Los comandos ya encolados terminan; los
+     * nuevos se rechazan.
+     * @return true si la sesión existía
+     */
+    public boolean cerrarSesion(long id) {
+        SesionJuego sesion = sesiones.remove(id);
+        if (sesion == null) {
+            return false;
+        }
+        sesion.cerrar(true);
+        return true;
+    }
+
+    /**
+     * Expulsa las sesiones sin comandos pendientes que llevan más del tiempo
+     * indicado sin recibir ninguno
+     * @return cantidad de sesiones expulsadas
+     */
+    public int expulsarInactivas(long inactividadMaxima, TimeUnit unidad) {
+        long limite = unidad.toNanos(inactividadMaxima);
+        int expulsadas = 0;
+        for (SesionJuego sesion : sesiones.values()) {
+            if (sesion.getInactividadNanos() > limite && expulsar(sesion, limite)) {
+                expulsadas++;
+            }
+        }
+        sesionesExpulsadas.add(expulsadas);
+        return expulsadas;
+    }
+
+    // Cierra la sesión con su buzón reclamado, para que ningún comando quede
+    // entre la comprobación y el cierre; la inactividad se mira otra vez por
+    // si llegó uno justo antes
+    private boolean expulsar(SesionJuego sesion, long limite) {
+        boolean[] expulsada = new boolean[1];
+        sesion.ejecutarSiLibre(() -> expulsada[0] = sesion.getInactividadNanos() > limite
+                && cerrarSesion(sesion.getId()));
+        return expulsada[0];
+    }
+
+    // =========================================================================
+    // CACHE
+    // =========================================================================
+
+    /**
+     * Degrada las partidas inactivas y aplica los presupuestos de la cache
+     * @return cantidad de partidas que bajaron de nivel (0 sin cache)
+     */
+    public int ajustarCache() {
+        return cache == null ? 0 : cache.ajustar(sesiones.values());
+    }
+
+    public CacheSesiones getCache() {
+        return cache;
+    }
+
+    /**
+     * @return el diario de jugadas o null si no hay
+     */
+    public DiarioJugadas getDiario() {
+        return diario;
+    }
+
+    // Con demasiadas partidas vivas se ajusta en segundo plano, sin esperar al ajuste periódico
+    void comprobarPresupuesto() {
+        if (cache != null && cache.necesitaAjuste()) {
+            try {
+                ejecutor.execute(this::ajustarCache);
+            } catch (RejectedExecutionException e) {
+                // Gestor cerrándose: ya no hace falta ajustar
+            }
+        }
+    }
+
+    // =========================================================================
+    // CHECKPOINTS
+    // =========================================================================
+
+    /**
+     * Guarda todas las sesiones abiertas en el almacén. Cada partida se
+     * serializa con acceso exclusivo: en línea si su buzón está vacío o como
+     * un comando más si la sesión está ocupada, así que el checkpoint nunca
+     * ve un estado a medias. Las partidas degradadas se copian sin
+     * rehidratarlas. Después el lote completo se escribe de una vez.
+     * Una partida que no se puede serializar (p. ej. con una pieza fuera de
+     * CatalogoConfiguracion) deja su ranura vacía, se cuenta en
+     * getSesionesSinGuardar() y no detiene el checkpoint.
+     * Con diario, antes se rota de segmento y al terminar se borran los
+     * segmentos que el checkpoint ya cubre (todos si el diario falló).
+     * @return cantidad de sesiones guardadas
+     */
+    public int guardarSesiones(AlmacenSesiones almacen) throws IOException {
+        long segmento = 0;
+        if (diario != null) {
+            // Un diario que dejó de escribirse no se puede rotar: el checkpoint
+            // lo sustituye entero y sus segmentos se descartan
+            segmento = diario.estaSano() ? diario.rotar() : diario.getSegmento() + 1;
+        }
+        List<SesionJuego> abiertas = new ArrayList<>(sesiones.values());
+        LoteSesiones lote = new LoteSesiones(abiertas.size());
+        List<SesionJuego> ocupadas = new ArrayList<>();
+        List<CompletableFuture<Void>> pendientes = new ArrayList<>();
+        int guardadas = 0;
+        for (int i = 0; i < abiertas.size(); i++) {
+            int ranura = i;
+            SesionJuego sesion = abiertas.get(i);
+            try {
+                if (sesion.ejecutarSiLibre(() -> sesion.guardarEn(lote, ranura))) {
+                    guardadas++;
+                    continue;
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                sesionesSinGuardar.increment();     // No se puede serializar: su ranura queda vacía
+                continue;
+            }
+            ocupadas.add(sesion);
+            pendientes.add(sesion.ejecutarSinAcceso(() -> {
+                sesion.guardarEn(lote, ranura);
+                return null;
+            }));
+        }
+
+        for (int i = 0; i < pendientes.size(); i++) {
+            try {
+                pendientes.get(i).join();
+                guardadas++;
+            } catch (CompletionException e) {
+                if (ocupadas.get(i).estaCerrada()) {
+                    continue;                       // Cerrada mientras tanto: su ranura queda vacía
+                }
+                if (!(e.getCause() instanceof IllegalArgumentException)
+                        && !(e.getCause() instanceof IllegalStateException)) {
+                    throw e;
+                }
+                sesionesSinGuardar.increment();
+            }
+        }
+        almacen.guardar(lote);
+        if (diario != null) {
+            diario.descartarHasta(segmento);
+        }
+        return guardadas;
+    }
+
+    /**
+     * Abre las sesiones de un checkpoint con sus ids originales, puestas al
+     * día con el diario si lo hay. Los ids nuevos continúan después del
+     * mayor restaurado; un id que ya está en uso se salta. Con diario, al
+     * terminar se guarda un checkpoint nuevo para descartar lo ya aplicado.
+     * Los registros dañados del checkpoint se saltan (ver
+     * AlmacenSesiones.getRegistrosDanados()) y los del diario que no se
+     * pueden reproducir se cuentan en getRegistrosNoReproducidos().
+     * @return cantidad de sesiones restauradas
+     */
+    public int restaurarSesiones(AlmacenSesiones almacen) throws IOException {
+        int restauradas = 0;
+        RecuperacionSesiones recuperacion = RecuperacionSesiones.recuperar(almacen, diario);
+        registrosNoReproducidos = recuperacion.getDescartados();
+        for (SesionGuardada guardada : recuperacion.getSesiones()) {
+            long id = guardada.getId();
+            SolitarioController controller = guardada.getController();
+            RegistradorSesion registrador = diario == null ? null
+                    : new RegistradorSesion(id, controller, diario, guardada.getSecuencia());
+            if (sesiones.putIfAbsent(id, new SesionJuego(id, controller, ejecutor, this, registrador)) == null) {
+                restauradas++;
+            }
+            siguienteId.accumulateAndGet(id + 1, Math::max);
+        }
+        if (diario != null) {
+            guardarSesiones(almacen);
+        }
+        comprobarPresupuesto();
+        return restauradas;
+    }
+
+    // =========================================================================
+    // MÉTRICAS
+    // =========================================================================
+
+    void registrarLatencia(long nanos) {
+        comandosEjecutados.increment();
+        latenciaTotalNanos.add(nanos);
+        latenciaMaximaNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public int getSesionesActivas() {
+        return sesiones.size();
+    }
+
+    /**
+     * Suma de los comandos pendientes de todas las sesiones
+     */
+    public long getComandosEnCola() {
+        long total = 0;
+        for (SesionJuego sesion : sesiones.values()) {
+            total += sesion.getComandosPendientes();
+        }
+        return total;
+    }
+
+    /**
+     * Comandos pendientes de la sesión más cargada
+     */
+    public int getColaMaxima() {
+        int maxima = 0;
+        for (SesionJuego sesion : sesiones.values()) {
+            maxima = Math.max(maxima, sesion.getComandosPendientes());
+        }
+        return maxima;
+    }
+
+    public long getComandosEjecutados() {
+        return comandosEjecutados.sum();
+    }
+
+    public double getLatenciaMediaNanos() {
+        long comandos = comandosEjecutados.sum();
+        return comandos == 0 ? 0 : (double) latenciaTotalNanos.sum() / comandos;
+    }
+
+    public long getLatenciaMaximaNanos() {
+        return latenciaMaximaNanos.get();
+    }
+
+    public long getSesionesExpulsadas() {
+        return sesionesExpulsadas.sum();
+    }
+
+    /**
+     * Registros del diario que la última restauración no pudo reproducir
+     */
+    public int getRegistrosNoReproducidos() {
+        return registrosNoReproducidos;
+    }
+
+    /**
+     * Sesiones que algún checkpoint dejó fuera por no poder serializarlas
+     */
+    public long getSesionesSinGuardar() {
+        return sesionesSinGuardar.sum();
+    }
+
+    /**
+     * Cierra todas las sesiones y espera a que terminen los comandos en curso.
+     * Es un apagado, no un cierre de partidas: no se anota ninguna baja en el
+     * diario, así que el último checkpoint y el diario las restauran.
+     */
+    @Override
+    public void close() {
+        for (Long id : sesiones.keySet()) {
+            SesionJuego sesion = sesiones.remove(id);
+            if (sesion != null) {
+                sesion.cerrar(false);
+            }
+        }
+        ejecutor.close();
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Sesion;
+
+import Controller.SolitarioController;
+import Persistencia.LoteSesiones;
+import Persistencia.RegistradorSesion;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// =============================================================================
+// SESIÓN DE JUEGO
+// =============================================================================
+/**
+ * Una partida alojada por el GestorSesiones. El SolitarioController no es
+ * seguro entre hilos, así que la sesión serializa los comandos con un buzón:
+ * se encolan sin bloqueo y un único hilo virtual a la vez los ejecuta en
+ * orden de llegada. Cada sesión tiene su propio buzón; no hay cerrojo
+ * global.
+ *
+ * Con una CacheSesiones, una partida inactiva puede degradarse de VIVA
+ * (controlador en el heap) a COMPACTA (su registro de guardarSesion(), 144
+ * bytes) y después a EN_DISCO (ese registro en el archivo de
+ * desbordamiento). El siguiente comando la rehidrata antes de ejecutarse,
+ * sin que quien lo encola lo note salvo por la latencia. Degradar descarta
+ * el historial de deshacer, igual que un checkpoint; el cronómetro sigue
+ * contando mientras está degradada.
+ */
+public final class SesionJuego {
+
+    // Niveles de la cache
+    static final int VIVA = 0;
+    static final int COMPACTA = 1;
+    static final int EN_DISCO = 2;
+    private static final int LIBERADA = -1;        // Cerrada y fuera de la cache: no se rehidrata
+
+    private final long id;
+    private final Executor ejecutor;
+    private final GestorSesiones gestor;           // Recibe la latencia de cada comando
+    private final RegistradorSesion registrador;   // Diario de jugadas de la sesión (null si no hay)
+    private final CacheSesiones cache;             // null: la partida siempre está viva
+
+    // Solo con acceso exclusivo (comando del buzón o ejecutarSiLibre)
+    private SolitarioController controller;         // null mientras está degradada
+    private byte[] compacta;                        // Registro de la partida en el nivel COMPACTA
+    private int ranuraDisco = -1;                   // Ranura del desbordamiento en el nivel EN_DISCO
+    private long degradadaEn;                       // currentTimeMillis del tiempo guardado en el registro
+    private volatile int nivel = VIVA;
+
+    private final Queue<Runnable> buzon = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private volatile long ultimoAcceso;             // System.nanoTime() del último comando recibido
+    private volatile boolean cerrada;
+
+    SesionJuego(long id, SolitarioController controller, Executor ejecutor, GestorSesiones gestor,
+            RegistradorSesion registrador) {
+        this.id = id;
+        this.controller = controller;
+        this.ejecutor = ejecutor;
+        this.gestor = gestor;
+        this.registrador = registrador;
+        this.cache = gestor.getCache();
+        controller.setObservador(registrador);
+        this.ultimoAcceso = System.nanoTime();
+        if (cache != null) {
+            cache.cambioNivel(-1, VIVA);
+        }
+    }
+
+    /**
+     * Encola un comando sobre el controlador de la sesión
+     * @param comando función que se ejecuta con acceso exclusivo al controlador
+     * @return futuro con el resultado del comando (o su excepción)
+     */
+    public <T> CompletableFuture<T> ejecutar(Function<SolitarioController, T> comando) {
+        return encolar(comando, true);
+    }
+
+    /**
+     * Encola una tarea interna del gestor (p. ej. un checkpoint) con acceso
+     * exclusivo a la sesión. No rehidrata la partida ni cuenta como actividad
+     * del jugador para expulsar o degradar sesiones inactivas.
+     */
+    <T> CompletableFuture<T> ejecutarSinAcceso(Supplier<T> tarea) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        if (cerrada) {
+            resultado.completeExceptionally(new IllegalStateException("La sesión " + id + " está cerrada"));
+            return resultado;
+        }
+        encolarTarea(() -> {
+            try {
+                resultado.complete(tarea.get());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        return resultado;
+    }
+
+    private <T> CompletableFuture<T> encolar(Function<SolitarioController, T> comando, boolean esAcceso) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        if (cerrada) {
+            resultado.completeExceptionally(new IllegalStateException("La sesión " + id + " está cerrada"));
+            return resultado;
+        }
+        long encolado = System.nanoTime();
+        if (esAcceso) {
+            ultimoAcceso = encolado;
+        }
+        encolarTarea(() -> {
+            try {
+                resultado.complete(comando.apply(activar()));
+            } catch (Throwable e) {
+                // El buzón sigue funcionando aunque un comando falle
+                resultado.completeExceptionally(e);
+            } finally {
+                gestor.registrarLatencia(System.nanoTime() - encolado);
+            }
+        });
+        return resultado;
+    }
+
+    private void encolarTarea(Runnable tarea) {
+        buzon.add(tarea);
+        // La primera tarea de una ráfaga lanza el hilo que vacía el buzón
+        if (pendientes.getAndIncrement() == 0) {
+            ejecutor.execute(this::vaciarBuzon);
+        }
+    }
+
+    /**
+     * Ejecuta la tarea en el hilo que llama si el buzón está vacío, con el
+     * mismo acceso exclusivo que un comando encolado. Evita lanzar un hilo
+     * por sesión en operaciones internas cortas sobre sesiones inactivas.
+     * @return false si la sesión está ocupada o cerrada (no se ejecutó)
+     */
+    boolean ejecutarSiLibre(Runnable tarea) {
+        if (cerrada || !pendientes.compareAndSet(0, 1)) {
+            return false;
+        }
+        try {
+            tarea.run();
+        } finally {
+            // Los comandos que llegaron mientras tanto los vacía un hilo propio
+            if (pendientes.decrementAndGet() > 0) {
+                ejecutor.execute(this::vaciarBuzon);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ejecuta los comandos pendientes uno a uno. Solo hay un hilo vaciando el
+     * buzón de una sesión en cada momento.
+     */
+    private void vaciarBuzon() {
+        do {
+            buzon.poll().run();
+        } while (pendientes.decrementAndGet() > 0);
+    }
+
+    /**
+     * Rechaza los comandos nuevos; los ya encolados terminan
+     * @param anotarCierre false al apagar el servidor: la partida no se da
+     *        de baja en el diario y se restaura al arrancar de nuevo
+     */
+    void cerrar(boolean anotarCierre) {
+        cerrada = true;
+        if (registrador != null && anotarCierre) {
+            registrador.cierre();
+        }
+        if (cache != null) {
+            encolarTarea(this::liberar);            // Después de los comandos ya encolados
+        }
+    }
+
+    // =========================================================================
+    // NIVELES DE LA CACHE (solo con acceso exclusivo)
+    // =========================================================================
+
+    /**
+     * Guarda la partida en una ranura del lote sin rehidratarla
+     */
+    void guardarEn(LoteSesiones lote, int ranura) {
+        int secuencia = getSecuenciaDiario();
+        if (controller != null) {
+            lote.guardar(ranura, id, secuencia, controller);
+        } else {
+            lote.guardar(ranura, id, secuencia, registroDegradado());
+        }
+    }
+
+    /**
+     * Pasa la partida viva a su registro compacto
+     * @return false si ya estaba degradada
+     */
+    boolean compactar() {
+        if (controller == null) {
+            return false;
+        }
+        byte[] registro = new byte[SolitarioController.TAMANO_SESION];
+        controller.guardarSesion(ByteBuffer.wrap(registro), 0);
+        controller.setObservador(null);
+        controller = null;
+        compacta = registro;
+        degradadaEn = System.currentTimeMillis();
+        nivel = COMPACTA;
+        cache.cambioNivel(VIVA, COMPACTA);
+        return true;
+    }
+
+    /**
+     * Lleva el registro compacto al archivo de desbordamiento
+     * @return false si la partida no estaba compacta
+     * @throws UncheckedIOException si no se pudo escribir (sigue compacta)
+     */
+    boolean volcar() {
+        if (nivel != COMPACTA) {
+            return false;
+        }
+        try {
+            ranuraDisco = cache.getDesbordamiento().escribir(compacta);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        compacta = null;
+        nivel = EN_DISCO;
+        cache.cambioNivel(COMPACTA, EN_DISCO);
+        return true;
+    }
+
+    // El controlador de la partida, rehidratándolo si estaba degradada
+    private SolitarioController activar() {
+        if (controller != null) {
+            return controller;
+        }
+        long inicio = System.nanoTime();
+        int anterior = nivel;
+        SolitarioController restaurado = SolitarioController.restaurarSesion(ByteBuffer.wrap(registroDegradado()), 0);
+        restaurado.setObservador(registrador);
+        if (registrador != null) {
+            registrador.setController(restaurado);
+        }
+        if (anterior == EN_DISCO) {
+            cache.getDesbordamiento().liberar(ranuraDisco);
+            ranuraDisco = -1;
+        }
+        controller = restaurado;
+        compacta = null;
+        nivel = VIVA;
+        cache.rehidratada(anterior, System.nanoTime() - inicio);
+        gestor.comprobarPresupuesto();
+        return controller;
+    }
+
+    // Registro de la partida degradada con el tiempo de juego al día
+    private byte[] registroDegradado() {
+        if (nivel == LIBERADA) {
+            // Comando encolado justo cuando se cerraba, detrás de liberar()
+            throw new IllegalStateException("La sesión " + id + " está cerrada");
+        }
+        long ahora = System.currentTimeMillis();
+        byte[] registro = compacta;
+        if (nivel == EN_DISCO) {
+            registro = new byte[SolitarioController.TAMANO_SESION];
+            try {
+                cache.getDesbordamiento().leer(ranuraDisco, registro);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        SolitarioController.sumarTiempoSesion(ByteBuffer.wrap(registro), 0, ahora - degradadaEn);
+        if (nivel == COMPACTA) {
+            degradadaEn = ahora;                    // El registro compacto ya incluye ese tiempo
+        }
+        return registro;
+    }
+
+    // Suelta lo que la partida ocupa en la cache al cerrarla
+    private void liberar() {
+        if (nivel == EN_DISCO) {
+            cache.getDesbordamiento().liberar(ranuraDisco);
+            ranuraDisco = -1;
+        }
+        cache.cambioNivel(nivel, -1);
+        controller = null;
+        compacta = null;
+        nivel = LIBERADA;
+    }
+
+    // Último registro del diario que refleja el controlador; solo desde el hilo de la sesión
+    int getSecuenciaDiario() {
+        return registrador == null ? 0 : registrador.getSecuencia();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean estaCerrada() {
+        return cerrada;
+    }
+
+    /**
+     * Comandos encolados o en ejecución
+     */
+    public int getComandosPendientes() {
+        return pendientes.get();
+    }
+
+    /**
+     * VIVA, COMPACTA o EN_DISCO (LIBERADA una vez cerrada y soltada)
+     */
+    int getNivel() {
+        return nivel;
+    }
+
+    // System.nanoTime() del último comando recibido
+    long getUltimoAcceso() {
+        return ultimoAcceso;
+    }
+
+    /**
+     * Nanosegundos desde el último comando recibido
+     */
+    public long getInactividadNanos() {
+        return System.nanoTime() - ultimoAcceso;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// =============================================================================
+// CONTROL DE BÚSQUEDA
+// =============================================================================
+/**
+ * Estado compartido por todos los hilos de una búsqueda: presupuesto de
+ * nodos, primera solución encontrada y señal de parada. Los hilos cuentan
+ * nodos en local y los vuelcan por lotes para no competir por el contador.
+ */
+class ControlBusqueda {
+
+    // Cada cuántos nodos un hilo vuelca su cuenta y comprueba la señal de parada
+    static final int LOTE_NODOS = 1024;
+
+    private final long maxNodos;
+    private final AtomicLong nodos = new AtomicLong();
+    private final AtomicReference<int[]> solucion = new AtomicReference<>();
+    private volatile boolean detenido;
+    private volatile boolean limiteAlcanzado;
+
+    ControlBusqueda(long maxNodos) {
+        this.maxNodos = maxNodos;
+    }
+
+    /**
+     * Suma nodos explorados al total
+     * @return false si la búsqueda debe detenerse
+     */
+    boolean registrarNodos(long cantidad) {
+        if (nodos.addAndGet(cantidad) >= maxNodos) {
+            limiteAlcanzado = true;
+            detenido = true;
+        }
+        return !detenido;
+    }
+
+    /**
+     * Publica una solución; solo la primera gana y detiene al resto de hilos
+     */
+    void proponerSolucion(int[] movimientos) {
+        if (solucion.compareAndSet(null, movimientos)) {
+            detenido = true;
+        }
+    }
+
+    boolean estaDetenido() {
+        return detenido;
+    }
+
+    int[] getSolucion() {
+        return solucion.get();
+    }
+
+    long getNodos() {
+        return nodos.get();
+    }
+
+    /**
+     * Veredicto final de la búsqueda
+     */
+    ResultadoSolver.Estado getEstado() {
+        if (solucion.get() != null) {
+            return ResultadoSolver.Estado.RESUELTO;
+        }
+        return limiteAlcanzado ? ResultadoSolver.Estado.LIMITE_ALCANZADO : ResultadoSolver.Estado.IRRESOLUBLE;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Solver;
+
+import Motor.Movimiento;
+
+// =============================================================================
+// RESULTADO DEL SOLVER
+// =============================================================================
+/**
+ * Resultado inmutable de una búsqueda: veredicto, secuencia de movimientos
+ * (codificados con Movimiento) y estadísticas de rendimiento.
+ */
+public class ResultadoSolver {
+
+    public enum Estado {
+        RESUELTO,           // Se encontró una secuencia ganadora
+        IRRESOLUBLE,        // Se agotó el espacio de búsqueda sin ganar
+        LIMITE_ALCANZADO    // Se alcanzó el límite de nodos antes de decidir
+    }
+
+    private final Estado estado;
+    private final int[] movimientos;
+    private final long nodosExplorados;
+    private final long tiempoNanos;
+    private final long memoriaPicoBytes;
+
+    public ResultadoSolver(Estado estado, int[] movimientos, long nodosExplorados,
+            long tiempoNanos, long memoriaPicoBytes) {
+        this.estado = estado;
+        this.movimientos = movimientos;
+        this.nodosExplorados = nodosExplorados;
+        this.tiempoNanos = tiempoNanos;
+        this.memoriaPicoBytes = memoriaPicoBytes;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public boolean esResuelto() {
+        return estado == Estado.RESUELTO;
+    }
+
+    /**
+     * Movimientos de la solución (vacío si no se resolvió)
+     */
+    public int[] getMovimientos() {
+        return movimientos.clone();
+    }
+
+    public long getNodosExplorados() {
+        return nodosExplorados;
+    }
+
+    public long getTiempoNanos() {
+        return tiempoNanos;
+    }
+
+    public double getNodosPorSegundo() {
+        return tiempoNanos == 0 ? 0 : nodosExplorados * 1_000_000_000.0 / tiempoNanos;
+    }
+
+    /**
+     * Memoria máxima reservada por las estructuras del solver (tabla de
+     * transposición y pila de búsqueda)
+     */
+    public long getMemoriaPicoBytes() {
+        return memoriaPicoBytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(estado).append(" | nodos: ").append(nodosExplorados)
+          .append(" | nodos/s: ").append((long) getNodosPorSegundo())
+          .append(" | memoria pico: ").append(memoriaPicoBytes / 1024).append(" KB");
+        if (esResuelto()) {
+            sb.append(" | ").append(movimientos.length).append(" movimientos");
+            for (int i = 0; i < movimientos.length; i++) {
+                sb.append("\n  ").append(i + 1).append(". ").append(Movimiento.describir(movimientos[i]));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Solver;
+
+import AbstractFactory.ReglasCartas;
+import Builder.TableroSolitario;
+import Motor.Movimiento;
+import Motor.ReglasTablero;
+import Motor.TableroCompacto;
+import Strategy.EstrategiaJuego;
+import java.util.Arrays;
+
+// =============================================================================
+// SOLVER KLONDIKE
+// =============================================================================
+/**
+ * Decide si una partida tiene solución y, si la tiene, devuelve la secuencia
+ * de movimientos. Hace una búsqueda en profundidad iterativa sobre copias
+ * compactas del tablero (nunca toca el juego en curso), descarta posiciones
+ * repetidas con una tabla de transposición de hashes Zobrist y ordena los
+ * movimientos para probar primero los más prometedores.
+ *
+ * Busca en dos pasadas: primero con una poda que descarta movimientos del
+ * tableau poco útiles (encuentra antes la mayoría de soluciones) y, solo si
+ * esa búsqueda se agota, otra completa con el resto del presupuesto. Solo
+ * la completa puede concluir que la partida es irresoluble.
+ *
+ * Respeta las reglas de la estrategia: cuántas cartas se roban del mazo y si
+ * se permiten mover secuencias. Solo genera movimientos que el controlador
+ * puede ejecutar (no devuelve cartas de las fundaciones al tableau).
+ *
+ * Una instancia reutiliza su pila de búsqueda entre llamadas, por lo que no
+ * debe compartirse entre hilos.
+ */
+public class SolverKlondike {
+
+    public static final long MAX_NODOS_POR_DEFECTO = 5_000_000L;
+
+    // Cota holgada de movimientos legales en una posición de Klondike
+    static final int MAX_MOVIMIENTOS_POR_POSICION = 256;
+
+    private final EstrategiaJuego estrategia;
+    private final long maxNodos;
+
+    // Pila de búsqueda: un tablero y una lista de movimientos por profundidad
+    private TableroCompacto[] tableros = new TableroCompacto[0];
+    private int[][] movimientos = new int[0][];
+    private int[] numMovimientos = new int[0];
+    private int[] cursor = new int[0];
+
+    // Memoria auxiliar para cerrar partidas ya decididas
+    private final TableroCompacto tableroFinal = new TableroCompacto();
+    private final int[] movimientosFinales = new int[TableroCompacto.NUM_CARTAS];
+
+    public SolverKlondike(EstrategiaJuego estrategia) {
+        this(estrategia, MAX_NODOS_POR_DEFECTO);
+    }
+
+    /**
+     * @param estrategia reglas de juego a respetar
+     * @param maxNodos límite de posiciones a explorar antes de rendirse
+     */
+    public SolverKlondike(EstrategiaJuego estrategia, long maxNodos) {
+        this.estrategia = estrategia;
+        this.maxNodos = maxNodos;
+    }
+
+    /**
+     * Resuelve una copia del tablero indicado
+     * @param tablero tablero del juego (no se modifica)
+     * @return veredicto, movimientos y estadísticas
+     */
+    public ResultadoSolver resolver(TableroSolitario tablero) {
+        return resolver(TableroCompacto.desde(tablero));
+    }
+
+    /**
+     * Resuelve una copia del tablero compacto indicado
+     * @param inicial posición de partida (no se modifica)
+     * @return veredicto, movimientos y estadísticas
+     */
+    public ResultadoSolver resolver(TableroCompacto inicial) {
+        long inicio = System.nanoTime();
+        TablaTransposicion visitadas = new TablaTransposicionLocal();
+        ControlBusqueda control = new ControlBusqueda(maxNodos);
+
+        visitadas.agregar(inicial.hashZobrist());
+        control.registrarNodos(1);
+        int[] solucion = explorar(inicial, visitadas, control, false);
+        long memoriaTabla = visitadas.getMemoriaBytes();
+        if (solucion == null && !control.estaDetenido()) {
+            // La búsqueda con poda se agotó: solo la completa puede demostrar que no hay solución
+            visitadas = new TablaTransposicionLocal();
+            visitadas.agregar(inicial.hashZobrist());
+            solucion = explorar(inicial, visitadas, control, true);
+            memoriaTabla = Math.max(memoriaTabla, visitadas.getMemoriaBytes());
+        }
+        if (solucion != null) {
+            control.proponerSolucion(solucion);
+        }
+
+        return new ResultadoSolver(control.getEstado(), solucion != null ? solucion : new int[0],
+                control.getNodos(), System.nanoTime() - inicio, memoriaTabla + getMemoriaPilaBytes());
+    }
+
+    /**
+     * Búsqueda en profundidad desde una posición ya registrada en `visitadas`.
+     * La usa también SolverParalelo en cada subárbol, por eso el presupuesto
+     * de nodos y la señal de parada vienen de fuera.
+     * @param completa genera todos los movimientos (ver generarMovimientos)
+     * @return movimientos desde `inicial` hasta la victoria, o null
+     */
+    int[] explorar(TableroCompacto inicial, TablaTransposicion visitadas, ControlBusqueda control,
+            boolean completa) {
+        asegurarProfundidad(0);
+        tableros[0].copiarDesde(inicial);
+
+        int finales = completarSiDecidida(tableros[0]);
+        if (finales >= 0) {
+            return construirSolucion(-1, finales);
+        }
+
+        int profundidad = 0;
+        int nodosLote = 0;
+        numMovimientos[0] = generarMovimientos(tableros[0], movimientos[0], completa);
+        cursor[0] = 0;
+
+        while (profundidad >= 0) {
+            if (cursor[profundidad] == numMovimientos[profundidad]) {
+                profundidad--;                      // Sin más alternativas: retrocede
+                continue;
+            }
+            if (++nodosLote == ControlBusqueda.LOTE_NODOS) {
+                nodosLote = 0;
+                if (!control.registrarNodos(ControlBusqueda.LOTE_NODOS)) {
+                    return null;                    // Límite alcanzado u otro hilo ya ganó
+                }
+            }
+
+            int movimiento = movimientos[profundidad][cursor[profundidad]++];
+            asegurarProfundidad(profundidad + 1);
+            TableroCompacto hijo = tableros[profundidad + 1];
+            hijo.copiarDesde(tableros[profundidad]);
+            hijo.aplicar(movimiento);
+
+            // Posición ya explorada por otro camino
+            if (!visitadas.agregar(hijo.hashZobrist())) {
+                continue;
+            }
+
+            finales = completarSiDecidida(hijo);
+            if (finales >= 0) {
+                control.registrarNodos(nodosLote);
+                return construirSolucion(profundidad, finales);
+            }
+
+            profundidad++;
+            numMovimientos[profundidad] = generarMovimientos(hijo, movimientos[profundidad], completa);
+            cursor[profundidad] = 0;
+        }
+
+        control.registrarNodos(nodosLote);
+        return null;
+    }
+
+    /**
+     * Une los movimientos elegidos en cada nivel hasta `profundidad` con los
+     * movimientos finales calculados por completarSiDecidida()
+     */
+    private int[] construirSolucion(int profundidad, int finales) {
+        int[] solucion = new int[profundidad + 1 + finales];
+        for (int i = 0; i <= profundidad; i++) {
+            solucion[i] = movimientos[i][cursor[i] - 1];
+        }
+        System.arraycopy(movimientosFinales, 0, solucion, profundidad + 1, finales);
+        return solucion;
+    }
+
+    /**
+     * Si el mazo y el descarte están vacíos y todo el tableau está boca
+     * arriba, la partida se gana subiendo cartas a las fundaciones. Lo
+     * comprueba sobre una copia y deja esos movimientos en movimientosFinales.
+     * @return número de movimientos finales, o -1 si la posición no está decidida
+     */
+    int completarSiDecidida(TableroCompacto tablero) {
+        if (!tablero.estaVacia(TableroCompacto.MAZO) || !tablero.estaVacia(TableroCompacto.DESCARTE)) {
+            return -1;
+        }
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            int tamano = tablero.tamano(columna);
+            for (int i = 0; i < tamano; i++) {
+                if (!TableroCompacto.estaVolteada(tablero.carta(columna, i))) {
+                    return -1;
+                }
+            }
+        }
+
+        tableroFinal.copiarDesde(tablero);
+        int n = 0;
+        boolean avance = true;
+        while (avance && !tableroFinal.esVictoria()) {
+            avance = false;
+            for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+                int columna = TableroCompacto.TABLEAU_0 + c;
+                int tope = tableroFinal.tope(columna);
+                int fundacion = tope < 0 ? -1 : ReglasTablero.fundacionPara(tableroFinal, tope);
+                if (fundacion >= 0) {
+                    int movimiento = Movimiento.codificar(columna, fundacion, 1);
+                    tableroFinal.aplicar(movimiento);
+                    movimientosFinales[n++] = movimiento;
+                    avance = true;
+                }
+            }
+        }
+        return tableroFinal.esVictoria() ? n : -1;
+    }
+
+    /**
+     * Copia de los movimientos calculados por la última llamada a
+     * completarSiDecidida()
+     */
+    int[] copiarMovimientosFinales(int cantidad) {
+        return Arrays.copyOf(movimientosFinales, cantidad);
+    }
+
+    // =========================================================================
+    // GENERACIÓN Y ORDEN DE MOVIMIENTOS
+    // =========================================================================
+
+    /**
+     * Escribe en `salida` los movimientos legales ordenados de más a menos
+     * prometedores: subidas a fundación, movimientos que destapan una carta o
+     * vacían una columna, descarte al tableau, movimientos del tableau que
+     * dejan la carta de debajo lista para subir a fundación o para recibir
+     * el tope del descarte, el mazo y por último el resto del tableau.
+     *
+     * Si hay una subida a fundación segura se devuelve solo esa: nunca
+     * empeora la posición. Sin `completa` además se omite el resto del
+     * tableau, lo que encuentra antes las soluciones pero puede perder
+     * alguna; agotar esa búsqueda no demuestra que la partida sea
+     * irresoluble.
+     * @param completa incluye los movimientos del tableau que no parecen útiles
+     * @return cantidad de movimientos escritos
+     */
+    int generarMovimientos(TableroCompacto tablero, int[] salida, boolean completa) {
+        int n = 0;
+        boolean multiples = estrategia.permiteMoverMultiplesCartas();
+
+        // 1. Subidas a fundación
+        int topeDescarte = tablero.tope(TableroCompacto.DESCARTE);
+        if (topeDescarte >= 0) {
+            int fundacion = ReglasTablero.fundacionPara(tablero, topeDescarte);
+            if (fundacion >= 0) {
+                salida[n++] = Movimiento.codificar(TableroCompacto.DESCARTE, fundacion, 1);
+                if (ReglasTablero.esSeguraEnFundacion(tablero, topeDescarte)) {
+                    salida[0] = salida[n - 1];
+                    return 1;
+                }
+            }
+        }
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            int tope = tablero.tope(columna);
+            if (tope < 0) {
+                continue;
+            }
+            if (!TableroCompacto.estaVolteada(tope)) {
+                salida[n++] = Movimiento.codificar(columna, columna, 0); // Voltear la carta superior
+                continue;
+            }
+            int fundacion = ReglasTablero.fundacionPara(tablero, tope);
+            if (fundacion >= 0) {
+                salida[n++] = Movimiento.codificar(columna, fundacion, 1);
+                if (ReglasTablero.esSeguraEnFundacion(tablero, tope)) {
+                    salida[0] = salida[n - 1];
+                    return 1;
+                }
+            }
+        }
+
+        // 2. Movimientos del tableau que destapan una carta o vacían la columna
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            int inicio = inicioSecuencia(tablero, columna, multiples);
+            if (inicio >= 0 && ReglasTablero.destapa(tablero, columna, inicio)) {
+                n = agregarDestinosTableau(tablero, columna, inicio, salida, n);
+            }
+        }
+
+        // 3. Descarte al tableau
+        if (topeDescarte >= 0) {
+            n = agregarDestinosCarta(tablero, topeDescarte, TableroCompacto.DESCARTE, 1, true, salida, n);
+        }
+
+        // 4. Movimientos del tableau que preparan una subida o el descarte
+        for (int c = 0; c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            int inicio = inicioSecuencia(tablero, columna, multiples);
+            if (inicio < 0) {
+                continue;
+            }
+            for (int i = inicio; i < tablero.tamano(columna); i++) {
+                if (!ReglasTablero.destapa(tablero, columna, i)
+                        && ReglasTablero.liberaCartaUtil(tablero, tablero.carta(columna, i - 1))) {
+                    n = agregarDestinosTableau(tablero, columna, i, salida, n);
+                }
+            }
+        }
+
+        // 5. Mazo: robar o reciclar
+        int enMazo = tablero.tamano(TableroCompacto.MAZO);
+        if (enMazo > 0) {
+            salida[n++] = Movimiento.codificar(TableroCompacto.MAZO, TableroCompacto.DESCARTE,
+                    Math.min(estrategia.getCartasAPasar(), enMazo));
+        } else if (!tablero.estaVacia(TableroCompacto.DESCARTE)) {
+            salida[n++] = Movimiento.codificar(TableroCompacto.DESCARTE, TableroCompacto.MAZO,
+                    tablero.tamano(TableroCompacto.DESCARTE));
+        }
+
+        // 6. Movimientos del tableau que no destapan nada ni liberan una carta
+        // útil: casi nunca hacen falta, pero sin ellos no se puede afirmar que
+        // una partida sea irresoluble (p. ej. apartar un 7 para colocar otro)
+        for (int c = 0; completa && c < TableroCompacto.NUM_COLUMNAS; c++) {
+            int columna = TableroCompacto.TABLEAU_0 + c;
+            int inicio = inicioSecuencia(tablero, columna, multiples);
+            if (inicio < 0) {
+                continue;
+            }
+            for (int i = inicio; i < tablero.tamano(columna); i++) {
+                if (!ReglasTablero.destapa(tablero, columna, i)
+                        && !ReglasTablero.liberaCartaUtil(tablero, tablero.carta(columna, i - 1))) {
+                    n = agregarDestinosTableau(tablero, columna, i, salida, n);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Índice más bajo desde el que se puede mover una secuencia válida
+     * @return índice o -1 si la columna está vacía o su tope está boca abajo
+     */
+    private int inicioSecuencia(TableroCompacto tablero, int columna, boolean multiples) {
+        int tamano = tablero.tamano(columna);
+        if (tamano == 0 || !TableroCompacto.estaVolteada(tablero.tope(columna))) {
+            return -1;
+        }
+        int inicio = tamano - 1;
+        if (!multiples) {
+            return inicio;
+        }
+        int carta = tablero.carta(columna, inicio);
+        while (inicio > 0) {
+            int debajo = tablero.carta(columna, inicio - 1);
+            if (!ReglasTablero.puedeApilar(carta, debajo)) {
+                break;
+            }
+            carta = debajo;
+            inicio--;
+        }
+        return inicio;
+    }
+
+    private int agregarDestinosTableau(TableroCompacto tablero, int columna, int indice, int[] salida, int n) {
+        int carta = tablero.carta(columna, indice);
+        // Mover un Rey que ya está en el fondo a otra columna vacía no aporta nada
+        return agregarDestinosCarta(tablero, carta, columna, tablero.tamano(columna) - indice,
+                indice > 0, salida, n);
+    }
+
+    private int agregarDestinosCarta(TableroCompacto tablero, int carta, int origen, int cantidad,
+            boolean permitirColumnaVacia, int[] salida, int n) {
+        boolean vaciaUsada = false;                 // Las columnas vacías son equivalentes
+        for (int d = 0; d < TableroCompacto.NUM_COLUMNAS; d++) {
+            int destino = TableroCompacto.TABLEAU_0 + d;
+            if (destino == origen) {
+                continue;
+            }
+            int tope = tablero.tope(destino);
+            if (tope < 0) {
+                if (permitirColumnaVacia && !vaciaUsada
+                        && ReglasCartas.puedeOcuparColumnaVacia(TableroCompacto.identidad(carta))) {
+                    salida[n++] = Movimiento.codificar(origen, destino, cantidad);
+                    vaciaUsada = true;
+                }
+            } else if (ReglasTablero.puedeApilar(carta, tope)) {
+                salida[n++] = Movimiento.codificar(origen, destino, cantidad);
+            }
+        }
+        return n;
+    }
+
+    // =========================================================================
+    // PILA DE BÚSQUEDA
+    // =========================================================================
+
+    private void asegurarProfundidad(int profundidad) {
+        if (profundidad < tableros.length) {
+            return;
+        }
+        int capacidad = Math.max(64, tableros.length * 2);
+        TableroCompacto[] nuevosTableros = new TableroCompacto[capacidad];
+        int[][] nuevosMovimientos = new int[capacidad][];
+        System.arraycopy(tableros, 0, nuevosTableros, 0, tableros.length);
+        System.arraycopy(movimientos, 0, nuevosMovimientos, 0, movimientos.length);
+        for (int i = tableros.length; i < capacidad; i++) {
+            nuevosTableros[i] = new TableroCompacto();
+            nuevosMovimientos[i] = new int[MAX_MOVIMIENTOS_POR_POSICION];
+        }
+        tableros = nuevosTableros;
+        movimientos = nuevosMovimientos;
+        numMovimientos = Arrays.copyOf(numMovimientos, capacidad);
+        cursor = Arrays.copyOf(cursor, capacidad);
+    }
+
+    /**
+     * Memoria aproximada de la pila de búsqueda (tableros + listas de movimientos)
+     */
+    long getMemoriaPilaBytes() {
+        long porNivel = TableroCompacto.TAMANO_DATOS + 32L + MAX_MOVIMIENTOS_POR_POSICION * 4L + 16L + 8L;
+        return tableros.length * porNivel;
+    }
+
+    public EstrategiaJuego getEstrategia() {
+        return estrategia;
+    }
+}
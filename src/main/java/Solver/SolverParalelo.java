@@ -0,0 +1,182 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Solver;
+
+import Builder.TableroSolitario;
+import Motor.TableroCompacto;
+import Strategy.EstrategiaJuego;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// =============================================================================
+// SOLVER PARALELO
+// =============================================================================
+/**
+ * Versión paralela de SolverKlondike. Reparte la raíz y los primeros niveles
+ * del árbol en tareas de un ForkJoinPool (con robo de trabajo entre hilos);
+ * por debajo de esa profundidad cada tarea sigue con la búsqueda secuencial
+ * de SolverKlondike. Todos los hilos comparten una tabla de transposición
+ * sin bloqueos, y la primera solución encontrada detiene al resto. Hace
+ * las mismas dos pasadas (con poda y completa) que SolverKlondike.
+ */
+public class SolverParalelo {
+
+    // Niveles del árbol que se reparten como tareas independientes
+    public static final int PROFUNDIDAD_DIVISION_POR_DEFECTO = 4;
+
+    private final EstrategiaJuego estrategia;
+    private final long maxNodos;
+    private final ForkJoinPool pool;
+    private final int profundidadDivision;
+
+    public SolverParalelo(EstrategiaJuego estrategia) {
+        this(estrategia, SolverKlondike.MAX_NODOS_POR_DEFECTO, ForkJoinPool.commonPool(),
+                PROFUNDIDAD_DIVISION_POR_DEFECTO);
+    }
+
+    /**
+     * @param estrategia reglas de juego a respetar
+     * @param maxNodos límite total de posiciones entre todos los hilos
+     * @param pool pool donde se ejecutan las tareas
+     * @param profundidadDivision niveles del árbol que se reparten en tareas
+     */
+    public SolverParalelo(EstrategiaJuego estrategia, long maxNodos, ForkJoinPool pool, int profundidadDivision) {
+        this.estrategia = estrategia;
+        this.maxNodos = maxNodos;
+        this.pool = pool;
+        this.profundidadDivision = profundidadDivision;
+    }
+
+    public ResultadoSolver resolver(TableroSolitario tablero) {
+        return resolver(TableroCompacto.desde(tablero));
+    }
+
+    /**
+     * Resuelve una copia del tablero compacto indicado usando todos los
+     * hilos del pool
+     * @param inicial posición de partida (no se modifica)
+     * @return veredicto, movimientos y estadísticas agregadas
+     */
+    public ResultadoSolver resolver(TableroCompacto inicial) {
+        long inicio = System.nanoTime();
+        // La tabla crece con lo explorado; el tope deja margen de carga para todo el presupuesto
+        TablaTransposicion visitadas = new TablaTransposicionConcurrente(
+                (int) Math.min(maxNodos * 2, 1 << 27));
+        ControlBusqueda control = new ControlBusqueda(maxNodos);
+
+        // Un motor secuencial por hilo, solo durante esta búsqueda: al volver
+        // no queda nada en los hilos del pool
+        Map<Thread, SolverKlondike> motores = new ConcurrentHashMap<>();
+
+        visitadas.agregar(inicial.hashZobrist());
+        control.registrarNodos(1);
+        pool.invoke(new TareaBusqueda(inicial.copiar(), new int[0], 0, visitadas, control, motores, false));
+        long memoria = visitadas.getMemoriaBytes();
+        if (!control.estaDetenido()) {
+            // La búsqueda con poda se agotó: solo la completa puede demostrar que no hay solución
+            visitadas = new TablaTransposicionConcurrente((int) Math.min(maxNodos * 2, 1 << 27));
+            visitadas.agregar(inicial.hashZobrist());
+            pool.invoke(new TareaBusqueda(inicial.copiar(), new int[0], 0, visitadas, control, motores, true));
+            memoria = Math.max(memoria, visitadas.getMemoriaBytes());
+        }
+
+        for (SolverKlondike motor : motores.values()) {
+            memoria += motor.getMemoriaPilaBytes();
+        }
+        int[] solucion = control.getSolucion();
+        return new ResultadoSolver(control.getEstado(), solucion != null ? solucion : new int[0],
+                control.getNodos(), System.nanoTime() - inicio, memoria);
+    }
+
+    // =========================================================================
+    // TAREA FORK/JOIN
+    // =========================================================================
+
+    /**
+     * Explora el subárbol de una posición. En los primeros niveles lo divide
+     * en una subtarea por movimiento; más abajo lo recorre de forma secuencial.
+     */
+    private final class TareaBusqueda extends RecursiveAction {
+
+        // RecursiveAction es Serializable, pero una tarea nunca sale del proceso
+        private static final long serialVersionUID = 1L;
+
+        private final transient TableroCompacto tablero;
+        private final int[] prefijo;               // Movimientos desde la raíz
+        private final int profundidad;
+        private final transient TablaTransposicion visitadas;
+        private final transient ControlBusqueda control;
+        private final transient Map<Thread, SolverKlondike> motores;
+        private final boolean completa;            // Sin la poda de SolverKlondike.generarMovimientos
+
+        TareaBusqueda(TableroCompacto tablero, int[] prefijo, int profundidad,
+                TablaTransposicion visitadas, ControlBusqueda control,
+                Map<Thread, SolverKlondike> motores, boolean completa) {
+            this.tablero = tablero;
+            this.prefijo = prefijo;
+            this.profundidad = profundidad;
+            this.visitadas = visitadas;
+            this.control = control;
+            this.motores = motores;
+            this.completa = completa;
+        }
+
+        @Override
+        protected void compute() {
+            if (control.estaDetenido()) {
+                return;
+            }
+            SolverKlondike motor = motores.computeIfAbsent(Thread.currentThread(),
+                    hilo -> new SolverKlondike(estrategia, maxNodos));
+
+            if (profundidad >= profundidadDivision) {
+                int[] resto = motor.explorar(tablero, visitadas, control, completa);
+                if (resto != null) {
+                    control.proponerSolucion(concatenar(prefijo, resto));
+                }
+                return;
+            }
+
+            int finales = motor.completarSiDecidida(tablero);
+            if (finales >= 0) {
+                control.proponerSolucion(concatenar(prefijo, motor.copiarMovimientosFinales(finales)));
+                return;
+            }
+
+            int[] candidatos = new int[SolverKlondike.MAX_MOVIMIENTOS_POR_POSICION];
+            int n = motor.generarMovimientos(tablero, candidatos, completa);
+            List<TareaBusqueda> subtareas = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                TableroCompacto hijo = tablero.copiar();
+                hijo.aplicar(candidatos[i]);
+                if (visitadas.agregar(hijo.hashZobrist())) {
+                    int[] camino = Arrays.copyOf(prefijo, prefijo.length + 1);
+                    camino[prefijo.length] = candidatos[i];
+                    subtareas.add(new TareaBusqueda(hijo, camino, profundidad + 1, visitadas, control, motores,
+                            completa));
+                }
+            }
+            if (!control.registrarNodos(n)) {
+                return;
+            }
+            invokeAll(subtareas);
+        }
+    }
+
+    private static int[] concatenar(int[] a, int[] b) {
+        int[] resultado = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, resultado, a.length, b.length);
+        return resultado;
+    }
+
+    public int getParalelismo() {
+        return pool.getParallelism();
+    }
+}
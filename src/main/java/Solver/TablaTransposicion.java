@@ -0,0 +1,30 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package Solver;
+
+// =============================================================================
+// INTERFAZ TABLA DE TRANSPOSICIÓN
+// =============================================================================
+/**
+ * Registro de posiciones ya visitadas por el solver, identificadas por su
+ * hash Zobrist.
+ */
+public interface TablaTransposicion {
+
+    // Registra una posición; devuelve true si es nueva y false si ya estaba
+    public boolean agregar(long hash);
+
+    // Cantidad de posiciones registradas
+    public int size();
+
+    // Memoria reservada por la tabla en bytes
+    public long getMemoriaBytes();
+
+    // Índice de partida dentro de la tabla para un hash
+    static int mezclar(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// =============================================================================
+// TABLA DE TRANSPOSICIÓN CONCURRENTE
+// =============================================================================
+/**
+ * Tabla de transposición compartida por varios hilos sin bloqueos. Cada
+ * casilla se reclama con compareAndSet sobre un AtomicLongArray. Si una zona
+ * de la tabla está saturada la posición se da por nueva: la búsqueda sigue
+ * siendo correcta, solo puede repetir trabajo.
+ *
+ * Empieza pequeña y crece con lo explorado: cuando el nivel actual se llena
+ * a la mitad se añade otro cuatro veces mayor donde van las posiciones
+ * nuevas, y los anteriores solo se consultan. Así la memoria sigue a los
+ * nodos visitados en lugar de al límite de nodos de la búsqueda. Dos hilos
+ * que registran la misma posición justo al crecer pueden darla ambos por
+ * nueva.
+ */
+public class TablaTransposicionConcurrente implements TablaTransposicion {
+
+    // Casillas consecutivas a sondear antes de rendirse
+    private static final int MAX_SONDEOS = 64;
+    private static final int CAPACIDAD_INICIAL = 1 << 16;
+    private static final int FACTOR_CRECIMIENTO = 4;
+    // Registros entre comprobaciones de la carga (sumar el LongAdder no es gratis)
+    private static final int MASCARA_COMPROBACION = 0x3F;
+
+    private final int capacidadMaxima;
+    private volatile Nivel actual;
+
+    /**
+     * @param capacidadMaxima casillas del nivel más grande; se redondea a potencia de 2
+     */
+    public TablaTransposicionConcurrente(int capacidadMaxima) {
+        this.capacidadMaxima = potenciaDe2(Math.max(capacidadMaxima, CAPACIDAD_INICIAL));
+        this.actual = new Nivel(Math.min(CAPACIDAD_INICIAL, this.capacidadMaxima), null);
+    }
+
+    @Override
+    public boolean agregar(long hash) {
+        if (hash == 0) {
+            hash = 1;
+        }
+        Nivel nivel = actual;
+        for (Nivel anterior = nivel.anterior; anterior != null; anterior = anterior.anterior) {
+            if (anterior.contiene(hash)) {
+                return false;
+            }
+        }
+        int i = TablaTransposicion.mezclar(hash) & nivel.mascara;
+        for (int sondeo = 0; sondeo < MAX_SONDEOS; sondeo++) {
+            long casilla = nivel.tabla.get(i);
+            if (casilla == hash) {
+                return false;
+            }
+            if (casilla == 0) {
+                if (nivel.tabla.compareAndSet(i, 0, hash)) {
+                    nivel.ocupadas.increment();
+                    if ((i & MASCARA_COMPROBACION) == 0) {
+                        comprobarCarga(nivel);
+                    }
+                    return true;
+                }
+                if (nivel.tabla.get(i) == hash) {
+                    return false;               // Otro hilo registró la misma posición
+                }
+            }
+            i = (i + 1) & nivel.mascara;
+        }
+        comprobarCarga(nivel);                  // Zona saturada: probablemente toca crecer
+        return true;
+    }
+
+    private void comprobarCarga(Nivel nivel) {
+        int capacidad = nivel.tabla.length();
+        if (capacidad >= capacidadMaxima || nivel.ocupadas.sum() * 2 < capacidad) {
+            return;
+        }
+        synchronized (this) {
+            if (actual == nivel) {              // Si otro hilo ya creció, no se repite
+                actual = new Nivel((int) Math.min((long) capacidad * FACTOR_CRECIMIENTO, capacidadMaxima), nivel);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long total = 0;
+        for (Nivel nivel = actual; nivel != null; nivel = nivel.anterior) {
+            total += nivel.ocupadas.sum();
+        }
+        return (int) total;
+    }
+
+    @Override
+    public long getMemoriaBytes() {
+        long total = 0;
+        for (Nivel nivel = actual; nivel != null; nivel = nivel.anterior) {
+            total += (long) nivel.tabla.length() * Long.BYTES;
+        }
+        return total;
+    }
+
+    private static int potenciaDe2(int capacidadMinima) {
+        return capacidadMinima >= 1 << 30 ? 1 << 30 : Integer.highestOneBit(capacidadMinima - 1) << 1;
+    }
+
+    // Tabla de un tamaño con el nivel anterior (más pequeño) que ya no recibe posiciones
+    private static final class Nivel {
+
+        final AtomicLongArray tabla;
+        final int mascara;
+        final LongAdder ocupadas = new LongAdder();
+        final Nivel anterior;
+
+        Nivel(int capacidad, Nivel anterior) {
+            this.tabla = new AtomicLongArray(capacidad);
+            this.mascara = capacidad - 1;
+            this.anterior = anterior;
+        }
+
+        boolean contiene(long hash) {
+            int i = TablaTransposicion.mezclar(hash) & mascara;
+            for (int sondeo = 0; sondeo < MAX_SONDEOS; sondeo++) {
+                long casilla = tabla.get(i);
+                if (casilla == hash) {
+                    return true;
+                }
+                if (casilla == 0) {
+                    return false;
+                }
+                i = (i + 1) & mascara;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Solver;
+
+// =============================================================================
+// TABLA DE TRANSPOSICIÓN (UN HILO)
+// =============================================================================
+/**
+ * Conjunto de hashes Zobrist de posiciones ya visitadas. Usa direccionamiento
+ * abierto sobre un long[] que crece al llenarse a la mitad, sin crear un
+ * objeto por posición. El valor 0 se reserva como casilla vacía.
+ */
+public class TablaTransposicionLocal implements TablaTransposicion {
+
+    private static final int CAPACIDAD_INICIAL = 1 << 16;
+
+    private long[] tabla;
+    private int ocupadas;
+
+    public TablaTransposicionLocal() {
+        this.tabla = new long[CAPACIDAD_INICIAL];
+    }
+
+    @Override
+    public boolean agregar(long hash) {
+        if (hash == 0) {
+            hash = 1;
+        }
+        if (ocupadas * 2 >= tabla.length) {
+            crecer();
+        }
+        int mascara = tabla.length - 1;
+        int i = TablaTransposicion.mezclar(hash) & mascara;
+        while (tabla[i] != 0) {
+            if (tabla[i] == hash) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        tabla[i] = hash;
+        ocupadas++;
+        return true;
+    }
+
+    private void crecer() {
+        long[] anterior = tabla;
+        tabla = new long[anterior.length * 2];
+        int mascara = tabla.length - 1;
+        for (long hash : anterior) {
+            if (hash != 0) {
+                int i = TablaTransposicion.mezclar(hash) & mascara;
+                while (tabla[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                tabla[i] = hash;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return ocupadas;
+    }
+
+    @Override
+    public long getMemoriaBytes() {
+        return (long) tabla.length * Long.BYTES;
+    }
+}
@@ -5,6 +5,7 @@
 package Strategy;
 
 import AbstractFactory.Carta;
+import AbstractFactory.ReglasCartas;
 import java.util.List;
 
 // =============================================================================
@@ -21,14 +22,13 @@ public class EstrategiaDificil implements EstrategiaJuego {
     public boolean puedeColocarCarta(Carta carta, List<Carta> destino) {
         // Si columna vacía, solo acepta Rey (valor 12)
         if (destino.isEmpty()) {
-            return carta.getValor() == 12; // Solo Rey
+            return ReglasCartas.puedeOcuparColumnaVacia(carta.getOrdinal()); // Solo Rey
         }
         
         // Obtiene carta superior de la columna destino
         Carta superior = destino.get(destino.size() - 1);
-        // Valida: colores diferentes Y valor descendente consecutivo
-        return carta.getColorPalo() != superior.getColorPalo() && 
-               carta.getValor() == superior.getValor() - 1;
+        // Valida: colores diferentes Y valor descendente consecutivo (tabla precalculada)
+        return ReglasCartas.puedeApilar(carta.getOrdinal(), superior.getOrdinal());
     }
     
     // Pasa 3 cartas del mazo (más difícil)
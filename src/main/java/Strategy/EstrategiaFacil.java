@@ -5,6 +5,7 @@
 package Strategy;
 
 import AbstractFactory.Carta;
+import AbstractFactory.ReglasCartas;
 import java.util.List;
 
 // =============================================================================
@@ -18,11 +19,10 @@ public class EstrategiaFacil implements EstrategiaJuego {
     @Override
     public boolean puedeColocarCarta(Carta carta, List<Carta> destino) {
         if (destino.isEmpty()) {
-            return carta.getValor() == 12; // Solo Rey
+            return ReglasCartas.puedeOcuparColumnaVacia(carta.getOrdinal()); // Solo Rey
         }
         Carta superior = destino.get(destino.size() - 1);
-        return carta.getColorPalo() != superior.getColorPalo()
-                && carta.getValor() == superior.getValor() - 1;
+        return ReglasCartas.puedeApilar(carta.getOrdinal(), superior.getOrdinal());
     }
 
     // Solo 1 carta del mazo (más fácil)
@@ -5,6 +5,7 @@
 package Strategy;
 
 import AbstractFactory.Carta;
+import AbstractFactory.ReglasCartas;
 import java.util.List;
 // =============================================================================
 // CONCRETE STRATEGY
@@ -17,12 +18,11 @@ public class EstrategiaKlondike implements EstrategiaJuego {
     @Override
     public boolean puedeColocarCarta(Carta carta, List<Carta> destino) {
         if (destino.isEmpty()) {
-            return carta.getValor() == 12; // Rey
+            return ReglasCartas.puedeOcuparColumnaVacia(carta.getOrdinal()); // Rey
         }
         
         Carta superior = destino.get(destino.size() - 1);
-        return carta.getColorPalo() != superior.getColorPalo() && 
-               carta.getValor() == superior.getValor() - 1;
+        return ReglasCartas.puedeApilar(carta.getOrdinal(), superior.getOrdinal());
     }
     
     // Klondike estándar pasa 3 cartas